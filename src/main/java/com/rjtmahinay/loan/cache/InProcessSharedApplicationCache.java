@@ -0,0 +1,99 @@
+package com.rjtmahinay.loan.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rjtmahinay.loan.model.LoanApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link SharedApplicationCache} held in this JVM, standing in for a store shared between nodes. Evictions are
+ * published to this node only. Eviction times are kept for {@code ttl} to refuse puts of values loaded before them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "loan.cache", name = "shared-tier", havingValue = "in-process")
+public class InProcessSharedApplicationCache implements SharedApplicationCache {
+
+    private final Cache<Long, LoanApplication> applications;
+    private final Cache<Long, List<LoanApplication>> customers;
+    private final Cache<Long, Long> applicationsEvictedAt;
+    private final Cache<Long, Long> customersEvictedAt;
+    private volatile long allCustomersEvictedAt;
+    private final Sinks.Many<Eviction> evictions = Sinks.many().multicast().directBestEffort();
+
+    public InProcessSharedApplicationCache(LoanApplicationCacheProperties properties) {
+        this.applications = build(properties.getMaxApplications(), properties.getTtl());
+        this.customers = build(properties.getMaxCustomers(), properties.getTtl());
+        this.applicationsEvictedAt = build(properties.getMaxApplications(), properties.getTtl());
+        this.customersEvictedAt = build(properties.getMaxCustomers(), properties.getTtl());
+    }
+
+    private static <V> Cache<Long, V> build(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+    }
+
+    @Override
+    public Mono<LoanApplication> get(Long id) {
+        return Mono.fromSupplier(() -> applications.getIfPresent(id));
+    }
+
+    @Override
+    public Mono<Void> put(LoanApplication application, long loadedSince) {
+        return Mono.fromRunnable(() -> putIfNotEvicted(applications, applicationsEvictedAt, 0, application.getId(),
+                application, loadedSince));
+    }
+
+    @Override
+    public Mono<List<LoanApplication>> getByCustomer(Long customerId) {
+        return Mono.fromSupplier(() -> customers.getIfPresent(customerId));
+    }
+
+    @Override
+    public Mono<Void> putByCustomer(Long customerId, List<LoanApplication> applications, long loadedSince) {
+        return Mono.fromRunnable(() -> putIfNotEvicted(customers, customersEvictedAt, allCustomersEvictedAt, customerId,
+                applications, loadedSince));
+    }
+
+    private static <V> void putIfNotEvicted(Cache<Long, V> cache, Cache<Long, Long> evictedAt, long allEvictedAt,
+                                            Long key, V value, long loadedSince) {
+        // Checked and stored atomically with respect to evictions of the same key, which go through the same entry
+        evictedAt.asMap().compute(key, (k, evicted) -> {
+            if ((evicted == null || evicted < loadedSince) && allEvictedAt < loadedSince) {
+                cache.put(key, value);
+            }
+            return evicted;
+        });
+    }
+
+    @Override
+    public Mono<Void> evict(Eviction eviction) {
+        return Mono.fromRunnable(() -> {
+            long now = System.currentTimeMillis();
+            eviction.applicationIds().forEach(id -> evict(applications, applicationsEvictedAt, id, now));
+            eviction.customerIds().forEach(id -> evict(customers, customersEvictedAt, id, now));
+            if (eviction.allCustomers()) {
+                allCustomersEvictedAt = now;
+                customers.invalidateAll();
+            }
+            evictions.emitNext(eviction, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        });
+    }
+
+    private static <V> void evict(Cache<Long, V> cache, Cache<Long, Long> evictedAt, Long key, long now) {
+        evictedAt.asMap().compute(key, (k, evicted) -> {
+            cache.invalidate(key);
+            return now;
+        });
+    }
+
+    @Override
+    public Flux<Eviction> evictions() {
+        return evictions.asFlux();
+    }
+}
@@ -0,0 +1,248 @@
+package com.rjtmahinay.loan.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rjtmahinay.loan.cache.SharedApplicationCache.Eviction;
+import com.rjtmahinay.loan.model.LoanApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+
+/**
+ * Read-through cache of loan applications by id and of each customer's application list. A local tier on each
+ * node sits in front of an optional {@link SharedApplicationCache}; the database is read only when both miss.
+ * Entries are evicted by the changes that make them stale, not refreshed on a timer.
+ * <p>
+ * Cached applications are shared between requests and must not be modified.
+ */
+@Slf4j
+@Component
+public class LoanApplicationCache {
+
+    private static final int STRIPES = 1024;
+
+    private final LoanApplicationCacheProperties properties;
+    private final SharedApplicationCache shared;
+    private final Region<LoanApplication> applications;
+    private final Region<List<LoanApplication>> customers;
+
+    public LoanApplicationCache(LoanApplicationCacheProperties properties,
+                                ObjectProvider<SharedApplicationCache> sharedTier,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.shared = sharedTier.getIfAvailable();
+        this.applications = new Region<>("by-id", properties.getMaxApplications(), meterRegistry,
+                SharedApplicationCache::get,
+                (tier, id, application, loadedSince) -> tier.put(application, loadedSince));
+        this.customers = new Region<>("by-customer", properties.getMaxCustomers(), meterRegistry,
+                SharedApplicationCache::getByCustomer,
+                SharedApplicationCache::putByCustomer);
+        if (shared != null) {
+            shared.evictions().subscribe(this::evictLocal,
+                    error -> log.error("Shared cache eviction stream failed, other nodes' changes are no longer seen: {}",
+                            error.getMessage()));
+        }
+    }
+
+    public Mono<LoanApplication> getById(Long id, Mono<LoanApplication> loader) {
+        return properties.isEnabled() ? applications.get(id, loader) : loader;
+    }
+
+    public Flux<LoanApplication> getByCustomer(Long customerId, Flux<LoanApplication> loader) {
+        if (!properties.isEnabled()) {
+            return loader;
+        }
+        return customers.get(customerId, loader.collectList().map(List::copyOf)).flatMapIterable(list -> list);
+    }
+
+    /**
+     * The application if this node holds it, without counting a lookup or reading further tiers.
+     */
+    public LoanApplication peek(Long id) {
+        return properties.isEnabled() ? applications.local.getIfPresent(id) : null;
+    }
+
+    /**
+     * Drops an application that changed, and its customer's list.
+     */
+    public Mono<Void> evict(LoanApplication application) {
+        return evict(new Eviction(List.of(application.getId()), List.of(application.getCustomerId()), false));
+    }
+
+    /**
+     * Drops a customer's list and the given applications of theirs, e.g. when the customer is deleted.
+     */
+    public Mono<Void> evictCustomer(Long customerId, Collection<Long> applicationIds) {
+        return evict(new Eviction(List.copyOf(applicationIds), List.of(customerId), false));
+    }
+
+    /**
+     * Drops applications changed in bulk, and every customer's list since the change does not say whose they are.
+     */
+    public Mono<Void> evictApplications(Collection<Long> applicationIds) {
+        if (applicationIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return evict(new Eviction(List.copyOf(applicationIds), List.of(), true));
+    }
+
+    private Mono<Void> evict(Eviction eviction) {
+        return Mono.defer(() -> {
+            evictLocal(eviction);
+            if (shared == null) {
+                return Mono.empty();
+            }
+            return shared.evict(eviction)
+                    .doOnError(error -> log.error("Error evicting {} from shared cache: {}", eviction, error.getMessage()))
+                    // The eviction reached no other node; they drop the entries once their ttl expires
+                    .onErrorResume(error -> Mono.empty());
+        });
+    }
+
+    private void evictLocal(Eviction eviction) {
+        eviction.applicationIds().forEach(applications::evict);
+        if (eviction.allCustomers()) {
+            customers.evictAll();
+        } else {
+            eviction.customerIds().forEach(customers::evict);
+        }
+    }
+
+    private static int stripe(Long key) {
+        return Long.hashCode(key) & (STRIPES - 1);
+    }
+
+    private interface SharedPut<V> {
+
+        Mono<Void> put(SharedApplicationCache tier, Long key, V value, long loadedSince);
+    }
+
+    private final class Region<V> {
+
+        private final String name;
+        private final Cache<Long, V> local;
+        // Bumped before every eviction; a load that overlaps a bump may have read a row that has since changed,
+        // so its value is returned to the caller but not cached
+        private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+        private final BiFunction<SharedApplicationCache, Long, Mono<V>> sharedGet;
+        private final SharedPut<V> sharedPut;
+        private final Counter localHits;
+        private final Counter localMisses;
+        private final Counter sharedHits;
+        private final Counter sharedMisses;
+
+        private Region(String name, long maximumSize, MeterRegistry meterRegistry,
+                       BiFunction<SharedApplicationCache, Long, Mono<V>> sharedGet,
+                       SharedPut<V> sharedPut) {
+            this.name = name;
+            this.local = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(properties.getTtl())
+                    .build();
+            this.sharedGet = sharedGet;
+            this.sharedPut = sharedPut;
+            this.localHits = gets(meterRegistry, "local", "hit");
+            this.localMisses = gets(meterRegistry, "local", "miss");
+            this.sharedHits = gets(meterRegistry, "shared", "hit");
+            this.sharedMisses = gets(meterRegistry, "shared", "miss");
+            hitRatio(meterRegistry, "local", localHits, localMisses);
+            hitRatio(meterRegistry, "shared", sharedHits, sharedMisses);
+            Gauge.builder("loan.cache.size", local, Cache::estimatedSize)
+                    .description("Entries in this node's local cache tier")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+
+        private Counter gets(MeterRegistry meterRegistry, String tier, String result) {
+            return Counter.builder("loan.cache.gets")
+                    .description("Loan application cache lookups")
+                    .tag("cache", name)
+                    .tag("tier", tier)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private void hitRatio(MeterRegistry meterRegistry, String tier, Counter hits, Counter misses) {
+            Gauge.builder("loan.cache.hit-ratio", () -> {
+                        double total = hits.count() + misses.count();
+                        return total == 0 ? Double.NaN : hits.count() / total;
+                    })
+                    .description("Share of lookups answered by the tier since startup")
+                    .tag("cache", name)
+                    .tag("tier", tier)
+                    .register(meterRegistry);
+        }
+
+        private Mono<V> get(Long key, Mono<V> loader) {
+            return Mono.defer(() -> {
+                V cached = local.getIfPresent(key);
+                if (cached != null) {
+                    localHits.increment();
+                    return Mono.just(cached);
+                }
+                localMisses.increment();
+                int stripe = stripe(key);
+                long version = versions.get(stripe);
+                long loadedSince = System.currentTimeMillis();
+                Mono<V> fromDatabase = loader.flatMap(loaded -> versions.get(stripe) == version
+                        ? putShared(key, loaded, loadedSince).thenReturn(loaded)
+                        : Mono.just(loaded));
+                return getShared(key)
+                        .switchIfEmpty(fromDatabase)
+                        .doOnNext(value -> {
+                            if (versions.get(stripe) == version) {
+                                local.put(key, value);
+                            }
+                        });
+            });
+        }
+
+        private Mono<V> getShared(Long key) {
+            if (shared == null) {
+                return Mono.empty();
+            }
+            // A failing shared tier degrades to database reads
+            return sharedGet.apply(shared, key)
+                    .doOnNext(value -> sharedHits.increment())
+                    .switchIfEmpty(Mono.fromRunnable(sharedMisses::increment))
+                    .onErrorResume(error -> {
+                        log.warn("Shared cache read of {} {} failed: {}", name, key, error.getMessage());
+                        sharedMisses.increment();
+                        return Mono.empty();
+                    });
+        }
+
+        private Mono<Void> putShared(Long key, V value, long loadedSince) {
+            if (shared == null) {
+                return Mono.empty();
+            }
+            return sharedPut.put(shared, key, value, loadedSince)
+                    .onErrorResume(error -> {
+                        log.warn("Shared cache write of {} {} failed: {}", name, key, error.getMessage());
+                        return Mono.empty();
+                    });
+        }
+
+        private void evict(Long key) {
+            versions.incrementAndGet(stripe(key));
+            local.invalidate(key);
+        }
+
+        private void evictAll() {
+            for (int i = 0; i < STRIPES; i++) {
+                versions.incrementAndGet(i);
+            }
+            local.invalidateAll();
+        }
+    }
+}
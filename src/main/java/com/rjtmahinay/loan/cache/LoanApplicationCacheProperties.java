@@ -0,0 +1,46 @@
+package com.rjtmahinay.loan.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.cache")
+public class LoanApplicationCacheProperties {
+
+    /**
+     * When disabled, by-id and by-customer reads always go to the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Applications held by id in each node's local tier.
+     */
+    private long maxApplications = 100_000;
+
+    /**
+     * Per-customer application lists held in each node's local tier.
+     */
+    private long maxCustomers = 20_000;
+
+    /**
+     * Upper bound on how long an entry is served, in both tiers. Transitions evict their application right away;
+     * this only limits how long a change made outside the service (e.g. directly in the database) goes unseen.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private SharedTier sharedTier = SharedTier.NONE;
+
+    public enum SharedTier {
+        /**
+         * Each node caches on its own; evictions are not seen by other nodes, which rely on {@code ttl}.
+         */
+        NONE,
+        /**
+         * {@link InProcessSharedApplicationCache}, a stand-in for a shared store such as Redis, for tests and
+         * single-node runs.
+         */
+        IN_PROCESS
+    }
+}
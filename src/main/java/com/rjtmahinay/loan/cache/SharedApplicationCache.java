@@ -0,0 +1,42 @@
+package com.rjtmahinay.loan.cache;
+
+import com.rjtmahinay.loan.model.LoanApplication;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Second cache tier, shared by every node of a deployment. It fills local tiers after a local miss and carries
+ * evictions from the node that made a change to all the others.
+ * <p>
+ * {@code loadedSince} on a put is when the value started loading from the database; an implementation must drop
+ * the put when the entry was evicted at or after that time, so a slow read on one node cannot bring back a row
+ * another node has just changed.
+ */
+public interface SharedApplicationCache {
+
+    Mono<LoanApplication> get(Long id);
+
+    Mono<Void> put(LoanApplication application, long loadedSince);
+
+    Mono<List<LoanApplication>> getByCustomer(Long customerId);
+
+    Mono<Void> putByCustomer(Long customerId, List<LoanApplication> applications, long loadedSince);
+
+    /**
+     * Removes the entries and publishes the eviction to every node, this one included.
+     */
+    Mono<Void> evict(Eviction eviction);
+
+    /**
+     * Evictions published by any node, for each node to apply to its local tier.
+     */
+    Flux<Eviction> evictions();
+
+    /**
+     * @param allCustomers every per-customer list, for bulk changes that do not report which customers they touched
+     */
+    record Eviction(List<Long> applicationIds, List<Long> customerIds, boolean allCustomers) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "loan.accrual")
+public class AccrualProperties {
+
+    /**
+     * Whether the nightly run is scheduled; runs can still be started through the API.
+     */
+    private boolean enabled = true;
+
+    /**
+     * When the nightly run starts; it accrues interest and ages loans through that day.
+     */
+    private String cron = "0 30 0 * * *";
+
+    /**
+     * Accounts read, computed and written per chunk; progress is checkpointed after each chunk.
+     */
+    private int chunkSize = 2000;
+
+    /**
+     * Chunks in flight per shard. Chunks are computed on the parallel scheduler, so this bounds the cores used.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,31 @@
+package com.rjtmahinay.loan.config;
+
+import com.rjtmahinay.loan.service.LoanApplicationEventLog;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puts the caller named in the {@code X-Actor} header into the Reactor context, where the event log picks it
+ * up as the actor of any transition the request makes.
+ */
+@Component
+public class ActorContextFilter implements WebFilter {
+
+    static final String HEADER = "X-Actor";
+    private static final int MAX_LENGTH = 100;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String actor = exchange.getRequest().getHeaders().getFirst(HEADER);
+        if (!StringUtils.hasText(actor)) {
+            return chain.filter(exchange);
+        }
+        String trimmed = actor.strip();
+        String value = trimmed.length() > MAX_LENGTH ? trimmed.substring(0, MAX_LENGTH) : trimmed;
+        return chain.filter(exchange).contextWrite(context -> context.put(LoanApplicationEventLog.ACTOR, value));
+    }
+}
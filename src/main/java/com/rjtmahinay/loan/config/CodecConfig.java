@@ -0,0 +1,32 @@
+package com.rjtmahinay.loan.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Registers Jackson Smile next to JSON. Clients opt in with {@code Accept: application/x-jackson-smile}
+ * to get a compact binary encoding of the same payloads.
+ */
+@Configuration
+public class CodecConfig {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        // Built from Boot's builder so dates, modules and features match the JSON encoding
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        // Without explicit mime types the Smile codecs would also claim application/json
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE));
+        };
+    }
+}
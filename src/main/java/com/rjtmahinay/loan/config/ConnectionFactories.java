@@ -0,0 +1,26 @@
+package com.rjtmahinay.loan.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+
+/**
+ * Helpers for the connection factories built by hand when the auto-configured one is replaced, e.g. per replica
+ * or per shard.
+ */
+public final class ConnectionFactories {
+
+    private ConnectionFactories() {
+    }
+
+    /**
+     * Applies the decorators as Boot applies them to the connection factory it configures, e.g. to trace every query.
+     */
+    public static ConnectionFactory decorate(ConnectionFactory connectionFactory,
+                                             ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        for (ConnectionFactoryDecorator decorator : decorators.orderedStream().toList()) {
+            connectionFactory = decorator.decorate(connectionFactory);
+        }
+        return connectionFactory;
+    }
+}
@@ -0,0 +1,32 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.event-log")
+public class EventLogProperties {
+
+    /**
+     * Events buffered in memory before they are written, rounded up to a power of two. Also the most events a
+     * crash can lose; when the buffer is full, events are written on the request path instead.
+     */
+    private int bufferCapacity = 8192;
+
+    /**
+     * Delay between flushes of buffered events.
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * Events per INSERT batch; a flush is also started early once this many are buffered.
+     */
+    private int maxBatchSize = 500;
+
+    /**
+     * How long shutdown waits for buffered events to be written.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,74 @@
+package com.rjtmahinay.loan.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Wiring for the JDBC persistence mode. The JDBC repositories block on the H2 driver, so every
+ * call is shifted onto this scheduler instead of the Netty event loop.
+ *
+ * <p>Only {@code LoanApplicationRepository} and {@code CustomerRepository} switch to JDBC. The write
+ * coalescer's batch writer, review leases, the stale-application sweep, the event log, the ledger and
+ * accrual runs keep using R2DBC, so this mode runs both drivers against the same database.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "loan.persistence", name = "mode", havingValue = "jdbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcPersistenceConfig {
+
+    // Spring Boot backs off its own DataSource whenever an R2DBC ConnectionFactory exists, which is always here
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+        return new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(PersistenceProperties properties) {
+        int runtime = Runtime.version().feature();
+        ExecutorService executor = properties.isVirtualThreads() ? newVirtualThreadExecutor(runtime) : null;
+        if (executor != null) {
+            log.info("JDBC persistence mode: loan application and customer repositories on JDBC, "
+                    + "executor: virtual threads (Java {})", runtime);
+        } else {
+            log.info("JDBC persistence mode: loan application and customer repositories on JDBC, "
+                    + "executor: {} platform threads (Java {}, virtual threads {})", properties.getJdbcWorkerThreads(),
+                    runtime, properties.isVirtualThreads() ? "unavailable" : "disabled");
+            executor = Executors.newFixedThreadPool(properties.getJdbcWorkerThreads());
+        }
+        return Schedulers.fromExecutorService(executor, "jdbc");
+    }
+
+    // Looked up reflectively so the default Java 17 build still compiles. Whether it exists depends on the
+    // runtime the node starts on, not on the -Pjava21 build profile
+    private static ExecutorService newVirtualThreadExecutor(int runtime) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need a Java 21 runtime, this node runs Java {}; "
+                    + "falling back to a platform thread pool", runtime);
+            return null;
+        }
+    }
+}
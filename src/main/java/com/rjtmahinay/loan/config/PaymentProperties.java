@@ -0,0 +1,20 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "loan.payments")
+public class PaymentProperties {
+
+    /**
+     * Bank-file payments posted per transaction. Each chunk is two lookups, one ledger insert and one
+     * account update, whatever its size.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Rejected bank-file lines listed in the posting result; the rest are only counted.
+     */
+    private int maxReportedRejections = 100;
+}
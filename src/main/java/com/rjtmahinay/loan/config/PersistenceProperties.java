@@ -0,0 +1,30 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "loan.persistence")
+public class PersistenceProperties {
+
+    /**
+     * Which driver stack backs the repositories. R2DBC is the default; JDBC runs the
+     * blocking H2 driver through HikariCP on a dedicated executor.
+     */
+    private Mode mode = Mode.R2DBC;
+
+    /**
+     * Run JDBC calls on virtual threads when the runtime supports them (Java 21+).
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Platform thread count used for JDBC calls when virtual threads are unavailable or disabled.
+     */
+    private int jdbcWorkerThreads = 32;
+
+    public enum Mode {
+        R2DBC,
+        JDBC
+    }
+}
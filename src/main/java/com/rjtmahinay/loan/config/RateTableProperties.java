@@ -0,0 +1,24 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.rate-table")
+public class RateTableProperties {
+
+    /**
+     * CSV rate table (loan_type,min_amount,min_term_months,min_credit_score,rate) stored as the first version
+     * when the database has none, and used if the database cannot be read at startup.
+     */
+    private Resource seedFile = new ClassPathResource("rate-table.csv");
+
+    /**
+     * How often to check for a version published by another instance.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+}
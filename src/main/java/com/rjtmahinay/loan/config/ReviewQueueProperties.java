@@ -0,0 +1,26 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.review-queue")
+public class ReviewQueueProperties {
+
+    /**
+     * How long a claimed application stays reserved for its reviewer unless the lease is renewed.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(15);
+
+    /**
+     * Upper bound on the number of applications one claim can lease.
+     */
+    private int maxClaimSize = 50;
+
+    /**
+     * Delay between runs of the sweeper that clears expired leases.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(30);
+}
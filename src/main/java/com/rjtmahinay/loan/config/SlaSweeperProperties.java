@@ -0,0 +1,38 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.sla-sweeper")
+public class SlaSweeperProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Delay between the end of one sweep and the start of the next.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+
+    /**
+     * Rows changed per UPDATE statement; keeps each statement's locks and undo log small.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Upper bound on statements per transition per sweep, so a large backlog is worked off over several sweeps.
+     */
+    private int maxBatchesPerSweep = 20;
+
+    /**
+     * SUBMITTED applications untouched for this long are moved to UNDER_REVIEW.
+     */
+    private Duration reviewAfter = Duration.ofDays(2);
+
+    /**
+     * SUBMITTED or UNDER_REVIEW applications untouched for this long are CANCELLED.
+     */
+    private Duration cancelAfter = Duration.ofDays(30);
+}
@@ -0,0 +1,40 @@
+package com.rjtmahinay.loan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.write-coalescer")
+public class WriteCoalescerProperties {
+
+    /**
+     * When disabled every update is written immediately, still as a changed-columns-only UPDATE.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long the first update of a batch waits for others to join it.
+     */
+    private Duration window = Duration.ofMillis(5);
+
+    /**
+     * A batch is flushed early once it holds this many distinct applications.
+     */
+    private int maxBatchSize = 500;
+
+    private Durability durability = Durability.WRITE_THROUGH;
+
+    public enum Durability {
+        /**
+         * Callers complete only after their batch is committed; coalescing trades a little latency for fewer statements.
+         */
+        WRITE_THROUGH,
+        /**
+         * Callers complete as soon as the update is queued. Queued updates are lost if the process dies before the
+         * next flush, and other nodes see them only after that flush.
+         */
+        WRITE_BEHIND
+    }
+}
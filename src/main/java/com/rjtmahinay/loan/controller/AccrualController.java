@@ -0,0 +1,75 @@
+package com.rjtmahinay.loan.controller;
+
+import com.rjtmahinay.loan.model.AccrualRun;
+import com.rjtmahinay.loan.service.AccrualBatch;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/accrual-runs")
+@RequiredArgsConstructor
+@Tag(name = "Accrual Runs", description = "APIs for the nightly interest accrual and delinquency aging batch")
+public class AccrualController {
+
+    private final AccrualBatch accrualBatch;
+
+    @PostMapping
+    @Operation(summary = "Run accrual",
+               description = "Accrues interest and ages every disbursed loan through the business date. " +
+                             "A run for a date that was interrupted resumes from its last checkpoint; " +
+                             "a completed date is not run again.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Run finished; one entry per shard",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = AccrualRun.class))),
+        @ApiResponse(responseCode = "400", description = "Business date is in the future",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Another accrual run is in progress",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<List<AccrualRun>>> runAccrual(
+            @Parameter(description = "Business date to accrue through; defaults to today", example = "2026-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+        LocalDate today = LocalDate.now();
+        LocalDate date = businessDate != null ? businessDate : today;
+        log.info("POST /api/v1/accrual-runs - Running accrual for {}", date);
+
+        // Accruing ahead would charge interest not yet earned and age loans against days that have not passed
+        if (date.isAfter(today)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return accrualBatch.run(date)
+                .map(ResponseEntity::ok)
+                .onErrorReturn(IllegalStateException.class, ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping("/{businessDate}")
+    @Operation(summary = "Get accrual progress",
+               description = "Retrieves the checkpoint of each shard's run for a business date")
+    @ApiResponse(responseCode = "200", description = "Checkpoints; empty when no run has started for the date",
+                content = @Content(mediaType = "application/json",
+                                 schema = @Schema(implementation = AccrualRun.class)))
+    public Flux<AccrualRun> getAccrualRuns(
+            @Parameter(description = "Business date", required = true, example = "2026-01-31")
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+        log.info("GET /api/v1/accrual-runs/{} - Fetching accrual progress", businessDate);
+        return accrualBatch.getRuns(businessDate);
+    }
+}
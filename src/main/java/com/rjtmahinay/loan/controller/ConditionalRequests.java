@@ -0,0 +1,62 @@
+package com.rjtmahinay.loan.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for single resources. Validators are derived from the resource id and its
+ * {@code updatedAt}, which can be read with a timestamp-only query, so a {@code 304} is answered
+ * without loading or serializing the full row.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * @param version   the resource's {@code updatedAt}; empty if unknown, in which case the body is always loaded
+     * @param body      loads the full resource, empty if it does not exist
+     * @param updatedAt extracts {@code updatedAt} from the loaded resource
+     */
+    static <T> Mono<ResponseEntity<T>> getIfModified(ServerWebExchange exchange, Long id,
+                                                     Mono<LocalDateTime> version,
+                                                     Supplier<Mono<T>> body,
+                                                     Function<T, LocalDateTime> updatedAt) {
+        return version
+                .filter(timestamp -> exchange.checkNotModified(eTag(id, timestamp), lastModified(timestamp)))
+                .map(timestamp -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag(id, timestamp))
+                        .lastModified(lastModified(timestamp))
+                        .<T>build())
+                .switchIfEmpty(Mono.defer(() -> body.get()
+                        .map(resource -> ok(id, resource, updatedAt.apply(resource)))
+                        .defaultIfEmpty(ResponseEntity.notFound().build())));
+    }
+
+    private static <T> ResponseEntity<T> ok(Long id, T resource, LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return ResponseEntity.ok(resource);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag(id, timestamp))
+                .lastModified(lastModified(timestamp))
+                .body(resource);
+    }
+
+    static String eTag(Long id, LocalDateTime timestamp) {
+        return id + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, lastModified(timestamp));
+    }
+
+    private static Instant lastModified(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
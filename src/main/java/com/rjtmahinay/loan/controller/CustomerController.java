@@ -1,6 +1,7 @@
 package com.rjtmahinay.loan.controller;
 
 import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.CustomerOverview;
 import com.rjtmahinay.loan.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,14 +10,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Set;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/customers")
@@ -48,21 +54,56 @@ public class CustomerController {
     
     @GetMapping("/{id}")
     @Operation(summary = "Get customer by ID", 
-               description = "Retrieves a customer by their unique identifier")
+               description = "Retrieves a customer by their unique identifier. " +
+                             "Supports conditional requests via If-None-Match and If-Modified-Since.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Customer found",
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = Customer.class))),
+        @ApiResponse(responseCode = "304", description = "Customer unchanged since the supplied validator",
+                    content = @Content),
         @ApiResponse(responseCode = "404", description = "Customer not found",
                     content = @Content)
     })
     public Mono<ResponseEntity<Customer>> getCustomerById(
             @Parameter(description = "Customer ID", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            ServerWebExchange exchange) {
         log.info("GET /api/v1/customers/{} - Fetching customer", id);
         
-        return customerService.getCustomerById(id)
-                .map(ResponseEntity::ok)
+        return ConditionalRequests.getIfModified(exchange, id,
+                customerService.getCustomerVersion(id),
+                () -> customerService.getCustomerById(id),
+                Customer::getUpdatedAt);
+    }
+    
+    @GetMapping("/{id}/overview")
+    @Operation(summary = "Get customer overview", 
+               description = "Retrieves a customer together with their loan applications and totals for exposure, " +
+                             "active applications and monthly obligations. Supports conditional requests via ETag.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Customer overview found",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = CustomerOverview.class))),
+        @ApiResponse(responseCode = "304", description = "Overview unchanged since the supplied ETag",
+                    content = @Content),
+        @ApiResponse(responseCode = "404", description = "Customer not found",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<CustomerOverview>> getCustomerOverview(
+            @Parameter(description = "Customer ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Sections to include: customer, applications, summary (default all)", 
+                      example = "summary")
+            @RequestParam(required = false) Set<String> fields) {
+        log.info("GET /api/v1/customers/{}/overview - Fetching customer overview", id);
+        
+        // ETag covers the full overview plus the projection, so a 304 is answered before any body is written
+        return customerService.getCustomerOverview(id)
+                .map(overview -> ResponseEntity.ok()
+                        .eTag(overview.version(fields))
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(overview.project(fields)))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
     
@@ -111,6 +152,32 @@ public class CustomerController {
         return customerService.searchCustomersByName(name);
     }
     
+    @PostMapping("/search/ssn")
+    @Operation(summary = "Find customer by SSN", 
+               description = "Finds a customer by SSN through its blind index; the SSN is sent in the body so it "
+                       + "stays out of URLs and access logs, and may be formatted with or without dashes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Customer found",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = Customer.class))),
+        @ApiResponse(responseCode = "400", description = "No SSN provided",
+                    content = @Content),
+        @ApiResponse(responseCode = "404", description = "Customer not found",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<Customer>> findCustomerBySsn(
+            @Parameter(description = "SSN to look up", required = true)
+            @RequestBody SsnLookupRequest request) {
+        log.info("POST /api/v1/customers/search/ssn - Fetching customer by SSN");
+        if (request.getSsn() == null || request.getSsn().isBlank()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return customerService.getCustomerBySsn(request.getSsn())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
     @PutMapping("/{id}")
     @Operation(summary = "Update customer", 
                description = "Updates an existing customer with the provided information")
@@ -150,4 +217,11 @@ public class CustomerController {
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()))
                 .onErrorReturn(ResponseEntity.notFound().build());
     }
+    
+    @Data
+    @Schema(description = "Request body for finding a customer by SSN")
+    public static class SsnLookupRequest {
+        @Schema(description = "Social Security Number, with or without dashes", example = "123-45-6789", required = true)
+        private String ssn;
+    }
 }
@@ -0,0 +1,86 @@
+package com.rjtmahinay.loan.controller;
+
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.RegionExposure;
+import com.rjtmahinay.loan.service.ExposureRollup;
+import com.rjtmahinay.loan.service.ExposureRollup.Level;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/exposure")
+@RequiredArgsConstructor
+@Tag(name = "Exposure", description = "APIs for outstanding loan exposure by region, for concentration limits")
+public class ExposureController {
+
+    private static final int MAX_TOP_REGIONS = 1000;
+
+    private final ExposureRollup exposureRollup;
+
+    @GetMapping("/regions")
+    @Operation(summary = "Get exposure by region",
+               description = "Outstanding loan exposure of every zip code region, largest first")
+    @ApiResponse(responseCode = "200", description = "Exposure per region",
+                content = @Content(mediaType = "application/json",
+                                 array = @ArraySchema(schema = @Schema(implementation = RegionExposure.class))))
+    public Mono<List<RegionExposure>> getExposureByRegion(
+            @Parameter(description = "Region granularity: 3- or 5-digit zip prefix", example = "ZIP3")
+            @RequestParam(defaultValue = "ZIP3") Level level,
+            @Parameter(description = "Limit to one loan type", example = "AUTO")
+            @RequestParam(required = false) LoanType loanType) {
+        log.info("GET /api/v1/exposure/regions - Fetching exposure by {} for loan type {}", level, loanType);
+        return Mono.fromSupplier(() -> exposureRollup.getExposure(level, loanType));
+    }
+
+    @GetMapping("/regions/top")
+    @Operation(summary = "Get most exposed regions",
+               description = "The k zip code regions with the largest outstanding loan exposure")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Most exposed regions, largest first",
+                    content = @Content(mediaType = "application/json",
+                                     array = @ArraySchema(schema = @Schema(implementation = RegionExposure.class)))),
+        @ApiResponse(responseCode = "400", description = "Invalid k",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<List<RegionExposure>>> getTopRegions(
+            @Parameter(description = "Region granularity: 3- or 5-digit zip prefix", example = "ZIP3")
+            @RequestParam(defaultValue = "ZIP3") Level level,
+            @Parameter(description = "Limit to one loan type", example = "AUTO")
+            @RequestParam(required = false) LoanType loanType,
+            @Parameter(description = "Number of regions to return", example = "10")
+            @RequestParam(defaultValue = "10") int k) {
+        log.info("GET /api/v1/exposure/regions/top - Fetching top {} regions by {} for loan type {}", k, level, loanType);
+
+        if (k < 1 || k > MAX_TOP_REGIONS) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.fromSupplier(() -> ResponseEntity.ok(exposureRollup.getTopRegions(level, loanType, k)));
+    }
+
+    @GetMapping("/regions/{region}")
+    @Operation(summary = "Get exposure of one region",
+               description = "Outstanding loan exposure of a 3- or 5-digit zip prefix, broken down by loan type")
+    @ApiResponse(responseCode = "200", description = "Exposure per loan type in the region",
+                content = @Content(mediaType = "application/json",
+                                 array = @ArraySchema(schema = @Schema(implementation = RegionExposure.class))))
+    public Mono<List<RegionExposure>> getRegionExposure(
+            @Parameter(description = "3- or 5-digit zip prefix", required = true, example = "902")
+            @PathVariable String region) {
+        log.info("GET /api/v1/exposure/regions/{} - Fetching region exposure", region);
+        return Mono.fromSupplier(() -> exposureRollup.getRegionExposure(region));
+    }
+}
@@ -1,7 +1,11 @@
 package com.rjtmahinay.loan.controller;
 
+import com.rjtmahinay.loan.model.CollateralConflict;
 import com.rjtmahinay.loan.model.LoanApplication;
 import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplicationEvent;
+import com.rjtmahinay.loan.model.LoanApplicationSummary;
+import com.rjtmahinay.loan.service.CollateralRegistry;
 import com.rjtmahinay.loan.service.LoanApplicationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,12 +14,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -29,6 +35,7 @@ import java.math.BigDecimal;
 public class LoanApplicationController {
     
     private final LoanApplicationService loanApplicationService;
+    private final CollateralRegistry collateralRegistry;
     
     @PostMapping
     @Operation(summary = "Submit loan application", 
@@ -52,22 +59,27 @@ public class LoanApplicationController {
     
     @GetMapping("/{id}")
     @Operation(summary = "Get loan application by ID", 
-               description = "Retrieves a loan application by its unique identifier")
+               description = "Retrieves a loan application by its unique identifier. " +
+                             "Supports conditional requests via If-None-Match and If-Modified-Since.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Loan application found",
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = LoanApplication.class))),
+        @ApiResponse(responseCode = "304", description = "Loan application unchanged since the supplied validator",
+                    content = @Content),
         @ApiResponse(responseCode = "404", description = "Loan application not found",
                     content = @Content)
     })
     public Mono<ResponseEntity<LoanApplication>> getLoanApplicationById(
             @Parameter(description = "Loan application ID", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            ServerWebExchange exchange) {
         log.info("GET /api/v1/loan-applications/{} - Fetching loan application", id);
         
-        return loanApplicationService.getLoanApplicationById(id)
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+        return ConditionalRequests.getIfModified(exchange, id,
+                loanApplicationService.getLoanApplicationVersion(id),
+                () -> loanApplicationService.getLoanApplicationById(id),
+                LoanApplication::getUpdatedAt);
     }
     
     @GetMapping("/customer/{customerId}")
@@ -98,6 +110,21 @@ public class LoanApplicationController {
         return loanApplicationService.getLoanApplicationsByStatus(status);
     }
     
+    @GetMapping("/status/{status}/summary")
+    @Operation(summary = "Get loan application summaries by status", 
+               description = "Retrieves a compact, column-projected view of loan applications with a specific status")
+    @ApiResponse(responseCode = "200", description = "List of loan application summaries with the specified status",
+                content = @Content(mediaType = "application/json", 
+                                 schema = @Schema(implementation = LoanApplicationSummary.class)))
+    public Flux<LoanApplicationSummary> getLoanApplicationSummariesByStatus(
+            @Parameter(description = "Application status", required = true, 
+                      example = "UNDER_REVIEW", 
+                      schema = @Schema(implementation = ApplicationStatus.class))
+            @PathVariable ApplicationStatus status) {
+        log.info("GET /api/v1/loan-applications/status/{}/summary - Fetching application summaries by status", status);
+        return loanApplicationService.getLoanApplicationSummariesByStatus(status);
+    }
+    
     @GetMapping("/pending")
     @Operation(summary = "Get pending loan applications", 
                description = "Retrieves all loan applications that are pending review")
@@ -120,6 +147,28 @@ public class LoanApplicationController {
         return loanApplicationService.getAllLoanApplications();
     }
     
+    @GetMapping("/summary")
+    @Operation(summary = "Get all loan application summaries", 
+               description = "Retrieves a compact, column-projected view of all loan applications")
+    @ApiResponse(responseCode = "200", description = "List of all loan application summaries",
+                content = @Content(mediaType = "application/json", 
+                                 schema = @Schema(implementation = LoanApplicationSummary.class)))
+    public Flux<LoanApplicationSummary> getAllLoanApplicationSummaries() {
+        log.info("GET /api/v1/loan-applications/summary - Fetching all loan application summaries");
+        return loanApplicationService.getAllLoanApplicationSummaries();
+    }
+    
+    @GetMapping("/collateral-conflicts")
+    @Operation(summary = "Get collateral conflicts", 
+               description = "Lists vehicles pledged as collateral on more than one open loan application")
+    @ApiResponse(responseCode = "200", description = "List of vehicles with conflicting pledges",
+                content = @Content(mediaType = "application/json", 
+                                 schema = @Schema(implementation = CollateralConflict.class)))
+    public Flux<CollateralConflict> getCollateralConflicts() {
+        log.info("GET /api/v1/loan-applications/collateral-conflicts - Fetching collateral conflicts");
+        return collateralRegistry.getCollateralConflicts();
+    }
+    
     @PutMapping("/{id}/review")
     @Operation(summary = "Start loan application review", 
                description = "Changes the status of a loan application to under review")
@@ -148,11 +197,15 @@ public class LoanApplicationController {
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = LoanApplication.class))),
         @ApiResponse(responseCode = "400", description = "Cannot approve application in current state",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Application is leased to another reviewer",
                     content = @Content)
     })
     public Mono<ResponseEntity<LoanApplication>> approveLoanApplication(
             @Parameter(description = "Loan application ID", required = true, example = "1")
             @PathVariable Long id,
+            @Parameter(description = "Review lease token; required while the application is leased")
+            @RequestParam(required = false) String token,
             @Parameter(description = "Approval details including amount and interest rate", required = true)
             @RequestBody ApprovalRequest approvalRequest) {
         log.info("PUT /api/v1/loan-applications/{}/approve - Approving with amount: {}", 
@@ -161,8 +214,10 @@ public class LoanApplicationController {
         return loanApplicationService.approveLoanApplication(
                         id, 
                         approvalRequest.getApprovedAmount(), 
-                        approvalRequest.getInterestRate())
+                        approvalRequest.getInterestRate(),
+                        token)
                 .map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class, error -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
                 .onErrorReturn(ResponseEntity.badRequest().build());
     }
     
@@ -174,18 +229,23 @@ public class LoanApplicationController {
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = LoanApplication.class))),
         @ApiResponse(responseCode = "400", description = "Cannot reject application in current state",
+                    content = @Content),
+        @ApiResponse(responseCode = "409", description = "Application is leased to another reviewer",
                     content = @Content)
     })
     public Mono<ResponseEntity<LoanApplication>> rejectLoanApplication(
             @Parameter(description = "Loan application ID", required = true, example = "1")
             @PathVariable Long id,
+            @Parameter(description = "Review lease token; required while the application is leased")
+            @RequestParam(required = false) String token,
             @Parameter(description = "Rejection details including reason", required = true)
             @RequestBody RejectionRequest rejectionRequest) {
         log.info("PUT /api/v1/loan-applications/{}/reject - Rejecting with reason: {}", 
                 id, rejectionRequest.getRejectionReason());
         
-        return loanApplicationService.rejectLoanApplication(id, rejectionRequest.getRejectionReason())
+        return loanApplicationService.rejectLoanApplication(id, rejectionRequest.getRejectionReason(), token)
                 .map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class, error -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
                 .onErrorReturn(ResponseEntity.badRequest().build());
     }
     
@@ -209,6 +269,60 @@ public class LoanApplicationController {
                 .onErrorReturn(ResponseEntity.badRequest().build());
     }
     
+    @PutMapping("/{id}/cancel")
+    @Operation(summary = "Cancel loan application", 
+               description = "Cancels a submitted or under review loan application, freeing one of the customer's active application slots")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Loan application cancelled successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = LoanApplication.class))),
+        @ApiResponse(responseCode = "400", description = "Cannot cancel application in current state",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<LoanApplication>> cancelLoanApplication(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long id) {
+        log.info("PUT /api/v1/loan-applications/{}/cancel - Cancelling application", id);
+        
+        return loanApplicationService.cancelLoanApplication(id)
+                .map(ResponseEntity::ok)
+                .onErrorReturn(ResponseEntity.badRequest().build());
+    }
+    
+    @GetMapping("/{id}/history")
+    @Operation(summary = "Get loan application history", 
+               description = "Replays the status transitions of a loan application, oldest first, with who made each. " +
+                             "Transitions from the last fraction of a second may not be listed yet.")
+    @ApiResponse(responseCode = "200", description = "Status transitions of the application",
+                content = @Content(mediaType = "application/json", 
+                                 schema = @Schema(implementation = LoanApplicationEvent.class)))
+    public Flux<LoanApplicationEvent> getLoanApplicationHistory(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long id) {
+        log.info("GET /api/v1/loan-applications/{}/history - Fetching history", id);
+        return loanApplicationService.getLoanApplicationHistory(id);
+    }
+    
+    @GetMapping("/{id}/history/status")
+    @Operation(summary = "Rebuild loan application status", 
+               description = "Rebuilds the current status of a loan application from its history alone")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status rebuilt from history",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = ReplayedStatusResponse.class))),
+        @ApiResponse(responseCode = "404", description = "No history recorded for the application",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<ReplayedStatusResponse>> getReplayedStatus(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long id) {
+        log.info("GET /api/v1/loan-applications/{}/history/status - Rebuilding status from history", id);
+        
+        return loanApplicationService.getReplayedStatus(id)
+                .map(status -> ResponseEntity.ok(new ReplayedStatusResponse(id, status)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping("/total-value")
     @Operation(summary = "Get total loan value", 
                description = "Retrieves the total value of all loan applications in the system")
@@ -260,6 +374,17 @@ public class LoanApplicationController {
         private String rejectionReason;
     }
     
+    @Data
+    @AllArgsConstructor
+    @Schema(description = "Status of a loan application rebuilt from its history")
+    public static class ReplayedStatusResponse {
+        @Schema(description = "Loan application ID", example = "1")
+        private Long applicationId;
+        
+        @Schema(description = "Status after the last recorded transition", example = "APPROVED")
+        private ApplicationStatus status;
+    }
+    
     @Data
     @Schema(description = "Response containing total loan value information")
     public static class TotalLoanValueResponse {
@@ -0,0 +1,198 @@
+package com.rjtmahinay.loan.controller;
+
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.model.LoanPayment;
+import com.rjtmahinay.loan.service.PayoffSimulator;
+import com.rjtmahinay.loan.service.PayoffSimulator.LumpSum;
+import com.rjtmahinay.loan.service.PayoffSimulator.Scenario;
+import com.rjtmahinay.loan.service.PayoffSimulator.Simulation;
+import com.rjtmahinay.loan.service.RepaymentService;
+import com.rjtmahinay.loan.service.RepaymentService.IncomingPayment;
+import com.rjtmahinay.loan.service.RepaymentService.Rejection;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/payments")
+@RequiredArgsConstructor
+@Tag(name = "Payments", description = "APIs for posting repayments to disbursed loans")
+public class PaymentController {
+
+    private final RepaymentService repaymentService;
+    private final PayoffSimulator payoffSimulator;
+
+    @PostMapping
+    @Operation(summary = "Post a payment",
+               description = "Posts one repayment to a disbursed loan. Accrued interest is paid first, then principal.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Payment posted",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = LoanPayment.class))),
+        @ApiResponse(responseCode = "400", description = "Payment rejected or its reference already posted",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<LoanPayment>> postPayment(@RequestBody PaymentRequest request) {
+        log.info("POST /api/v1/payments - Posting payment {} to application {}", request.getReference(), request.getApplicationId());
+
+        return repaymentService.postPayment(new IncomingPayment(request.getApplicationId(), request.getReference(),
+                        request.getAmount(), request.getPaidOn() != null ? request.getPaidOn() : LocalDate.now()))
+                .map(payment -> ResponseEntity.status(HttpStatus.CREATED).body(payment))
+                .onErrorReturn(ResponseEntity.badRequest().build());
+    }
+
+    @PostMapping(value = "/batch", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    @Operation(summary = "Post a bank payment file",
+               description = "Posts a file of payments, one reference,application_id,amount,paid_on line each. " +
+                             "References already posted are skipped, so a partly posted file can be sent again.")
+    @ApiResponse(responseCode = "200", description = "File processed; see the counts for what was posted",
+                content = @Content(mediaType = "application/json",
+                                 schema = @Schema(implementation = BatchPostingResponse.class)))
+    public Mono<BatchPostingResponse> postBankFile(@RequestBody Flux<String> lines) {
+        log.info("POST /api/v1/payments/batch - Posting bank payment file");
+
+        return repaymentService.postBankFile(lines)
+                .map(result -> new BatchPostingResponse(result.getPosted(), result.getDuplicates(),
+                        result.getRejected(), result.getRejections()));
+    }
+
+    @GetMapping("/loan/{applicationId}")
+    @Operation(summary = "Get a loan's payments",
+               description = "Retrieves the payment ledger of a disbursed loan in payment date order")
+    @ApiResponse(responseCode = "200", description = "Posted payments",
+                content = @Content(mediaType = "application/json",
+                                 schema = @Schema(implementation = LoanPayment.class)))
+    public Flux<LoanPayment> getPayments(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long applicationId) {
+        log.info("GET /api/v1/payments/loan/{} - Fetching payments", applicationId);
+        return repaymentService.getPayments(applicationId);
+    }
+
+    @GetMapping("/loan/{applicationId}/account")
+    @Operation(summary = "Get a loan account",
+               description = "Retrieves the outstanding balance, accrued interest and days past due of a disbursed loan")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Loan account found",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = LoanAccount.class))),
+        @ApiResponse(responseCode = "404", description = "Loan not disbursed",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<LoanAccount>> getAccount(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long applicationId) {
+        log.info("GET /api/v1/payments/loan/{}/account - Fetching loan account", applicationId);
+
+        return repaymentService.getAccount(applicationId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/loan/{applicationId}/simulations")
+    @Operation(summary = "Simulate early payoff and refinancing",
+               description = "Projects what-if scenarios (extra monthly payments, lump sums, a new rate or term) " +
+                             "against paying the current installment, with the interest saved and payoff date of each")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Scenarios projected, in request order",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = Simulation.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid scenarios, or the loan is not disbursed or already paid off",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<Simulation>> simulate(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long applicationId,
+            @RequestBody SimulationRequest request) {
+        log.info("POST /api/v1/payments/loan/{}/simulations - Simulating payoff scenarios", applicationId);
+
+        List<Scenario> scenarios = request.getScenarios() == null ? List.of() : request.getScenarios().stream()
+                .map(scenario -> new Scenario(scenario.getName(), scenario.getExtraMonthlyPayment(),
+                        scenario.getLumpSums(), scenario.getNewInterestRate(), scenario.getNewTermMonths()))
+                .toList();
+        return payoffSimulator.simulate(applicationId, scenarios)
+                .map(ResponseEntity::ok)
+                .onErrorReturn(ResponseEntity.badRequest().build());
+    }
+
+    // DTOs for request and response bodies
+    @Data
+    @Schema(description = "Request body for posting a payment")
+    public static class PaymentRequest {
+        @Schema(description = "Loan application ID", example = "1", required = true)
+        private Long applicationId;
+
+        @Schema(description = "Amount paid", example = "506.91", required = true)
+        private BigDecimal amount;
+
+        @Schema(description = "Unique payment reference; a reference is only ever posted once",
+                example = "TXN-20260101-0001", required = true)
+        private String reference;
+
+        @Schema(description = "Date the payment was made; defaults to today")
+        private LocalDate paidOn;
+    }
+
+    @Data
+    @Schema(description = "Request body for a payoff simulation")
+    public static class SimulationRequest {
+        @Schema(description = "Scenarios to project, at most " + PayoffSimulator.MAX_SCENARIOS, required = true)
+        private List<ScenarioRequest> scenarios;
+    }
+
+    @Data
+    @Schema(description = "A what-if scenario; leave out what does not change")
+    public static class ScenarioRequest {
+        @Schema(description = "Label echoed in the result", example = "extra-200")
+        private String name;
+
+        @Schema(description = "Paid on top of every installment", example = "200.00")
+        private BigDecimal extraMonthlyPayment;
+
+        @Schema(description = "One-off payments by month, counting the next due installment as month 1")
+        private List<LumpSum> lumpSums;
+
+        @Schema(description = "Refinance at this annual rate", example = "0.0650")
+        private BigDecimal newInterestRate;
+
+        @Schema(description = "Refinance over this many months; defaults to the months the current schedule has left",
+                example = "36")
+        private Integer newTermMonths;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @Schema(description = "Outcome of posting a bank payment file")
+    public static class BatchPostingResponse {
+        @Schema(description = "Payments posted", example = "9985")
+        private long posted;
+
+        @Schema(description = "Payments skipped because their reference was already posted", example = "10")
+        private long duplicates;
+
+        @Schema(description = "Payments rejected", example = "5")
+        private long rejected;
+
+        @Schema(description = "Reasons for the first rejections")
+        private List<Rejection> rejections;
+    }
+}
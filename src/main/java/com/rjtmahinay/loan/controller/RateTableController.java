@@ -0,0 +1,87 @@
+package com.rjtmahinay.loan.controller;
+
+import com.rjtmahinay.loan.model.RateTableEntry;
+import com.rjtmahinay.loan.service.RateTable;
+import com.rjtmahinay.loan.service.RateTableService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/rate-tables")
+@RequiredArgsConstructor
+@Tag(name = "Rate Tables", description = "APIs for managing the interest rate tables used to price loan applications")
+public class RateTableController {
+
+    private final RateTableService rateTableService;
+
+    @GetMapping("/current")
+    @Operation(summary = "Get the current rate table",
+               description = "Retrieves the rate table version new applications are priced with")
+    @ApiResponse(responseCode = "200", description = "Current rate table",
+                content = @Content(mediaType = "application/json",
+                                 schema = @Schema(implementation = RateTableResponse.class)))
+    public Mono<RateTableResponse> getCurrentRateTable() {
+        log.info("GET /api/v1/rate-tables/current - Fetching current rate table");
+        return Mono.fromSupplier(() -> RateTableResponse.from(rateTableService.current()));
+    }
+
+    @PostMapping
+    @Operation(summary = "Publish a rate table",
+               description = "Stores a complete rate table as a new version and prices new applications with it. " +
+                             "Every loan type needs a rate for every combination of its amount, term and credit-score bands.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Rate table published",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = RateTableResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Incomplete or invalid rate table",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<RateTableResponse>> publishRateTable(@RequestBody RateTableRequest request) {
+        log.info("POST /api/v1/rate-tables - Publishing rate table: {}", request.getDescription());
+
+        return rateTableService.update(request.getEntries() != null ? request.getEntries() : List.of(), request.getDescription())
+                .map(table -> ResponseEntity.status(HttpStatus.CREATED).body(RateTableResponse.from(table)))
+                .onErrorReturn(ResponseEntity.badRequest().build());
+    }
+
+    // DTOs for request and response bodies
+    @Data
+    @Schema(description = "Request body for publishing a rate table")
+    public static class RateTableRequest {
+        @Schema(description = "What changed in this version", example = "Q3 auto pricing")
+        private String description;
+
+        @Schema(description = "Every rate in the table", required = true)
+        private List<RateTableEntry> entries;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @Schema(description = "A rate table version and its rates")
+    public static class RateTableResponse {
+        @Schema(description = "Rate table version, recorded on each application it prices", example = "1")
+        private Long version;
+
+        @Schema(description = "Rates ordered by loan type and band")
+        private List<RateTableEntry> entries;
+
+        static RateTableResponse from(RateTable table) {
+            return new RateTableResponse(table.getVersion(), table.getEntries());
+        }
+    }
+}
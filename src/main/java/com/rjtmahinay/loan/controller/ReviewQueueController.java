@@ -0,0 +1,128 @@
+package com.rjtmahinay.loan.controller;
+
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.service.ReviewQueueService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/review-queue")
+@RequiredArgsConstructor
+@Tag(name = "Review Queue", description = "APIs for reviewers to claim loan applications under review")
+public class ReviewQueueController {
+
+    private final ReviewQueueService reviewQueueService;
+
+    @PostMapping("/claim")
+    @Operation(summary = "Claim applications for review",
+               description = "Leases the oldest unclaimed applications under review to the calling reviewer. " +
+                             "Concurrent reviewers never receive the same application.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Applications leased; may be empty when the queue is drained",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = ClaimResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid claim size",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<ClaimResponse>> claim(
+            @Parameter(description = "Reviewer claiming the applications", required = true, example = "jdoe")
+            @RequestParam String reviewer,
+            @Parameter(description = "Maximum number of applications to claim", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        log.info("POST /api/v1/review-queue/claim - Reviewer {} claiming up to {} applications", reviewer, limit);
+
+        return reviewQueueService.claim(reviewer, limit)
+                .map(claim -> ResponseEntity.ok(new ClaimResponse(
+                        claim.token(), claim.reviewer(), claim.expiresAt(), claim.applications())))
+                .onErrorReturn(ResponseEntity.badRequest().build());
+    }
+
+    @PutMapping("/{id}/lease")
+    @Operation(summary = "Renew a lease",
+               description = "Extends the caller's lease on an application by another lease duration")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lease renewed",
+                    content = @Content(mediaType = "application/json",
+                                     schema = @Schema(implementation = LeaseResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Lease expired or held under another token",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<LeaseResponse>> renewLease(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Token returned by the claim", required = true)
+            @RequestParam String token) {
+        log.info("PUT /api/v1/review-queue/{}/lease - Renewing lease", id);
+
+        return reviewQueueService.renew(id, token)
+                .map(expiresAt -> ResponseEntity.ok(new LeaseResponse(id, expiresAt)))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @DeleteMapping("/{id}/lease")
+    @Operation(summary = "Release a lease",
+               description = "Returns a claimed application to the queue so another reviewer can claim it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Lease released"),
+        @ApiResponse(responseCode = "409", description = "Lease held under another token",
+                    content = @Content)
+    })
+    public Mono<ResponseEntity<Void>> releaseLease(
+            @Parameter(description = "Loan application ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Token returned by the claim", required = true)
+            @RequestParam String token) {
+        log.info("DELETE /api/v1/review-queue/{}/lease - Releasing lease", id);
+
+        return reviewQueueService.release(id, token)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorReturn(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    // DTOs for response bodies
+    @Data
+    @AllArgsConstructor
+    @Schema(description = "Applications leased to a reviewer by one claim")
+    public static class ClaimResponse {
+        @Schema(description = "Lease token; required to renew or release the leased applications",
+                example = "3f6c2a5e-6a4b-4c1e-9f0a-2b7d1e4c8a90")
+        private String token;
+
+        @Schema(description = "Reviewer holding the lease", example = "jdoe")
+        private String reviewer;
+
+        @Schema(description = "Time at which the lease lapses unless renewed")
+        private LocalDateTime expiresAt;
+
+        @Schema(description = "Leased applications, oldest first")
+        private List<LoanApplication> applications;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @Schema(description = "State of a renewed lease")
+    public static class LeaseResponse {
+        @Schema(description = "Loan application ID", example = "1")
+        private Long applicationId;
+
+        @Schema(description = "New lease expiry")
+        private LocalDateTime expiresAt;
+    }
+}
@@ -0,0 +1,58 @@
+package com.rjtmahinay.loan.encryption;
+
+import com.rjtmahinay.loan.model.Customer;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.event.AfterConvertCallback;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps customer SSNs in plaintext only in memory. Before a customer is written, the SSN is encrypted into
+ * the {@code ssn} column and its blind index into {@code ssn_index}; after a customer is read, it is decrypted.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerSsnProtector implements BeforeConvertCallback<Customer>, AfterConvertCallback<Customer> {
+
+    private final FieldEncryptor fieldEncryptor;
+
+    @Override
+    public Publisher<Customer> onBeforeConvert(Customer customer, SqlIdentifier table) {
+        return Mono.just(protect(customer));
+    }
+
+    @Override
+    public Publisher<Customer> onAfterConvert(Customer customer, SqlIdentifier table) {
+        return Mono.just(reveal(customer));
+    }
+
+    public Customer protect(Customer customer) {
+        if (customer.getSsn() == null) {
+            customer.setSsnCiphertext(null);
+            customer.setSsnIndex(null);
+            return customer;
+        }
+        String index = ssnIndex(customer.getSsn());
+        // An unchanged SSN keeps its ciphertext instead of being re-encrypted on every update
+        if (!index.equals(customer.getSsnIndex()) || customer.getSsnCiphertext() == null) {
+            customer.setSsnCiphertext(fieldEncryptor.encrypt(customer.getSsn()));
+            customer.setSsnIndex(index);
+        }
+        return customer;
+    }
+
+    public Customer reveal(Customer customer) {
+        customer.setSsn(fieldEncryptor.decrypt(customer.getSsnCiphertext()));
+        return customer;
+    }
+
+    /**
+     * Blind index of an SSN, ignoring formatting so {@code 123-45-6789} and {@code 123456789} match.
+     */
+    public String ssnIndex(String ssn) {
+        return fieldEncryptor.blindIndex(ssn.replaceAll("[^0-9]", ""));
+    }
+}
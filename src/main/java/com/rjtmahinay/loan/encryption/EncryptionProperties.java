@@ -0,0 +1,21 @@
+package com.rjtmahinay.loan.encryption;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "loan.encryption")
+public class EncryptionProperties {
+
+    /**
+     * Base64-encoded 256-bit AES key for encrypted columns. When unset a random key is generated at startup,
+     * so values written by one run cannot be read by the next.
+     */
+    private String key;
+
+    /**
+     * Base64-encoded 256-bit HMAC key for blind indexes. Must differ from {@code key}; changing it requires
+     * recomputing every stored index.
+     */
+    private String indexKey;
+}
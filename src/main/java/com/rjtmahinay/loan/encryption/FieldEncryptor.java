@@ -0,0 +1,124 @@
+package com.rjtmahinay.loan.encryption;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * AES-256-GCM encryption of single column values, and an HMAC-SHA256 blind index so encrypted values can
+ * still be found by equality. Cipher, Mac and SecureRandom instances are costly to create and not safe to
+ * share, so each thread keeps its own.
+ */
+@Slf4j
+@Component
+public class FieldEncryptor {
+
+    // Versions the stored format so keys or algorithms can be rotated later
+    private static final String PREFIX = "v1:";
+    private static final int KEY_BYTES = 32;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey encryptionKey;
+    private final ThreadLocal<Cipher> ciphers;
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<SecureRandom> randoms = ThreadLocal.withInitial(SecureRandom::new);
+
+    public FieldEncryptor(EncryptionProperties properties) {
+        this.encryptionKey = key(properties.getKey(), "AES", "loan.encryption.key");
+        SecretKey indexKey = key(properties.getIndexKey(), "HmacSHA256", "loan.encryption.index-key");
+        this.ciphers = ThreadLocal.withInitial(() -> {
+            try {
+                return Cipher.getInstance("AES/GCM/NoPadding");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES/GCM is not available", e);
+            }
+        });
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(indexKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    private static SecretKey key(String encoded, String algorithm, String property) {
+        byte[] bytes;
+        if (encoded == null || encoded.isBlank()) {
+            log.warn("{} is not set; using a random key, encrypted values will be unreadable after a restart", property);
+            bytes = new byte[KEY_BYTES];
+            new SecureRandom().nextBytes(bytes);
+        } else {
+            bytes = Base64.getDecoder().decode(encoded);
+            if (bytes.length != KEY_BYTES) {
+                throw new IllegalStateException(property + " must be a base64-encoded 256-bit key");
+            }
+        }
+        return new SecretKeySpec(bytes, algorithm);
+    }
+
+    /**
+     * @return {@code v1:} followed by the base64 of IV, ciphertext and tag; null for null
+     */
+    public String encrypt(String plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        byte[] iv = new byte[IV_BYTES];
+        randoms.get().nextBytes(iv);
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer output = ByteBuffer.allocate(IV_BYTES + cipher.getOutputSize(input.length));
+            output.put(iv);
+            cipher.doFinal(ByteBuffer.wrap(input), output);
+            return PREFIX + Base64.getEncoder().withoutPadding().encodeToString(output.array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt field value", e);
+        }
+    }
+
+    /**
+     * Reverses {@link #encrypt}. Values without the version prefix were stored before encryption was
+     * introduced and are returned unchanged.
+     */
+    public String decrypt(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        byte[] input = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, input, 0, IV_BYTES));
+            return new String(cipher.doFinal(input, IV_BYTES, input.length - IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not decrypt field value", e);
+        }
+    }
+
+    /**
+     * Deterministic keyed hash of a value, for indexed equality lookups of encrypted columns. Callers
+     * normalize the value first so equivalent spellings share an index.
+     */
+    public String blindIndex(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] hash = macs.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,179 @@
+package com.rjtmahinay.loan.lifecycle;
+
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.repository.CustomerRepository;
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.service.Amortization;
+import com.rjtmahinay.loan.service.CollateralRegistry;
+import com.rjtmahinay.loan.service.ExposureRollup;
+import com.rjtmahinay.loan.service.RateTable;
+import com.rjtmahinay.loan.service.RateTableService;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the in-memory caches and exercises the hot paths once the HTTP server is up but before the node reports
+ * ready: Spring Boot publishes readiness only after every {@link ApplicationRunner} returns, so a rolling deploy
+ * sends no traffic to a node that is still paying for JIT compilation, connection setup and serializer lookup.
+ * Warm-up only reads; it never writes to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Warmup implements ApplicationRunner {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final String CORRELATION_ID = "warmup";
+
+    private final WarmupProperties properties;
+    private final CollateralRegistry collateralRegistry;
+    private final ExposureRollup exposureRollup;
+    private final RateTableService rateTableService;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final CustomerRepository customerRepository;
+    private final ShardRouter shardRouter;
+    private final ObjectProvider<ServerCodecConfigurer> serverCodecConfigurer;
+    private final ObjectProvider<WebClient.Builder> webClientBuilder;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        // Not bounded by the warm-up timeout: a half-loaded cache would serve wrong answers
+        Mono.when(collateralRegistry.loadKnownVins(), exposureRollup.load()).block();
+
+        if (properties.isEnabled()) {
+            try {
+                price();
+                Mono.when(query(), Mono.fromRunnable(this::encode), request())
+                        .block(properties.getTimeout());
+            } catch (RuntimeException e) {
+                log.warn("Warm-up did not finish, reporting ready anyway: {}", e.getMessage());
+            }
+        }
+        log.info("Warm-up finished in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * Prices a spread of loans the way a submission does, so the rate table lookup and amortization math are
+     * compiled before the first real submission.
+     */
+    private void price() {
+        RateTable rateTable = rateTableService.current();
+        LoanType[] loanTypes = LoanType.values();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < properties.getPricingIterations(); i++) {
+            LoanType loanType = loanTypes[i % loanTypes.length];
+            BigDecimal amount = BigDecimal.valueOf(1_000 + i * 7_919L % 500_000);
+            int termMonths = 12 * (1 + i % 30);
+            BigDecimal rate = rateTable.rateFor(loanType, amount, termMonths, 300 + i % 551);
+            total = total.add(Amortization.monthlyPayment(amount, rate, termMonths));
+        }
+        log.debug("Priced {} sample loans at {} a month in total", properties.getPricingIterations(), total);
+    }
+
+    /**
+     * Runs the by-id and by-customer lookups of the request paths on every shard, for ids that do not exist.
+     */
+    private Mono<Void> query() {
+        return Flux.range(0, properties.getRounds())
+                .flatMap(round -> shardRouter.onAllShards(shard -> Flux.merge(
+                        loanApplicationRepository.findById(0L).then(),
+                        loanApplicationRepository.findByCustomerId(0L).then(),
+                        loanApplicationRepository.findUpdatedAtById(0L).then(),
+                        loanApplicationRepository.countActiveApplicationsByCustomerId(0L).then(),
+                        loanApplicationRepository.countPledgedByVin(CORRELATION_ID).then(),
+                        customerRepository.findById(0L).then(),
+                        customerRepository.findByEmail(CORRELATION_ID + "@example.invalid").then(),
+                        customerRepository.existsByEmail(CORRELATION_ID + "@example.invalid").then())),
+                        properties.getConcurrency())
+                .then();
+    }
+
+    /**
+     * Encodes sample loans and customers with the server's own JSON and Smile encoders, so their serializers
+     * are built and cached.
+     */
+    @SuppressWarnings("unchecked")
+    private void encode() {
+        ServerCodecConfigurer codecs = serverCodecConfigurer.getIfAvailable();
+        if (codecs == null) {
+            return;
+        }
+        LoanApplication application = new LoanApplication(1L, new BigDecimal("25000"), LoanType.AUTO, 60, "Warm-up");
+        application.setInterestRate(new BigDecimal("0.0650"));
+        application.setMonthlyPayment(Amortization.monthlyPayment(application.getLoanAmount(),
+                application.getInterestRate(), application.getLoanTermMonths()));
+        Customer customer = new Customer("Warm Up", CORRELATION_ID + "@example.invalid", "+15550000000", "1 Main St");
+        List<Object> samples = List.of(application, customer);
+
+        for (int round = 0; round < properties.getRounds(); round++) {
+            for (EncoderHttpMessageWriter<?> writer : codecs.getWriters().stream()
+                    .filter(EncoderHttpMessageWriter.class::isInstance)
+                    .map(EncoderHttpMessageWriter.class::cast)
+                    .toList()) {
+                Encoder<Object> encoder = (Encoder<Object>) writer.getEncoder();
+                for (Object sample : samples) {
+                    ResolvableType type = ResolvableType.forInstance(sample);
+                    for (MediaType mediaType : List.of(MediaType.APPLICATION_JSON, SMILE)) {
+                        if (encoder.canEncode(type, mediaType)) {
+                            DataBufferUtils.release(encoder.encodeValue(sample, DefaultDataBufferFactory.sharedInstance,
+                                    type, mediaType, Map.of()));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends lookups for missing records, alternating JSON and Smile, and health checks through the node's own
+     * HTTP server.
+     */
+    private Mono<Void> request() {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            return Mono.empty();
+        }
+        WebClient client = webClientBuilder.getObject()
+                .baseUrl("http://localhost:" + webContext.getWebServer().getPort())
+                .defaultHeader("X-Correlation-Id", CORRELATION_ID)
+                .build();
+        List<String> paths = List.of("/api/v1/loan-applications/0", "/api/v1/customers/0", "/actuator/health/liveness");
+        return Flux.range(0, properties.getRequests())
+                .flatMap(i -> {
+                    String path = paths.get(i % paths.size());
+                    // Actuator only produces JSON; asking it for Smile just logs a 406
+                    MediaType accept = path.startsWith("/api/") && i % 2 == 1 ? SMILE : MediaType.APPLICATION_JSON;
+                    return client.get()
+                            .uri(path)
+                            .accept(accept)
+                            .exchangeToMono(response -> response.releaseBody())
+                            .onErrorResume(error -> Mono.empty());
+                }, properties.getConcurrency())
+                .then();
+    }
+}
@@ -0,0 +1,41 @@
+package com.rjtmahinay.loan.lifecycle;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.warmup")
+public class WarmupProperties {
+
+    /**
+     * Exercise the hot paths before reporting ready. The in-memory caches are loaded before readiness either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Loans priced, enough for the JIT to compile the pricing and amortization code.
+     */
+    private int pricingIterations = 20_000;
+
+    /**
+     * Rounds of read-only repository queries, and of JSON and Smile encoding of sample loans and customers.
+     */
+    private int rounds = 200;
+
+    /**
+     * Requests sent to the node's own HTTP server, to warm up the Netty pipeline, filters and handlers.
+     */
+    private int requests = 500;
+
+    /**
+     * Queries and requests in flight at once; opens that many pooled connections.
+     */
+    private int concurrency = 8;
+
+    /**
+     * Upper bound on the whole warm-up; the node reports ready when it is reached, warmed or not.
+     */
+    private Duration timeout = Duration.ofSeconds(60);
+}
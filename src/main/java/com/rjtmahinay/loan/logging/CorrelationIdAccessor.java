@@ -0,0 +1,34 @@
+package com.rjtmahinay.loan.logging;
+
+import io.micrometer.context.ThreadLocalAccessor;
+import org.slf4j.MDC;
+
+/**
+ * Mirrors the Reactor context's correlation id into the SLF4J MDC. Registered through
+ * {@code META-INF/services}; with {@code spring.reactor.context-propagation=auto}, Reactor sets it before each
+ * operator runs and clears it afterwards, so log lines written anywhere in a request's pipeline carry it.
+ */
+public class CorrelationIdAccessor implements ThreadLocalAccessor<String> {
+
+    public static final String KEY = "correlationId";
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public String getValue() {
+        return MDC.get(KEY);
+    }
+
+    @Override
+    public void setValue(String value) {
+        MDC.put(KEY, value);
+    }
+
+    @Override
+    public void setValue() {
+        MDC.remove(KEY);
+    }
+}
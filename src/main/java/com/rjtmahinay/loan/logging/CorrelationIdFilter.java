@@ -0,0 +1,36 @@
+package com.rjtmahinay.loan.logging;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Gives every request a correlation id, taken from the {@code X-Correlation-Id} header or generated, echoes it
+ * in the response and puts it in the Reactor context, from where {@link CorrelationIdAccessor} copies it into
+ * the MDC of whichever thread logs for the request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter implements WebFilter {
+
+    static final String HEADER = "X-Correlation-Id";
+    private static final int MAX_LENGTH = 64;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HEADER);
+        String correlationId = StringUtils.hasText(header) && header.length() <= MAX_LENGTH
+                ? header.strip()
+                : UUID.randomUUID().toString();
+        exchange.getResponse().getHeaders().set(HEADER, correlationId);
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(CorrelationIdAccessor.KEY, correlationId));
+    }
+}
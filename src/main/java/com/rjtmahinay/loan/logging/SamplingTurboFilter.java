@@ -0,0 +1,54 @@
+package com.rjtmahinay.loan.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets through only a sample of the INFO (and finer) events of the configured loggers; WARN and ERROR always
+ * pass. Runs before the event is created, so a dropped line costs neither formatting nor a queue slot.
+ * <p>
+ * Configured in {@code logback-spring.xml} with one {@code <sample>logger=rate</sample>} per logger or package;
+ * the longest matching name wins.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    public void addSample(String sample) {
+        int separator = sample.lastIndexOf('=');
+        if (separator < 0) {
+            addError("Expected logger=rate, got " + sample);
+            return;
+        }
+        double rate = Double.parseDouble(sample.substring(separator + 1).trim());
+        samples.add(new Sample(sample.substring(0, separator).trim(), Math.max(0, Math.min(1, rate))));
+        samples.sort(Comparator.comparingInt((Sample s) -> s.logger().length()).reversed());
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        for (Sample sample : samples) {
+            if (name.startsWith(sample.logger())) {
+                return sample.rate() >= 1 || ThreadLocalRandom.current().nextDouble() < sample.rate()
+                        ? FilterReply.NEUTRAL
+                        : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private record Sample(String logger, double rate) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.rjtmahinay.loan.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one shard's nightly accrual run for a business date.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of an accrual run")
+public class AccrualRun {
+
+    @Schema(description = "Business date interest is accrued through")
+    private LocalDate businessDate;
+
+    @Schema(description = "Last application ID processed; the run resumes after it", example = "10452")
+    private Long lastApplicationId;
+
+    @Schema(description = "Accounts processed so far", example = "10000")
+    private Long accountsProcessed;
+
+    @Schema(description = "Whether every disbursed loan has been processed")
+    private Boolean completed;
+
+    @Schema(description = "Timestamp when the run first started")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Timestamp of the latest checkpoint")
+    private LocalDateTime updatedAt;
+}
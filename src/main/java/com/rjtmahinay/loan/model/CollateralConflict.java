@@ -0,0 +1,21 @@
+package com.rjtmahinay.loan.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A vehicle pledged as collateral on more than one open loan application")
+public class CollateralConflict {
+
+    @Schema(description = "Vehicle Identification Number", example = "1HGCM82633A123456")
+    private String vin;
+
+    @Schema(description = "Submitted, under review, approved or disbursed applications pledging the vehicle, oldest first")
+    private List<LoanApplicationSummary> applications;
+}
@@ -1,10 +1,12 @@
 package com.rjtmahinay.loan.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -38,9 +40,21 @@ public class Customer {
     @Schema(description = "Customer's date of birth", example = "1990-01-15")
     private String dateOfBirth;
 
+    // Plaintext in memory only; the ssn column holds ssnCiphertext (see CustomerSsnProtector)
+    @Transient
     @Schema(description = "Customer's Social Security Number", example = "123-45-6789")
     private String ssn;
 
+    @JsonIgnore
+    @Column("ssn")
+    @Schema(hidden = true)
+    private String ssnCiphertext;
+
+    @JsonIgnore
+    @Column("ssn_index")
+    @Schema(hidden = true)
+    private String ssnIndex;
+
     @Column("annual_income")
     @Schema(description = "Customer's annual income in USD", example = "75000.0")
     private Double annualIncome;
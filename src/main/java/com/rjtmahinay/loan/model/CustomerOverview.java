@@ -0,0 +1,115 @@
+package com.rjtmahinay.loan.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Customer profile together with their loan applications and server-side totals")
+public class CustomerOverview {
+
+    private static final Set<ApplicationStatus> ACTIVE_STATUSES =
+            EnumSet.of(ApplicationStatus.SUBMITTED, ApplicationStatus.UNDER_REVIEW);
+    private static final Set<ApplicationStatus> EXPOSURE_STATUSES =
+            EnumSet.of(ApplicationStatus.APPROVED, ApplicationStatus.DISBURSED);
+    private static final List<String> SECTIONS = List.of("customer", "applications", "summary");
+
+    @Schema(description = "Customer profile (omitted when not requested)")
+    private Customer customer;
+
+    @Schema(description = "Customer's loan applications (omitted when not requested)")
+    private List<LoanApplication> applications;
+
+    @Schema(description = "Totals computed over the customer's loan applications (omitted when not requested)")
+    private Summary summary;
+
+    public static CustomerOverview of(Customer customer, List<LoanApplication> applications) {
+        BigDecimal exposure = BigDecimal.ZERO;
+        BigDecimal monthlyObligations = BigDecimal.ZERO;
+        int activeCount = 0;
+        for (LoanApplication application : applications) {
+            if (ACTIVE_STATUSES.contains(application.getStatus())) {
+                activeCount++;
+            } else if (EXPOSURE_STATUSES.contains(application.getStatus())) {
+                exposure = exposure.add(application.getLoanAmount());
+                if (application.getMonthlyPayment() != null) {
+                    monthlyObligations = monthlyObligations.add(application.getMonthlyPayment());
+                }
+            }
+        }
+        return new CustomerOverview(customer, applications,
+                new Summary(applications.size(), activeCount, exposure, monthlyObligations));
+    }
+
+    /**
+     * Validator for the overview as projected by {@code fields}: changes whenever the customer or any of
+     * their applications is updated, or an application is added or removed.
+     */
+    public String version(Set<String> fields) {
+        long hash = Long.hashCode(customer.getId()) * 31L + timestamp(customer.getUpdatedAt());
+        for (LoanApplication application : applications) {
+            hash = hash * 31 + application.getId();
+            hash = hash * 31 + timestamp(application.getUpdatedAt());
+        }
+        StringBuilder version = new StringBuilder(Long.toHexString(hash)).append('-').append(applications.size());
+        for (String section : SECTIONS) {
+            if (fields == null || fields.isEmpty() || fields.contains(section)) {
+                version.append('-').append(section.charAt(0));
+            }
+        }
+        return version.toString();
+    }
+
+    /**
+     * Drops the sections not listed in {@code fields}; an empty selection keeps everything.
+     */
+    public CustomerOverview project(Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return this;
+        }
+        return new CustomerOverview(
+                fields.contains("customer") ? customer : null,
+                fields.contains("applications") ? applications : null,
+                fields.contains("summary") ? summary : null);
+    }
+
+    // Epoch micros, as in the single-resource ETags; LocalDateTime.hashCode() folds distinct times together
+    private static long timestamp(LocalDateTime dateTime) {
+        return dateTime != null
+                ? ChronoUnit.MICROS.between(Instant.EPOCH, dateTime.atZone(ZoneId.systemDefault()).toInstant())
+                : 0;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Per-customer totals")
+    public static class Summary {
+        @Schema(description = "Number of loan applications on file", example = "4")
+        private int applicationCount;
+
+        @Schema(description = "Applications still SUBMITTED or UNDER_REVIEW", example = "1")
+        private int activeApplications;
+
+        @Schema(description = "Sum of APPROVED and DISBURSED loan amounts", example = "42000.00")
+        private BigDecimal totalExposure;
+
+        @Schema(description = "Sum of monthly payments on APPROVED and DISBURSED loans", example = "1250.40")
+        private BigDecimal totalMonthlyObligations;
+    }
+}
@@ -0,0 +1,101 @@
+package com.rjtmahinay.loan.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Servicing state of a disbursed loan: what is still owed and how far behind schedule it is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Balance and delinquency of a disbursed loan")
+public class LoanAccount {
+
+    @Schema(description = "Loan application ID", example = "1")
+    private Long applicationId;
+
+    @Schema(description = "ID of the borrowing customer", example = "1")
+    private Long customerId;
+
+    @Schema(description = "Amount disbursed", example = "25000.00")
+    private BigDecimal principal;
+
+    @Schema(description = "Annual interest rate", example = "0.0800")
+    private BigDecimal interestRate;
+
+    @Schema(description = "Scheduled monthly installment", example = "506.91")
+    private BigDecimal monthlyPayment;
+
+    @Schema(description = "Loan term in months", example = "60")
+    private Integer termMonths;
+
+    @Schema(description = "Outstanding principal", example = "18250.40")
+    private BigDecimal balance;
+
+    @Schema(description = "Interest accrued and not yet paid", example = "12.17")
+    private BigDecimal accruedInterest;
+
+    @Schema(description = "Date up to which interest has been accrued")
+    private LocalDate interestThrough;
+
+    @Schema(description = "Amount paid toward the next installment that does not yet cover it", example = "100.00")
+    private BigDecimal installmentCredit;
+
+    @Schema(description = "Due date of the oldest unpaid installment")
+    private LocalDate nextDueDate;
+
+    @Schema(description = "Days the oldest unpaid installment is overdue", example = "0")
+    private Integer daysPastDue;
+
+    @Schema(description = "Aging bucket of the days past due", example = "CURRENT")
+    private DelinquencyBucket delinquencyBucket;
+
+    @Schema(description = "Date of the latest posted payment")
+    private LocalDate lastPaymentDate;
+
+    @Schema(description = "Timestamp when the loan was disbursed")
+    private LocalDateTime openedAt;
+
+    @Schema(description = "Timestamp when the account last changed")
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock: postings only apply to the version they read
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
+
+    @Schema(description = "Loan aging bucket by days past due")
+    public enum DelinquencyBucket {
+        @Schema(description = "Not past due")
+        CURRENT,
+        @Schema(description = "1 to 29 days past due")
+        DPD_1_29,
+        @Schema(description = "30 to 59 days past due")
+        DPD_30_59,
+        @Schema(description = "60 to 89 days past due")
+        DPD_60_89,
+        @Schema(description = "90 or more days past due")
+        DPD_90_PLUS;
+
+        public static DelinquencyBucket of(int daysPastDue) {
+            if (daysPastDue >= 90) {
+                return DPD_90_PLUS;
+            }
+            if (daysPastDue >= 60) {
+                return DPD_60_89;
+            }
+            if (daysPastDue >= 30) {
+                return DPD_30_59;
+            }
+            return daysPastDue > 0 ? DPD_1_29 : CURRENT;
+        }
+    }
+}
@@ -48,6 +48,10 @@ public class LoanApplication {
     @Schema(description = "Interest rate for the loan (set after approval)", example = "5.5", accessMode = Schema.AccessMode.READ_ONLY)
     private BigDecimal interestRate;
 
+    @Column("rate_table_version")
+    @Schema(description = "Version of the rate table that priced the application", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long rateTableVersion;
+
     @Column("monthly_payment")
     @Schema(description = "Calculated monthly payment amount", example = "1500.00", accessMode = Schema.AccessMode.READ_ONLY)
     private BigDecimal monthlyPayment;
@@ -96,6 +100,11 @@ public class LoanApplication {
     @Schema(description = "Zip code for collateral location", example = "90210", required = true)
     private String zipCode;
 
+    @Column("velocity_flags")
+    @Schema(description = "Velocity thresholds reached when the application was submitted; empty unless flagged",
+            example = "EMAIL/MINUTE=4", accessMode = Schema.AccessMode.READ_ONLY)
+    private String velocityFlags;
+
     @Column("created_at")
     @Schema(description = "Timestamp when the application was created", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime createdAt;
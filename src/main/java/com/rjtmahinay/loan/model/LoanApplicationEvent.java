@@ -0,0 +1,52 @@
+package com.rjtmahinay.loan.model;
+
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * One status transition of a loan application. Events are only ever appended, so an application's events
+ * in order are its full status history.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("loan_application_events")
+@Schema(description = "Status transition of a loan application")
+public class LoanApplicationEvent {
+
+    @Id
+    @Schema(description = "Unique identifier for the event", example = "1")
+    private Long id;
+
+    @Column("application_id")
+    @Schema(description = "Loan application ID", example = "1")
+    private Long applicationId;
+
+    @Column("from_status")
+    @Schema(description = "Status before the transition; absent for the submission", example = "SUBMITTED")
+    private ApplicationStatus fromStatus;
+
+    @Column("to_status")
+    @Schema(description = "Status after the transition", example = "UNDER_REVIEW")
+    private ApplicationStatus toStatus;
+
+    @Schema(description = "Who made the transition, from the X-Actor header or the job that made it", example = "jdoe")
+    private String actor;
+
+    @Column("occurred_at")
+    @Schema(description = "Time of the transition")
+    private LocalDateTime occurredAt;
+
+    public LoanApplicationEvent(Long applicationId, ApplicationStatus fromStatus, ApplicationStatus toStatus,
+                                String actor, LocalDateTime occurredAt) {
+        this(null, applicationId, fromStatus, toStatus, actor, occurredAt);
+    }
+}
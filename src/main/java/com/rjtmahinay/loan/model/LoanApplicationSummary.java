@@ -0,0 +1,48 @@
+package com.rjtmahinay.loan.model;
+
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Column-projected view of a loan application for list screens; only these columns are read from the database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Compact loan application view for list endpoints")
+public class LoanApplicationSummary {
+
+    @Schema(description = "Unique identifier for the loan application", example = "1")
+    private Long id;
+
+    @Schema(description = "ID of the customer applying for the loan", example = "1")
+    private Long customerId;
+
+    @Schema(description = "Requested loan amount", example = "50000.00")
+    private BigDecimal loanAmount;
+
+    @Schema(description = "Type of loan being requested", example = "PERSONAL")
+    private LoanType loanType;
+
+    @Schema(description = "Current status of the loan application", example = "SUBMITTED")
+    private ApplicationStatus status;
+
+    @Schema(description = "Calculated monthly payment amount", example = "1500.00")
+    private BigDecimal monthlyPayment;
+
+    @Schema(description = "Timestamp when the application was last updated")
+    private LocalDateTime updatedAt;
+
+    public static LoanApplicationSummary from(LoanApplication application) {
+        return new LoanApplicationSummary(application.getId(), application.getCustomerId(),
+                application.getLoanAmount(), application.getLoanType(), application.getStatus(),
+                application.getMonthlyPayment(), application.getUpdatedAt());
+    }
+}
@@ -0,0 +1,48 @@
+package com.rjtmahinay.loan.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entry for one posted repayment. The ledger is append-only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Posted repayment with its principal and interest split")
+public class LoanPayment {
+
+    @Schema(description = "Unique identifier for the ledger entry", example = "1")
+    private Long id;
+
+    @Schema(description = "Loan application ID", example = "1")
+    private Long applicationId;
+
+    @Schema(description = "Payment reference from the payer or bank file; a reference is posted at most once",
+            example = "BNK-20250101-000123")
+    private String reference;
+
+    @Schema(description = "Amount paid", example = "506.91")
+    private BigDecimal amount;
+
+    @Schema(description = "Part of the payment applied to principal", example = "340.24")
+    private BigDecimal principal;
+
+    @Schema(description = "Part of the payment applied to interest", example = "166.67")
+    private BigDecimal interest;
+
+    @Schema(description = "Outstanding principal after the payment", example = "24659.76")
+    private BigDecimal balanceAfter;
+
+    @Schema(description = "Date the payment was made")
+    private LocalDate paidOn;
+
+    @Schema(description = "Timestamp when the payment was posted")
+    private LocalDateTime postedAt;
+}
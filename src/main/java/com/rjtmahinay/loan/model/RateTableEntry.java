@@ -0,0 +1,35 @@
+package com.rjtmahinay.loan.model;
+
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One cell of a rate table: the annual rate for a loan type within an amount, term and credit-score band.
+ * Each band starts at its minimum and runs up to the next minimum listed for the same loan type.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Annual interest rate for one loan type, amount band, term band and credit-score band")
+public class RateTableEntry {
+
+    @Schema(description = "Type of loan", example = "AUTO", required = true)
+    private LoanType loanType;
+
+    @Schema(description = "Smallest loan amount in the band", example = "10000.00", required = true)
+    private BigDecimal minAmount;
+
+    @Schema(description = "Shortest term in months in the band", example = "0", required = true)
+    private Integer minTermMonths;
+
+    @Schema(description = "Lowest credit score in the band", example = "0", required = true)
+    private Integer minCreditScore;
+
+    @Schema(description = "Annual interest rate as a fraction", example = "0.0800", required = true)
+    private BigDecimal rate;
+}
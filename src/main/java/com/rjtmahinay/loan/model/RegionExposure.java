@@ -0,0 +1,30 @@
+package com.rjtmahinay.loan.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outstanding (approved or disbursed) loan exposure in one zip code region")
+public class RegionExposure {
+
+    @Schema(description = "Zip code prefix identifying the region", example = "902")
+    private String region;
+
+    @Schema(description = "Loan type the figures are limited to (omitted when covering all types)", example = "AUTO")
+    private LoanType loanType;
+
+    @Schema(description = "Sum of outstanding loan amounts", example = "1250000.00")
+    private BigDecimal totalExposure;
+
+    @Schema(description = "Number of outstanding loans", example = "42")
+    private long loanCount;
+}
@@ -0,0 +1,47 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.AccrualRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Accrual run checkpoints, one row per business date on each shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccrualRunRepository {
+
+    private static final String SAVE = "MERGE INTO accrual_runs KEY (business_date) VALUES " +
+            "(:businessDate, :lastApplicationId, :accountsProcessed, :completed, :startedAt, :updatedAt)";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<AccrualRun> findByBusinessDate(LocalDate businessDate) {
+        return databaseClient.sql("SELECT * FROM accrual_runs WHERE business_date = :businessDate")
+                .bind("businessDate", businessDate)
+                .map(row -> new AccrualRun(
+                        row.get("business_date", LocalDate.class),
+                        row.get("last_application_id", Long.class),
+                        row.get("accounts_processed", Long.class),
+                        row.get("completed", Boolean.class),
+                        row.get("started_at", LocalDateTime.class),
+                        row.get("updated_at", LocalDateTime.class)))
+                .one();
+    }
+
+    public Mono<Void> save(AccrualRun run) {
+        return databaseClient.sql(SAVE)
+                .bind("businessDate", run.getBusinessDate())
+                .bind("lastApplicationId", run.getLastApplicationId())
+                .bind("accountsProcessed", run.getAccountsProcessed())
+                .bind("completed", run.getCompleted())
+                .bind("startedAt", run.getStartedAt())
+                .bind("updatedAt", run.getUpdatedAt())
+                .then();
+    }
+}
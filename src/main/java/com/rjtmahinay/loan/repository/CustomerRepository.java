@@ -7,6 +7,8 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface CustomerRepository extends ReactiveCrudRepository<Customer, Long> {
 
@@ -17,7 +19,13 @@ public interface CustomerRepository extends ReactiveCrudRepository<Customer, Lon
     @Query("SELECT * FROM customers WHERE name ILIKE '%' || :name || '%'")
     Flux<Customer> findByNameContaining(String name);
 
-    Mono<Customer> findBySsn(String ssn);
+    /**
+     * @param ssnIndex blind index of the SSN, see {@code CustomerSsnProtector#ssnIndex}
+     */
+    Mono<Customer> findBySsnIndex(String ssnIndex);
+
+    @Query("SELECT updated_at FROM customers WHERE id = :id")
+    Mono<LocalDateTime> findUpdatedAtById(Long id);
 
     @Query("SELECT * FROM customers WHERE annual_income >= :minIncome")
     Flux<Customer> findByAnnualIncomeGreaterThanEqual(Double minIncome);
@@ -0,0 +1,110 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.encryption.CustomerSsnProtector;
+import com.rjtmahinay.loan.model.Customer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Primary
+@Repository
+@ConditionalOnProperty(prefix = "loan.persistence", name = "mode", havingValue = "jdbc")
+public class JdbcCustomerRepository extends JdbcRepositorySupport<Customer> implements CustomerRepository {
+
+    private final CustomerSsnProtector ssnProtector;
+
+    public JdbcCustomerRepository(NamedParameterJdbcTemplate jdbc,
+                                  @Qualifier("jdbcScheduler") Scheduler jdbcScheduler,
+                                  CustomerSsnProtector ssnProtector) {
+        // Entity callbacks only run for R2DBC, so SSNs are encrypted and decrypted here
+        super(jdbc, jdbcScheduler, "customers", (rs, rowNum) -> ssnProtector.reveal(mapRow(rs, rowNum)));
+        this.ssnProtector = ssnProtector;
+    }
+
+    @Override
+    public Mono<Customer> findByEmail(String email) {
+        return queryOne("SELECT * FROM customers WHERE email = :email", Map.of("email", email));
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return execute(() -> jdbc.queryForObject("SELECT COUNT(*) FROM customers WHERE email = :email",
+                Map.of("email", email), Long.class) > 0);
+    }
+
+    @Override
+    public Flux<Customer> findByNameContaining(String name) {
+        return query("SELECT * FROM customers WHERE name ILIKE '%' || :name || '%'", Map.of("name", name));
+    }
+
+    @Override
+    public Mono<Customer> findBySsnIndex(String ssnIndex) {
+        return queryOne("SELECT * FROM customers WHERE ssn_index = :ssnIndex", Map.of("ssnIndex", ssnIndex));
+    }
+
+    @Override
+    public Mono<LocalDateTime> findUpdatedAtById(Long id) {
+        return queryValue("SELECT updated_at FROM customers WHERE id = :id", Map.of("id", id), LocalDateTime.class);
+    }
+
+    @Override
+    public Flux<Customer> findByAnnualIncomeGreaterThanEqual(Double minIncome) {
+        return query("SELECT * FROM customers WHERE annual_income >= :minIncome", Map.of("minIncome", minIncome));
+    }
+
+    @Override
+    protected Long getId(Customer customer) {
+        return customer.getId();
+    }
+
+    @Override
+    protected void setId(Customer customer, Long id) {
+        customer.setId(id);
+    }
+
+    @Override
+    protected Map<String, Object> toColumns(Customer customer) {
+        ssnProtector.protect(customer);
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("name", customer.getName());
+        columns.put("email", customer.getEmail());
+        columns.put("phone_number", customer.getPhoneNumber());
+        columns.put("address", customer.getAddress());
+        columns.put("date_of_birth", customer.getDateOfBirth());
+        columns.put("ssn", customer.getSsnCiphertext());
+        columns.put("ssn_index", customer.getSsnIndex());
+        columns.put("annual_income", customer.getAnnualIncome());
+        columns.put("employment_status", customer.getEmploymentStatus());
+        columns.put("created_at", customer.getCreatedAt());
+        columns.put("updated_at", customer.getUpdatedAt());
+        return columns;
+    }
+
+    private static Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Customer customer = new Customer();
+        customer.setId(rs.getLong("id"));
+        customer.setName(rs.getString("name"));
+        customer.setEmail(rs.getString("email"));
+        customer.setPhoneNumber(rs.getString("phone_number"));
+        customer.setAddress(rs.getString("address"));
+        customer.setDateOfBirth(rs.getString("date_of_birth"));
+        customer.setSsnCiphertext(rs.getString("ssn"));
+        customer.setSsnIndex(rs.getString("ssn_index"));
+        customer.setAnnualIncome(rs.getObject("annual_income", Double.class));
+        customer.setEmploymentStatus(rs.getString("employment_status"));
+        customer.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        customer.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return customer;
+    }
+}
@@ -0,0 +1,221 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.LoanApplicationSummary;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Primary
+@Repository
+@ConditionalOnProperty(prefix = "loan.persistence", name = "mode", havingValue = "jdbc")
+public class JdbcLoanApplicationRepository extends JdbcRepositorySupport<LoanApplication>
+        implements LoanApplicationRepository {
+
+    public JdbcLoanApplicationRepository(NamedParameterJdbcTemplate jdbc,
+                                         @Qualifier("jdbcScheduler") Scheduler jdbcScheduler) {
+        super(jdbc, jdbcScheduler, "loan_applications", JdbcLoanApplicationRepository::mapRow);
+    }
+
+    @Override
+    public Flux<LoanApplication> findByCustomerId(Long customerId) {
+        return query("SELECT * FROM loan_applications WHERE customer_id = :customerId ORDER BY id",
+                Map.of("customerId", customerId));
+    }
+
+    @Override
+    public Flux<LoanApplication> findByStatus(ApplicationStatus status) {
+        return query("SELECT * FROM loan_applications WHERE status = :status", Map.of("status", status.name()));
+    }
+
+    @Override
+    public Flux<LoanApplication> findByLoanType(LoanType loanType) {
+        return query("SELECT * FROM loan_applications WHERE loan_type = :loanType",
+                Map.of("loanType", loanType.name()));
+    }
+
+    @Override
+    public Flux<LoanApplicationSummary> findAllSummaries() {
+        return execute(() -> jdbc.query(
+                "SELECT id, customer_id, loan_amount, loan_type, status, monthly_payment, updated_at FROM loan_applications",
+                Map.of(), JdbcLoanApplicationRepository::mapSummary))
+                .flatMapIterable(rows -> rows);
+    }
+
+    @Override
+    public Flux<LoanApplicationSummary> findSummariesByStatus(ApplicationStatus status) {
+        return execute(() -> jdbc.query(
+                "SELECT id, customer_id, loan_amount, loan_type, status, monthly_payment, updated_at FROM loan_applications WHERE status = :status",
+                Map.of("status", status.name()), JdbcLoanApplicationRepository::mapSummary))
+                .flatMapIterable(rows -> rows);
+    }
+
+    @Override
+    public Flux<LoanApplication> findByCustomerIdAndStatus(Long customerId, ApplicationStatus status) {
+        return query("SELECT * FROM loan_applications WHERE customer_id = :customerId AND status = :status",
+                Map.of("customerId", customerId, "status", status.name()));
+    }
+
+    @Override
+    public Flux<LoanApplication> findByLoanAmountBetween(BigDecimal minAmount, BigDecimal maxAmount) {
+        return query("SELECT * FROM loan_applications WHERE loan_amount BETWEEN :minAmount AND :maxAmount",
+                Map.of("minAmount", minAmount, "maxAmount", maxAmount));
+    }
+
+    @Override
+    public Flux<LoanApplication> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return query("SELECT * FROM loan_applications WHERE created_at >= :startDate AND created_at <= :endDate",
+                Map.of("startDate", startDate, "endDate", endDate));
+    }
+
+    @Override
+    public Flux<LoanApplication> findPendingApplicationsByCreatedDate() {
+        return query("SELECT * FROM loan_applications WHERE status = 'UNDER_REVIEW' ORDER BY created_at ASC", Map.of());
+    }
+
+    @Override
+    public Mono<Long> countActiveApplicationsByCustomerId(Long customerId) {
+        return execute(() -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM loan_applications WHERE customer_id = :customerId AND status IN ('SUBMITTED', 'UNDER_REVIEW')",
+                Map.of("customerId", customerId), Long.class));
+    }
+
+    @Override
+    public Flux<LoanApplication> findApprovedApplicationsSince(LocalDateTime startDate) {
+        return query("SELECT * FROM loan_applications WHERE approval_date >= :startDate AND status = 'APPROVED'",
+                Map.of("startDate", startDate));
+    }
+
+    @Override
+    public Flux<String> findAllVins() {
+        return execute(() -> jdbc.queryForList(
+                "SELECT DISTINCT vehicle_vin FROM loan_applications WHERE vehicle_vin IS NOT NULL",
+                Map.of(), String.class))
+                .flatMapIterable(rows -> rows);
+    }
+
+    @Override
+    public Mono<Long> countPledgedByVin(String vin) {
+        return execute(() -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM loan_applications WHERE vehicle_vin = :vin AND status IN ('SUBMITTED', 'UNDER_REVIEW', 'APPROVED', 'DISBURSED')",
+                Map.of("vin", vin), Long.class));
+    }
+
+    @Override
+    public Flux<LoanApplication> findCollateralConflicts() {
+        return query("SELECT * FROM loan_applications WHERE status IN ('SUBMITTED', 'UNDER_REVIEW', 'APPROVED', 'DISBURSED') AND vehicle_vin IN " +
+                "(SELECT vehicle_vin FROM loan_applications WHERE status IN ('SUBMITTED', 'UNDER_REVIEW', 'APPROVED', 'DISBURSED') " +
+                "AND vehicle_vin IS NOT NULL GROUP BY vehicle_vin HAVING COUNT(*) > 1) ORDER BY vehicle_vin, created_at", Map.of());
+    }
+
+    @Override
+    public Mono<LocalDateTime> findUpdatedAtById(Long id) {
+        return queryValue("SELECT updated_at FROM loan_applications WHERE id = :id", Map.of("id", id), LocalDateTime.class);
+    }
+
+    @Override
+    public Mono<BigDecimal> getTotalLoanValue() {
+        return execute(() -> jdbc.queryForObject("SELECT COALESCE(SUM(loan_amount), 0) FROM loan_applications",
+                Map.of(), BigDecimal.class));
+    }
+
+    @Override
+    public Mono<BigDecimal> getTotalLoanValueByStatus(ApplicationStatus status) {
+        return execute(() -> jdbc.queryForObject(
+                "SELECT COALESCE(SUM(loan_amount), 0) FROM loan_applications WHERE status = :status",
+                Map.of("status", status.name()), BigDecimal.class));
+    }
+
+    @Override
+    protected Long getId(LoanApplication application) {
+        return application.getId();
+    }
+
+    @Override
+    protected void setId(LoanApplication application, Long id) {
+        application.setId(id);
+    }
+
+    @Override
+    protected Map<String, Object> toColumns(LoanApplication application) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("customer_id", application.getCustomerId());
+        columns.put("loan_amount", application.getLoanAmount());
+        columns.put("loan_type", application.getLoanType() != null ? application.getLoanType().name() : null);
+        columns.put("loan_term_months", application.getLoanTermMonths());
+        columns.put("purpose", application.getPurpose());
+        columns.put("status", application.getStatus() != null ? application.getStatus().name() : null);
+        columns.put("interest_rate", application.getInterestRate());
+        columns.put("rate_table_version", application.getRateTableVersion());
+        columns.put("monthly_payment", application.getMonthlyPayment());
+        columns.put("approval_date", application.getApprovalDate());
+        columns.put("rejection_reason", application.getRejectionReason());
+        columns.put("credit_score", application.getCreditScore());
+        columns.put("downpayment", application.getDownpayment());
+        columns.put("monthly_debt_payments", application.getMonthlyDebtPayments());
+        columns.put("employment_years", application.getEmploymentYears());
+        columns.put("vehicle_vin", application.getVin());
+        columns.put("vehicle_make", application.getMake());
+        columns.put("vehicle_year", application.getYear());
+        columns.put("vehicle_model", application.getModel());
+        columns.put("zip_code", application.getZipCode());
+        columns.put("velocity_flags", application.getVelocityFlags());
+        columns.put("created_at", application.getCreatedAt());
+        columns.put("updated_at", application.getUpdatedAt());
+        return columns;
+    }
+
+    private static LoanApplication mapRow(ResultSet rs, int rowNum) throws SQLException {
+        LoanApplication application = new LoanApplication();
+        application.setId(rs.getLong("id"));
+        application.setCustomerId(rs.getLong("customer_id"));
+        application.setLoanAmount(rs.getBigDecimal("loan_amount"));
+        application.setLoanType(LoanType.valueOf(rs.getString("loan_type")));
+        application.setLoanTermMonths(rs.getObject("loan_term_months", Integer.class));
+        application.setPurpose(rs.getString("purpose"));
+        application.setStatus(ApplicationStatus.valueOf(rs.getString("status")));
+        application.setInterestRate(rs.getBigDecimal("interest_rate"));
+        application.setRateTableVersion(rs.getObject("rate_table_version", Long.class));
+        application.setMonthlyPayment(rs.getBigDecimal("monthly_payment"));
+        application.setApprovalDate(rs.getObject("approval_date", LocalDateTime.class));
+        application.setRejectionReason(rs.getString("rejection_reason"));
+        application.setCreditScore(rs.getObject("credit_score", Integer.class));
+        application.setDownpayment(rs.getBigDecimal("downpayment"));
+        application.setMonthlyDebtPayments(rs.getBigDecimal("monthly_debt_payments"));
+        application.setEmploymentYears(rs.getObject("employment_years", Integer.class));
+        application.setVin(rs.getString("vehicle_vin"));
+        application.setMake(rs.getString("vehicle_make"));
+        application.setYear(rs.getObject("vehicle_year", Integer.class));
+        application.setModel(rs.getString("vehicle_model"));
+        application.setZipCode(rs.getString("zip_code"));
+        application.setVelocityFlags(rs.getString("velocity_flags"));
+        application.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        application.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return application;
+    }
+
+    private static LoanApplicationSummary mapSummary(ResultSet rs, int rowNum) throws SQLException {
+        return new LoanApplicationSummary(
+                rs.getLong("id"),
+                rs.getLong("customer_id"),
+                rs.getBigDecimal("loan_amount"),
+                LoanType.valueOf(rs.getString("loan_type")),
+                ApplicationStatus.valueOf(rs.getString("status")),
+                rs.getBigDecimal("monthly_payment"),
+                rs.getObject("updated_at", LocalDateTime.class));
+    }
+}
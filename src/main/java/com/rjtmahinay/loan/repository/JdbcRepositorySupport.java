@@ -0,0 +1,197 @@
+package com.rjtmahinay.loan.repository;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Blocking JDBC implementation of the {@link ReactiveCrudRepository} contract. Each call is run on
+ * the supplied scheduler so the repositories can stand in for the Spring Data R2DBC ones without
+ * changing the service layer.
+ */
+abstract class JdbcRepositorySupport<T> implements ReactiveCrudRepository<T, Long> {
+
+    protected final NamedParameterJdbcTemplate jdbc;
+    private final Scheduler scheduler;
+    private final String table;
+    private final RowMapper<T> rowMapper;
+
+    protected JdbcRepositorySupport(NamedParameterJdbcTemplate jdbc, Scheduler scheduler,
+                                    String table, RowMapper<T> rowMapper) {
+        this.jdbc = jdbc;
+        this.scheduler = scheduler;
+        this.table = table;
+        this.rowMapper = rowMapper;
+    }
+
+    protected abstract Long getId(T entity);
+
+    protected abstract void setId(T entity, Long id);
+
+    /**
+     * Column values for insert and update, keyed by column name and excluding the id.
+     */
+    protected abstract Map<String, Object> toColumns(T entity);
+
+    protected <R> Mono<R> execute(Callable<R> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+
+    protected Flux<T> query(String sql, Map<String, ?> params) {
+        return execute(() -> jdbc.query(sql, params, rowMapper)).flatMapIterable(rows -> rows);
+    }
+
+    protected Mono<T> queryOne(String sql, Map<String, ?> params) {
+        return query(sql, params).next();
+    }
+
+    /**
+     * Single-column lookup; empty when there is no row or the value is null.
+     */
+    protected <V> Mono<V> queryValue(String sql, Map<String, ?> params, Class<V> type) {
+        return execute(() -> {
+            List<V> values = jdbc.queryForList(sql, params, type);
+            return values.isEmpty() ? null : values.get(0);
+        });
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return execute(() -> {
+            if (getId(entity) == null) {
+                insert(entity);
+            } else {
+                update(entity);
+            }
+            return entity;
+        });
+    }
+
+    private void insert(T entity) {
+        Map<String, Object> columns = toColumns(entity);
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns.keySet()) + ") VALUES ("
+                + columns.keySet().stream().map(column -> ":" + column).collect(Collectors.joining(", ")) + ")";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.update(sql, new MapSqlParameterSource(columns), keyHolder, new String[] { "id" });
+        setId(entity, keyHolder.getKeyAs(Long.class));
+    }
+
+    private void update(T entity) {
+        Map<String, Object> columns = toColumns(entity);
+        String sql = "UPDATE " + table + " SET "
+                + columns.keySet().stream().map(column -> column + " = :" + column).collect(Collectors.joining(", "))
+                + " WHERE id = :id";
+        MapSqlParameterSource params = new MapSqlParameterSource(columns).addValue("id", getId(entity));
+        if (jdbc.update(sql, params) == 0) {
+            throw new RuntimeException("Row with id " + getId(entity) + " does not exist in " + table);
+        }
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<T> findById(Long id) {
+        return queryOne("SELECT * FROM " + table + " WHERE id = :id", Map.of("id", id));
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return execute(() -> jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = :id",
+                Map.of("id", id), Long.class) > 0);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return query("SELECT * FROM " + table, Map.of());
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).toList();
+        if (idList.isEmpty()) {
+            return Flux.empty();
+        }
+        return query("SELECT * FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList));
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return execute(() -> jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Map.of(), Long.class));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return execute(() -> jdbc.update("DELETE FROM " + table + " WHERE id = :id", Map.of("id", id))).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return deleteById(getId(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).map(Long.class::cast).toList();
+        if (idList.isEmpty()) {
+            return Mono.empty();
+        }
+        return execute(() -> jdbc.update("DELETE FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList))).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        List<Long> ids = StreamSupport.stream(entities.spliterator(), false).map(this::getId).toList();
+        return deleteAllById(ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream).map(this::getId).collectList().flatMap(this::deleteAllById);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return execute(() -> jdbc.update("DELETE FROM " + table, Map.of())).then();
+    }
+}
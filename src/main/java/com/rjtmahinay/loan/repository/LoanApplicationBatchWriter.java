@@ -0,0 +1,72 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes partial updates of {@code loan_applications}. Updates that change the same columns are sent
+ * as one parameterized statement with one binding per row, on one connection per shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoanApplicationBatchWriter {
+
+    private final DatabaseClient databaseClient;
+    private final ShardRouter shardRouter;
+
+    /**
+     * @return the ids of the rows updated; an update whose row is gone or no longer has its expected status
+     *         is left out
+     */
+    public Mono<Set<Long>> write(List<LoanApplicationUpdate> updates) {
+        if (updates.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        Map<Integer, Map<String, List<LoanApplicationUpdate>>> byShard = new LinkedHashMap<>();
+        updates.forEach(update -> byShard
+                .computeIfAbsent(shardRouter.shardOfId(update.getId()), shard -> new LinkedHashMap<>())
+                .computeIfAbsent(update.shape(), shape -> new ArrayList<>())
+                .add(update));
+
+        return Flux.fromIterable(byShard.entrySet())
+                .concatMap(shard -> shardRouter.onShard(shard.getKey(), write(shard.getValue())))
+                .collect(Collectors.toSet());
+    }
+
+    private Flux<Long> write(Map<String, List<LoanApplicationUpdate>> byShape) {
+        return databaseClient.inConnectionMany(connection -> Flux.fromIterable(byShape.values())
+                .concatMap(group -> execute(connection, group)));
+    }
+
+    /**
+     * @return the ids of the rows updated; the driver returns one result per binding, in binding order
+     */
+    private Flux<Long> execute(Connection connection, List<LoanApplicationUpdate> group) {
+        Statement statement = connection.createStatement(group.get(0).toSql());
+        for (int i = 0; i < group.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            group.get(i).bindTo(statement);
+        }
+        return Flux.from(statement.execute())
+                .concatMap(Result::getRowsUpdated)
+                .index()
+                .filter(rows -> rows.getT2() > 0)
+                .map(rows -> group.get(rows.getT1().intValue()).getId());
+    }
+}
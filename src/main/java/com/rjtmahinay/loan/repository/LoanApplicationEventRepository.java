@@ -0,0 +1,86 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanApplicationEvent;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * Append-only store of loan application events. Events live on their application's shard; there is no
+ * update or delete.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoanApplicationEventRepository {
+
+    private static final String INSERT = "INSERT INTO loan_application_events " +
+            "(application_id, from_status, to_status, actor, occurred_at) VALUES ($1, $2, $3, $4, $5)";
+
+    private final R2dbcEntityTemplate template;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Inserts the events as one parameterized statement per shard, keeping their order.
+     *
+     * @return the number of events inserted
+     */
+    public Mono<Long> append(List<LoanApplicationEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Map<Integer, List<LoanApplicationEvent>> byShard = new LinkedHashMap<>();
+        events.forEach(event -> byShard
+                .computeIfAbsent(shardRouter.shardOfId(event.getApplicationId()), shard -> new ArrayList<>())
+                .add(event));
+
+        return Flux.fromIterable(byShard.entrySet())
+                .concatMap(shard -> shardRouter.onShard(shard.getKey(), insert(shard.getValue())))
+                .reduce(0L, Long::sum);
+    }
+
+    private Flux<Long> insert(List<LoanApplicationEvent> events) {
+        return template.getDatabaseClient().inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT);
+            for (int i = 0; i < events.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                LoanApplicationEvent event = events.get(i);
+                statement.bind(0, event.getApplicationId());
+                if (event.getFromStatus() == null) {
+                    statement.bindNull(1, String.class);
+                } else {
+                    statement.bind(1, event.getFromStatus().name());
+                }
+                statement.bind(2, event.getToStatus().name());
+                statement.bind(3, event.getActor());
+                statement.bind(4, event.getOccurredAt());
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        });
+    }
+
+    /**
+     * Events of one application, oldest first. Runs on whichever shard the caller routed to.
+     */
+    public Flux<LoanApplicationEvent> findByApplicationId(Long applicationId) {
+        return template.select(LoanApplicationEvent.class)
+                .matching(query(where("applicationId").is(applicationId))
+                        .sort(Sort.by("occurredAt", "id")))
+                .all();
+    }
+}
@@ -3,6 +3,7 @@ package com.rjtmahinay.loan.repository;
 import com.rjtmahinay.loan.model.LoanApplication;
 import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
 import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.LoanApplicationSummary;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -15,12 +16,20 @@ import java.time.LocalDateTime;
 @Repository
 public interface LoanApplicationRepository extends ReactiveCrudRepository<LoanApplication, Long> {
     
+    // Ordered so the customer overview lists applications, and hashes its ETag, the same way on every read
+    @Query("SELECT * FROM loan_applications WHERE customer_id = :customerId ORDER BY id")
     Flux<LoanApplication> findByCustomerId(Long customerId);
     
     Flux<LoanApplication> findByStatus(ApplicationStatus status);
     
     Flux<LoanApplication> findByLoanType(LoanType loanType);
     
+    @Query("SELECT id, customer_id, loan_amount, loan_type, status, monthly_payment, updated_at FROM loan_applications")
+    Flux<LoanApplicationSummary> findAllSummaries();
+    
+    @Query("SELECT id, customer_id, loan_amount, loan_type, status, monthly_payment, updated_at FROM loan_applications WHERE status = :status")
+    Flux<LoanApplicationSummary> findSummariesByStatus(ApplicationStatus status);
+    
     @Query("SELECT * FROM loan_applications WHERE customer_id = :customerId AND status = :status")
     Flux<LoanApplication> findByCustomerIdAndStatus(Long customerId, ApplicationStatus status);
     
@@ -39,6 +48,20 @@ public interface LoanApplicationRepository extends ReactiveCrudRepository<LoanAp
     @Query("SELECT * FROM loan_applications WHERE approval_date >= :startDate AND status = 'APPROVED'")
     Flux<LoanApplication> findApprovedApplicationsSince(LocalDateTime startDate);
     
+    @Query("SELECT DISTINCT vehicle_vin FROM loan_applications WHERE vehicle_vin IS NOT NULL")
+    Flux<String> findAllVins();
+    
+    @Query("SELECT COUNT(*) FROM loan_applications WHERE vehicle_vin = :vin AND status IN ('SUBMITTED', 'UNDER_REVIEW', 'APPROVED', 'DISBURSED')")
+    Mono<Long> countPledgedByVin(String vin);
+    
+    @Query("SELECT * FROM loan_applications WHERE status IN ('SUBMITTED', 'UNDER_REVIEW', 'APPROVED', 'DISBURSED') AND vehicle_vin IN " +
+           "(SELECT vehicle_vin FROM loan_applications WHERE status IN ('SUBMITTED', 'UNDER_REVIEW', 'APPROVED', 'DISBURSED') " +
+           "AND vehicle_vin IS NOT NULL GROUP BY vehicle_vin HAVING COUNT(*) > 1) ORDER BY vehicle_vin, created_at")
+    Flux<LoanApplication> findCollateralConflicts();
+    
+    @Query("SELECT updated_at FROM loan_applications WHERE id = :id")
+    Mono<LocalDateTime> findUpdatedAtById(Long id);
+    
     @Query("SELECT COALESCE(SUM(loan_amount), 0) FROM loan_applications")
     Mono<BigDecimal> getTotalLoanValue();
     
@@ -0,0 +1,170 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import io.r2dbc.spi.Statement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * The subset of {@code loan_applications} columns changed by a state transition. Values are captured
+ * from the application when each column is marked, so the update can be queued and merged with later
+ * updates of the same row before it is written.
+ * <p>
+ * A status transition names the status it starts from with {@link #expecting}. The row is then only
+ * written while it still has that status, so of two transitions racing from the same status only one
+ * takes effect.
+ */
+public final class LoanApplicationUpdate {
+
+    private final Long id;
+    private final LoanApplication source;
+    // Sorted so updates touching the same columns produce the same SQL and can share a batch
+    private final Map<String, Change> changes = new TreeMap<>();
+    private ApplicationStatus expectedStatus;
+    private ApplicationStatus newStatus;
+
+    private LoanApplicationUpdate(LoanApplication source) {
+        this.id = source.getId();
+        this.source = source;
+    }
+
+    public static LoanApplicationUpdate of(LoanApplication application) {
+        return new LoanApplicationUpdate(application);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ApplicationStatus getExpectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * The status this update sets, or null when it leaves the status alone.
+     */
+    public ApplicationStatus getNewStatus() {
+        return newStatus;
+    }
+
+    /**
+     * Writes the row only while its status is still {@code status}.
+     */
+    public LoanApplicationUpdate expecting(ApplicationStatus status) {
+        this.expectedStatus = status;
+        return this;
+    }
+
+    public LoanApplicationUpdate status() {
+        ApplicationStatus status = source.getStatus();
+        newStatus = status;
+        return put("status", status.name(), String.class, target -> target.setStatus(status));
+    }
+
+    public LoanApplicationUpdate loanAmount() {
+        BigDecimal loanAmount = source.getLoanAmount();
+        return put("loan_amount", loanAmount, BigDecimal.class, target -> target.setLoanAmount(loanAmount));
+    }
+
+    public LoanApplicationUpdate interestRate() {
+        BigDecimal interestRate = source.getInterestRate();
+        return put("interest_rate", interestRate, BigDecimal.class, target -> target.setInterestRate(interestRate));
+    }
+
+    public LoanApplicationUpdate monthlyPayment() {
+        BigDecimal monthlyPayment = source.getMonthlyPayment();
+        return put("monthly_payment", monthlyPayment, BigDecimal.class,
+                target -> target.setMonthlyPayment(monthlyPayment));
+    }
+
+    public LoanApplicationUpdate approvalDate() {
+        LocalDateTime approvalDate = source.getApprovalDate();
+        return put("approval_date", approvalDate, LocalDateTime.class, target -> target.setApprovalDate(approvalDate));
+    }
+
+    public LoanApplicationUpdate rejectionReason() {
+        String rejectionReason = source.getRejectionReason();
+        return put("rejection_reason", rejectionReason, String.class,
+                target -> target.setRejectionReason(rejectionReason));
+    }
+
+    public LoanApplicationUpdate updatedAt() {
+        LocalDateTime updatedAt = source.getUpdatedAt();
+        return put("updated_at", updatedAt, LocalDateTime.class, target -> target.setUpdatedAt(updatedAt));
+    }
+
+    /**
+     * Folds a later update of the same row into this one; the later value wins per column.
+     */
+    public LoanApplicationUpdate merge(LoanApplicationUpdate later) {
+        changes.putAll(later.changes);
+        // An earlier update that sets the status already decided it, and the later one was checked against that
+        // in memory; otherwise the row still has to have the status the later update expects
+        if (expectedStatus == null && newStatus == null) {
+            expectedStatus = later.expectedStatus;
+        }
+        if (later.newStatus != null) {
+            newStatus = later.newStatus;
+        }
+        return this;
+    }
+
+    /**
+     * Applies the captured values to an application read from the database, so reads see queued writes.
+     */
+    public LoanApplication applyTo(LoanApplication application) {
+        changes.values().forEach(change -> change.applier().accept(application));
+        return application;
+    }
+
+    /**
+     * Identifies the set of changed columns; updates with the same shape share one SQL statement.
+     */
+    String shape() {
+        return String.join(",", changes.keySet()) + (expectedStatus != null ? "?status" : "");
+    }
+
+    String toSql() {
+        StringBuilder sql = new StringBuilder("UPDATE loan_applications SET ");
+        int index = 1;
+        for (String column : changes.keySet()) {
+            if (index > 1) {
+                sql.append(", ");
+            }
+            sql.append(column).append(" = $").append(index++);
+        }
+        sql.append(" WHERE id = $").append(index++);
+        if (expectedStatus != null) {
+            sql.append(" AND status = $").append(index);
+        }
+        return sql.toString();
+    }
+
+    void bindTo(Statement statement) {
+        int index = 0;
+        for (Change change : changes.values()) {
+            if (change.value() == null) {
+                statement.bindNull(index++, change.type());
+            } else {
+                statement.bind(index++, change.value());
+            }
+        }
+        statement.bind(index++, id);
+        if (expectedStatus != null) {
+            statement.bind(index, expectedStatus.name());
+        }
+    }
+
+    private LoanApplicationUpdate put(String column, Object value, Class<?> type, Consumer<LoanApplication> applier) {
+        changes.put(column, new Change(value, type, applier));
+        return this;
+    }
+
+    private record Change(Object value, Class<?> type, Consumer<LoanApplication> applier) {
+    }
+}
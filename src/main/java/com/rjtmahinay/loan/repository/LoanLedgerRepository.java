@@ -0,0 +1,259 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.model.LoanPayment;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loan accounts and their payment ledger. Postings insert ledger entries and update accounts in one
+ * transaction, with one batched statement each, so a chunk of thousands of payments is a handful of round trips.
+ * Callers route to the loans' shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoanLedgerRepository {
+
+    private static final String OPEN_ACCOUNT = "INSERT INTO loan_accounts (application_id, customer_id, principal, " +
+            "interest_rate, monthly_payment, term_months, balance, accrued_interest, interest_through, " +
+            "installment_credit, next_due_date, days_past_due, delinquency_bucket, opened_at, updated_at, version) " +
+            "VALUES (:applicationId, :customerId, :principal, :interestRate, :monthlyPayment, :termMonths, :balance, " +
+            ":accruedInterest, :interestThrough, :installmentCredit, :nextDueDate, :daysPastDue, :delinquencyBucket, " +
+            ":openedAt, :updatedAt, 0)";
+
+    private static final String INSERT_PAYMENT = "INSERT INTO loan_payments (application_id, reference, amount, " +
+            "principal, interest, balance_after, paid_on, posted_at) VALUES ($1, $2, $3, $4, $5, $6, $7, $8)";
+
+    private static final String UPDATE_ACCOUNT = "UPDATE loan_accounts SET balance = $1, accrued_interest = $2, " +
+            "interest_through = $3, installment_credit = $4, next_due_date = $5, days_past_due = $6, " +
+            "delinquency_bucket = $7, last_payment_date = $8, updated_at = $9, version = version + 1 " +
+            "WHERE application_id = $10 AND version = $11";
+
+    private static final String FIND_DISBURSED = "SELECT a.* FROM loan_accounts a " +
+            "JOIN loan_applications l ON l.id = a.application_id " +
+            "WHERE l.status = 'DISBURSED' AND a.application_id > :after ORDER BY a.application_id LIMIT :limit";
+
+    private static final String ACCRUE = "UPDATE loan_accounts SET accrued_interest = $1, interest_through = $2, " +
+            "days_past_due = $3, delinquency_bucket = $4, updated_at = $5, version = version + 1 " +
+            "WHERE application_id = $6 AND version = $7";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> openAccount(LoanAccount account) {
+        return databaseClient.sql(OPEN_ACCOUNT)
+                .bind("applicationId", account.getApplicationId())
+                .bind("customerId", account.getCustomerId())
+                .bind("principal", account.getPrincipal())
+                .bind("interestRate", account.getInterestRate())
+                .bind("monthlyPayment", account.getMonthlyPayment())
+                .bind("termMonths", account.getTermMonths())
+                .bind("balance", account.getBalance())
+                .bind("accruedInterest", account.getAccruedInterest())
+                .bind("interestThrough", account.getInterestThrough())
+                .bind("installmentCredit", account.getInstallmentCredit())
+                .bind("nextDueDate", account.getNextDueDate())
+                .bind("daysPastDue", account.getDaysPastDue())
+                .bind("delinquencyBucket", account.getDelinquencyBucket().name())
+                .bind("openedAt", account.getOpenedAt())
+                .bind("updatedAt", account.getUpdatedAt())
+                .then();
+    }
+
+    public Mono<LoanAccount> findAccount(Long applicationId) {
+        return databaseClient.sql("SELECT * FROM loan_accounts WHERE application_id = :applicationId")
+                .bind("applicationId", applicationId)
+                .map(LoanLedgerRepository::toAccount)
+                .one();
+    }
+
+    public Flux<LoanAccount> findAccounts(Collection<Long> applicationIds) {
+        return databaseClient.sql("SELECT * FROM loan_accounts WHERE application_id IN (:applicationIds)")
+                .bind("applicationIds", applicationIds)
+                .map(LoanLedgerRepository::toAccount)
+                .all();
+    }
+
+    /**
+     * Next page of disbursed loans' accounts by application id; pass the last id of the previous page as
+     * {@code afterApplicationId}.
+     */
+    public Flux<LoanAccount> findDisbursedAccounts(long afterApplicationId, int limit) {
+        return databaseClient.sql(FIND_DISBURSED)
+                .bind("after", afterApplicationId)
+                .bind("limit", limit)
+                .map(LoanLedgerRepository::toAccount)
+                .all();
+    }
+
+    /**
+     * Applications whose loan has been repaid in full.
+     */
+    public Flux<Long> findPaidOffApplicationIds() {
+        return databaseClient.sql("SELECT application_id FROM loan_accounts WHERE balance = 0")
+                .map(row -> row.get("application_id", Long.class))
+                .all();
+    }
+
+    /**
+     * The subset of {@code references} already in the ledger.
+     */
+    public Flux<String> findPostedReferences(Collection<String> references) {
+        return databaseClient.sql("SELECT reference FROM loan_payments WHERE reference IN (:references)")
+                .bind("references", references)
+                .map(row -> row.get("reference", String.class))
+                .all();
+    }
+
+    public Flux<LoanPayment> findPayments(Long applicationId) {
+        return databaseClient.sql("SELECT * FROM loan_payments WHERE application_id = :applicationId ORDER BY paid_on, id")
+                .bind("applicationId", applicationId)
+                .map(row -> new LoanPayment(
+                        row.get("id", Long.class),
+                        row.get("application_id", Long.class),
+                        row.get("reference", String.class),
+                        row.get("amount", BigDecimal.class),
+                        row.get("principal", BigDecimal.class),
+                        row.get("interest", BigDecimal.class),
+                        row.get("balance_after", BigDecimal.class),
+                        row.get("paid_on", LocalDate.class),
+                        row.get("posted_at", LocalDateTime.class)))
+                .all();
+    }
+
+    /**
+     * Appends the payments and writes the accounts they changed, all or nothing.
+     *
+     * @throws OptimisticLockingFailureException when another posting changed one of the accounts since it was read
+     */
+    public Mono<Void> post(List<LoanPayment> payments, Collection<LoanAccount> accounts) {
+        if (payments.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnection(connection -> Mono.from(connection.beginTransaction())
+                .then(insertPayments(connection, payments))
+                .then(updateAccounts(connection, accounts))
+                .then(Mono.from(connection.commitTransaction()))
+                .onErrorResume(error -> Mono.from(connection.rollbackTransaction()).then(Mono.error(error))));
+    }
+
+    /**
+     * Writes accrued interest and aging, one batched statement for all accounts. Accounts changed since they were
+     * read are left alone.
+     *
+     * @return ids of the accounts that were not written because of a concurrent change
+     */
+    public Flux<Long> accrue(List<LoanAccount> accounts) {
+        if (accounts.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(ACCRUE);
+            for (int i = 0; i < accounts.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                LoanAccount account = accounts.get(i);
+                statement.bind(0, account.getAccruedInterest())
+                        .bind(1, account.getInterestThrough())
+                        .bind(2, account.getDaysPastDue())
+                        .bind(3, account.getDelinquencyBucket().name())
+                        .bind(4, account.getUpdatedAt())
+                        .bind(5, account.getApplicationId())
+                        .bind(6, account.getVersion());
+            }
+            // One result per binding, in binding order
+            return Flux.from(statement.execute())
+                    .concatMap(Result::getRowsUpdated)
+                    .index()
+                    .filter(updated -> updated.getT2() == 0)
+                    .map(updated -> accounts.get(updated.getT1().intValue()).getApplicationId());
+        });
+    }
+
+    private Mono<Void> insertPayments(Connection connection, List<LoanPayment> payments) {
+        Statement statement = connection.createStatement(INSERT_PAYMENT);
+        for (int i = 0; i < payments.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            LoanPayment payment = payments.get(i);
+            statement.bind(0, payment.getApplicationId())
+                    .bind(1, payment.getReference())
+                    .bind(2, payment.getAmount())
+                    .bind(3, payment.getPrincipal())
+                    .bind(4, payment.getInterest())
+                    .bind(5, payment.getBalanceAfter())
+                    .bind(6, payment.getPaidOn())
+                    .bind(7, payment.getPostedAt());
+        }
+        return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated).then();
+    }
+
+    private Mono<Void> updateAccounts(Connection connection, Collection<LoanAccount> accounts) {
+        Statement statement = connection.createStatement(UPDATE_ACCOUNT);
+        boolean first = true;
+        for (LoanAccount account : accounts) {
+            if (!first) {
+                statement.add();
+            }
+            first = false;
+            statement.bind(0, account.getBalance())
+                    .bind(1, account.getAccruedInterest())
+                    .bind(2, account.getInterestThrough())
+                    .bind(3, account.getInstallmentCredit())
+                    .bind(4, account.getNextDueDate())
+                    .bind(5, account.getDaysPastDue())
+                    .bind(6, account.getDelinquencyBucket().name())
+                    .bind(8, account.getUpdatedAt())
+                    .bind(9, account.getApplicationId())
+                    .bind(10, account.getVersion());
+            if (account.getLastPaymentDate() != null) {
+                statement.bind(7, account.getLastPaymentDate());
+            } else {
+                statement.bindNull(7, LocalDate.class);
+            }
+        }
+        return Flux.from(statement.execute())
+                .flatMap(Result::getRowsUpdated)
+                .filter(updated -> updated == 0)
+                .hasElements()
+                .flatMap(conflict -> conflict
+                        ? Mono.error(new OptimisticLockingFailureException("Loan account changed by a concurrent posting"))
+                        : Mono.empty());
+    }
+
+    private static LoanAccount toAccount(Readable row) {
+        return new LoanAccount(
+                row.get("application_id", Long.class),
+                row.get("customer_id", Long.class),
+                row.get("principal", BigDecimal.class),
+                row.get("interest_rate", BigDecimal.class),
+                row.get("monthly_payment", BigDecimal.class),
+                row.get("term_months", Integer.class),
+                row.get("balance", BigDecimal.class),
+                row.get("accrued_interest", BigDecimal.class),
+                row.get("interest_through", LocalDate.class),
+                row.get("installment_credit", BigDecimal.class),
+                row.get("next_due_date", LocalDate.class),
+                row.get("days_past_due", Integer.class),
+                LoanAccount.DelinquencyBucket.valueOf(row.get("delinquency_bucket", String.class)),
+                row.get("last_payment_date", LocalDate.class),
+                row.get("opened_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,94 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.RateTableEntry;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Versioned rate tables. Versions are never changed once published; a new table is a new version. Rate tables
+ * are global, so with sharding they live on the default shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateTableRepository {
+
+    private static final String INSERT_ENTRY = "INSERT INTO rate_table_entries " +
+            "(version, loan_type, min_amount, min_term_months, min_credit_score, rate) VALUES ($1, $2, $3, $4, $5, $6)";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @return the highest published version; empty when no table has been published
+     */
+    public Mono<Long> findLatestVersion() {
+        return databaseClient.sql("SELECT version FROM rate_table_versions WHERE published ORDER BY version DESC LIMIT 1")
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Flux<RateTableEntry> findEntries(long version) {
+        return databaseClient.sql("SELECT * FROM rate_table_entries WHERE version = :version")
+                .bind("version", version)
+                .map(row -> new RateTableEntry(
+                        LoanType.valueOf(row.get("loan_type", String.class)),
+                        row.get("min_amount", BigDecimal.class),
+                        row.get("min_term_months", Integer.class),
+                        row.get("min_credit_score", Integer.class),
+                        row.get("rate", BigDecimal.class)))
+                .all();
+    }
+
+    /**
+     * Stores the entries as a new version. The version is published only after all its entries are written,
+     * so a failure part way leaves an unpublished version that is never read.
+     *
+     * @return the new version
+     */
+    public Mono<Long> save(List<RateTableEntry> entries, String description) {
+        DatabaseClient.GenericExecuteSpec insertVersion =
+                databaseClient.sql("INSERT INTO rate_table_versions (description) VALUES (:description)");
+        insertVersion = description == null
+                ? insertVersion.bindNull("description", String.class)
+                : insertVersion.bind("description", description);
+
+        return insertVersion
+                .filter(statement -> statement.returnGeneratedValues("version"))
+                .map(row -> row.get("version", Long.class))
+                .one()
+                .flatMap(version -> insertEntries(version, entries)
+                        .then(databaseClient.sql("UPDATE rate_table_versions SET published = TRUE WHERE version = :version")
+                                .bind("version", version)
+                                .fetch()
+                                .rowsUpdated())
+                        .thenReturn(version));
+    }
+
+    private Mono<Void> insertEntries(long version, List<RateTableEntry> entries) {
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_ENTRY);
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        RateTableEntry entry = entries.get(i);
+                        statement.bind(0, version)
+                                .bind(1, entry.getLoanType().name())
+                                .bind(2, entry.getMinAmount())
+                                .bind(3, entry.getMinTermMonths())
+                                .bind(4, entry.getMinCreditScore())
+                                .bind(5, entry.getRate());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+}
@@ -0,0 +1,153 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanApplication;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * Review leases on {@code loan_applications}. A lease is the {@code lease_owner}, {@code lease_token} and
+ * {@code lease_expires_at} columns; they are not mapped on {@link LoanApplication}, so entity saves and
+ * partial updates leave them alone. Lease changes are not changes to the application, so every statement here
+ * sets {@code updated_at} to itself to keep its ON UPDATE default from bumping it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReviewLeaseRepository {
+
+    private static final String CLAIMABLE =
+            "status = 'UNDER_REVIEW' AND (lease_expires_at IS NULL OR lease_expires_at <= :now)";
+
+    // A claim that comes up short while claimable rows remain lost some of them to a concurrent claim,
+    // and takes another round at what is left
+    private static final int MAX_CLAIM_ROUNDS = 3;
+
+    // The outer predicate is re-checked against the row after its lock is acquired, so of two
+    // reviewers racing for the same rows only one gets each; the loser claims fewer this round.
+    private static final String CLAIM = "UPDATE loan_applications " +
+            "SET lease_owner = :owner, lease_token = :token, lease_expires_at = :expiresAt, updated_at = updated_at " +
+            "WHERE id IN (SELECT id FROM loan_applications WHERE " + CLAIMABLE +
+            " ORDER BY created_at, id LIMIT :limit) AND " + CLAIMABLE;
+
+    private static final String ANY_CLAIMABLE = "SELECT id FROM loan_applications WHERE " + CLAIMABLE + " LIMIT 1";
+
+    private static final String RENEW = "UPDATE loan_applications SET lease_expires_at = :expiresAt, updated_at = updated_at " +
+            "WHERE id = :id AND lease_token = :token AND lease_expires_at > :now";
+
+    private static final String RELEASE = "UPDATE loan_applications " +
+            "SET lease_owner = NULL, lease_token = NULL, lease_expires_at = NULL, updated_at = updated_at " +
+            "WHERE id = :id AND lease_token = :token";
+
+    private static final String RECLAIM_EXPIRED = "UPDATE loan_applications " +
+            "SET lease_owner = NULL, lease_token = NULL, lease_expires_at = NULL, updated_at = updated_at " +
+            "WHERE lease_expires_at <= :now";
+
+    private static final String LEASED_TO_OTHER = "SELECT id FROM loan_applications " +
+            "WHERE id = :id AND lease_expires_at > :now AND lease_token IS DISTINCT FROM :token";
+
+    private final R2dbcEntityTemplate template;
+
+    /**
+     * Leases up to {@code limit} claimable applications, oldest first, to {@code owner} under {@code token}.
+     * Rows lost to a concurrent claim are made up from the rest of the queue, for a few rounds at most.
+     *
+     * @return the number of applications leased
+     */
+    public Mono<Long> claim(String owner, String token, int limit, LocalDateTime now, LocalDateTime expiresAt) {
+        return claim(owner, token, limit, now, expiresAt, 1);
+    }
+
+    private Mono<Long> claim(String owner, String token, int limit, LocalDateTime now, LocalDateTime expiresAt,
+                             int round) {
+        return claimOnce(owner, token, limit, now, expiresAt)
+                .flatMap(claimed -> claimed >= limit || round == MAX_CLAIM_ROUNDS
+                        ? Mono.just(claimed)
+                        : anyClaimable(now).flatMap(remaining -> remaining
+                                ? claim(owner, token, limit - claimed.intValue(), now, expiresAt, round + 1)
+                                        .map(more -> claimed + more)
+                                : Mono.just(claimed)));
+    }
+
+    private Mono<Boolean> anyClaimable(LocalDateTime now) {
+        return template.getDatabaseClient().sql(ANY_CLAIMABLE)
+                .bind("now", now)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Long> claimOnce(String owner, String token, int limit, LocalDateTime now, LocalDateTime expiresAt) {
+        return template.getDatabaseClient().sql(CLAIM)
+                .bind("owner", owner)
+                .bind("token", token)
+                .bind("expiresAt", expiresAt)
+                .bind("now", now)
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Flux<LoanApplication> findByLeaseToken(String token) {
+        return template.select(LoanApplication.class)
+                .matching(query(where("lease_token").is(token)).sort(Sort.by("createdAt", "id")))
+                .all();
+    }
+
+    /**
+     * @return true if the lease was still held under {@code token} and has been extended
+     */
+    public Mono<Boolean> renew(Long id, String token, LocalDateTime now, LocalDateTime expiresAt) {
+        return template.getDatabaseClient().sql(RENEW)
+                .bind("id", id)
+                .bind("token", token)
+                .bind("now", now)
+                .bind("expiresAt", expiresAt)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    public Mono<Boolean> release(Long id, String token) {
+        return template.getDatabaseClient().sql(RELEASE)
+                .bind("id", id)
+                .bind("token", token)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    /**
+     * @return true if the application has an unexpired lease under a token other than {@code token}; any lease
+     *         counts when {@code token} is null
+     */
+    public Mono<Boolean> isLeasedToOther(Long id, String token, LocalDateTime now) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(LEASED_TO_OTHER)
+                .bind("id", id)
+                .bind("now", now);
+        return (token != null ? spec.bind("token", token) : spec.bindNull("token", String.class))
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Clears every lease that expired at or before {@code now}.
+     *
+     * @return the number of leases cleared
+     */
+    public Mono<Long> reclaimExpired(LocalDateTime now) {
+        return template.getDatabaseClient().sql(RECLAIM_EXPIRED)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+}
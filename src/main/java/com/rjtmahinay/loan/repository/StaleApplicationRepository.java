@@ -0,0 +1,46 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Set-based status transitions for applications that have sat idle in one status. Each call changes at most
+ * {@code limit} rows with a single statement, picking the longest-idle rows through the (status, updated_at) index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StaleApplicationRepository {
+
+    private static final String IDLE = "status = :from AND updated_at < :idleSince";
+
+    // The idle predicate is repeated on the outer UPDATE so a row changed by a reviewer after the
+    // subquery picked it is left alone. FINAL TABLE returns the ids the UPDATE actually changed.
+    private static final String TRANSITION = "SELECT id FROM FINAL TABLE (UPDATE loan_applications " +
+            "SET status = :to, updated_at = :now, lease_owner = NULL, lease_token = NULL, lease_expires_at = NULL " +
+            "WHERE id IN (SELECT id FROM loan_applications WHERE " + IDLE +
+            " ORDER BY updated_at LIMIT :limit) AND " + IDLE + ")";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Moves up to {@code limit} applications in status {@code from} last updated before {@code idleSince} to {@code to}.
+     *
+     * @return the ids of the applications moved
+     */
+    public Flux<Long> transitionIdle(ApplicationStatus from, ApplicationStatus to,
+                                     LocalDateTime idleSince, LocalDateTime now, int limit) {
+        return databaseClient.sql(TRANSITION)
+                .bind("from", from.name())
+                .bind("to", to.name())
+                .bind("idleSince", idleSince)
+                .bind("now", now)
+                .bind("limit", limit)
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+}
@@ -0,0 +1,25 @@
+package com.rjtmahinay.loan.routing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Marks reactive queries as safe to serve from a read replica. The mark travels in the Reactor context, so it
+ * must be applied downstream of the repository call. Without replica routing configured it has no effect.
+ */
+public final class ReadRouting {
+
+    static final String READ_ONLY = ReadRouting.class.getName() + ".READ_ONLY";
+    static final String STICKY_PRIMARY = ReadRouting.class.getName() + ".STICKY_PRIMARY";
+
+    private ReadRouting() {
+    }
+
+    public static <T> Flux<T> onReplica(Flux<T> reads) {
+        return reads.contextWrite(context -> context.put(READ_ONLY, true));
+    }
+
+    public static <T> Mono<T> onReplica(Mono<T> read) {
+        return read.contextWrite(context -> context.put(READ_ONLY, true));
+    }
+}
@@ -0,0 +1,59 @@
+package com.rjtmahinay.loan.routing;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Keeps a client on the primary for a short window after it writes. The window end is carried in a cookie,
+ * so stickiness holds whichever instance serves the next request.
+ */
+class ReadYourWritesFilter implements WebFilter {
+
+    static final String COOKIE = "loan-primary-until";
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ReplicaRoutingProperties properties;
+
+    ReadYourWritesFilter(ReplicaRoutingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!SAFE_METHODS.contains(exchange.getRequest().getMethod())) {
+            exchange.getResponse().beforeCommit(() -> {
+                long until = System.currentTimeMillis() + properties.getStickyWindow().toMillis();
+                exchange.getResponse().addCookie(ResponseCookie.from(COOKIE, Long.toString(until))
+                        .maxAge(properties.getStickyWindow())
+                        .path("/")
+                        .httpOnly(true)
+                        .build());
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        }
+        if (stickyUntil(exchange.getRequest().getCookies().getFirst(COOKIE)) > System.currentTimeMillis()) {
+            return chain.filter(exchange).contextWrite(context -> context.put(ReadRouting.STICKY_PRIMARY, true));
+        }
+        return chain.filter(exchange);
+    }
+
+    private static long stickyUntil(HttpCookie cookie) {
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.rjtmahinay.loan.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Measures replica lag by writing a timestamp to {@code replica_heartbeat} on the primary and reading it back
+ * from the replica. The replica counts as fresh while the heartbeat it serves is younger than the allowed lag;
+ * a replica that cannot be read, or has no heartbeat table, is never fresh.
+ */
+@Slf4j
+class ReplicaLagMonitor {
+
+    private static final String BEAT = "MERGE INTO replica_heartbeat KEY (id) VALUES (1, :beatAt)";
+    private static final String LAST_BEAT = "SELECT beat_at FROM replica_heartbeat WHERE id = 1";
+
+    private final DatabaseClient primary;
+    private final DatabaseClient replica;
+    private final ReplicaRoutingProperties properties;
+
+    private volatile LocalDateTime lastBeatOnReplica;
+
+    ReplicaLagMonitor(DatabaseClient primary, DatabaseClient replica, ReplicaRoutingProperties properties,
+                      MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.properties = properties;
+        Gauge.builder("loan.replica.lag", this, monitor -> monitor.lag().toMillis() / 1000.0)
+                .description("Age of the newest heartbeat visible on the replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    boolean isReplicaFresh() {
+        return lastBeatOnReplica != null && lag().compareTo(properties.getMaxLag()) <= 0;
+    }
+
+    private Duration lag() {
+        LocalDateTime lastBeat = lastBeatOnReplica;
+        return lastBeat == null ? Duration.ofDays(1) : Duration.between(lastBeat, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${loan.replica.heartbeat-interval:1s}")
+    public void heartbeat() {
+        primary.sql(BEAT)
+                .bind("beatAt", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated()
+                .then(replica.sql(LAST_BEAT)
+                        .map(row -> row.get("beat_at", LocalDateTime.class))
+                        .one())
+                .doOnNext(beatAt -> lastBeatOnReplica = beatAt)
+                .doOnError(error -> log.debug("Replica heartbeat failed, reads stay on the primary: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .subscribe();
+    }
+}
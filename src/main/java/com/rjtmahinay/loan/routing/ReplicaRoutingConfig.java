@@ -0,0 +1,80 @@
+package com.rjtmahinay.loan.routing;
+
+import com.rjtmahinay.loan.config.ConnectionFactories;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Replaces the auto-configured connection factory with one that routes between {@code spring.r2dbc} (primary)
+ * and {@code loan.replica} (replica). Only affects the R2DBC persistence mode.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "loan.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool primaryConnectionFactory(R2dbcProperties properties,
+                                                   ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        ConnectionFactory connectionFactory = ConnectionFactories.decorate(
+                ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                        .username(properties.getUsername())
+                        .password(properties.getPassword())
+                        .build(),
+                decorators);
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(properties.getPool().getMaxSize())
+                .build());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool replicaConnectionFactory(ReplicaRoutingProperties properties,
+                                                   ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        log.info("Routing read-only queries to replica {}", properties.getUrl());
+        ConnectionFactory connectionFactory = ConnectionFactories.decorate(
+                ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                        .username(properties.getUsername())
+                        .password(properties.getPassword())
+                        .build(),
+                decorators);
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(properties.getMaxPoolSize())
+                .build());
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryConnectionFactory") ConnectionPool primary,
+                                        @Qualifier("replicaConnectionFactory") ConnectionPool replica,
+                                        ReplicaRoutingProperties properties,
+                                        MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(DatabaseClient.create(primary), DatabaseClient.create(replica),
+                properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public ConnectionFactory connectionFactory(@Qualifier("primaryConnectionFactory") ConnectionPool primary,
+                                               @Qualifier("replicaConnectionFactory") ConnectionPool replica,
+                                               ReplicaLagMonitor replicaLagMonitor,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaRoutingConnectionFactory(primary, replica, replicaLagMonitor, meterRegistry);
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesFilter(properties);
+    }
+}
@@ -0,0 +1,68 @@
+package com.rjtmahinay.loan.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Picks the primary or the replica each time a connection is acquired. Queries marked with
+ * {@link ReadRouting#onReplica} go to the replica unless the client recently wrote or the replica is lagging;
+ * everything else goes to the primary.
+ */
+class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryWrites;
+    private final Counter primarySticky;
+    private final Counter primaryLagging;
+    private final Counter replicaReads;
+
+    ReplicaRoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica,
+                                    ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.primaryWrites = routed(meterRegistry, Target.PRIMARY, "write");
+        this.primarySticky = routed(meterRegistry, Target.PRIMARY, "sticky");
+        this.primaryLagging = routed(meterRegistry, Target.PRIMARY, "replica-lag");
+        this.replicaReads = routed(meterRegistry, Target.REPLICA, "read");
+        setTargetConnectionFactories(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetConnectionFactory(primary);
+        afterPropertiesSet();
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, Target target, String reason) {
+        return Counter.builder("loan.replica.routed")
+                .description("Connections acquired per target database")
+                .tag("target", target.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            if (!context.getOrDefault(ReadRouting.READ_ONLY, false)) {
+                primaryWrites.increment();
+                return Mono.just(Target.PRIMARY);
+            }
+            if (context.getOrDefault(ReadRouting.STICKY_PRIMARY, false)) {
+                primarySticky.increment();
+                return Mono.just(Target.PRIMARY);
+            }
+            if (!lagMonitor.isReplicaFresh()) {
+                primaryLagging.increment();
+                return Mono.just(Target.PRIMARY);
+            }
+            replicaReads.increment();
+            return Mono.just(Target.REPLICA);
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.rjtmahinay.loan.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.replica")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Route read-only queries to the replica below. When disabled everything uses {@code spring.r2dbc}.
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maxPoolSize = 10;
+
+    /**
+     * How long after a write the same client keeps reading from the primary, so it sees its own writes.
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * Replica reads fall back to the primary while the newest heartbeat visible on the replica is older than this.
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    /**
+     * How often the heartbeat is written to the primary and read back from the replica.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+}
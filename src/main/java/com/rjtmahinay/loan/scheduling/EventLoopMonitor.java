@@ -0,0 +1,93 @@
+package com.rjtmahinay.loan.scheduling;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes how responsive the HTTP event loops are and how backed up the schedulers are. Lag is the delay
+ * between handing each event loop a no-op task and the task running; a loop stuck in blocking code shows up as
+ * a lag spike once it is free again, and as a growing pending-task count while it is stuck.
+ */
+@Slf4j
+@Component
+public class EventLoopMonitor {
+
+    private final List<EventExecutor> eventLoops = new ArrayList<>();
+    private final Timer lag;
+
+    public EventLoopMonitor(@Qualifier("httpLoopResources") ObjectProvider<LoopResources> httpLoopResources,
+                            @Qualifier("dbScheduler") Scheduler dbScheduler,
+                            MeterRegistry meterRegistry) {
+        LoopResources loops = httpLoopResources.getIfAvailable(HttpResources::get);
+        EventLoopGroup group = loops.onServer(LoopResources.DEFAULT_NATIVE);
+        group.forEach(eventLoops::add);
+
+        this.lag = Timer.builder("loan.event-loop.lag")
+                .description("Delay before an HTTP event loop runs a newly submitted task")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (int i = 0; i < eventLoops.size(); i++) {
+            EventExecutor eventLoop = eventLoops.get(i);
+            Gauge.builder("loan.event-loop.pending-tasks", eventLoop, EventLoopMonitor::pendingTasks)
+                    .description("Tasks waiting for an HTTP event loop")
+                    .tag("loop", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        registerSchedulerGauges("db", dbScheduler, meterRegistry);
+        registerSchedulerGauges("parallel", Schedulers.parallel(), meterRegistry);
+        log.info("Monitoring {} HTTP event loops", eventLoops.size());
+    }
+
+    @Scheduled(fixedDelayString = "${loan.scheduling.lag-probe-interval:1s}")
+    public void probe() {
+        for (EventExecutor eventLoop : eventLoops) {
+            long submitted = System.nanoTime();
+            eventLoop.execute(() -> lag.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private static double pendingTasks(EventExecutor eventLoop) {
+        return eventLoop instanceof SingleThreadEventExecutor executor ? executor.pendingTasks() : 0;
+    }
+
+    private static void registerSchedulerGauges(String name, Scheduler scheduler, MeterRegistry meterRegistry) {
+        Gauge.builder("loan.scheduler.queued", scheduler, EventLoopMonitor::queuedTasks)
+                .description("Tasks waiting for a scheduler thread")
+                .tag("scheduler", name)
+                .register(meterRegistry);
+        Gauge.builder("loan.scheduler.workers", scheduler, EventLoopMonitor::workers)
+                .description("Threads the scheduler currently holds")
+                .tag("scheduler", name)
+                .register(meterRegistry);
+    }
+
+    // Each worker of a Reactor scheduler wraps its own executor; the scheduler reports their queues as its inners
+    private static double queuedTasks(Scheduler scheduler) {
+        return Scannable.from(scheduler).inners()
+                .map(worker -> worker.scan(Scannable.Attr.BUFFERED))
+                .mapToInt(queued -> queued != null ? queued : 0)
+                .sum();
+    }
+
+    private static double workers(Scheduler scheduler) {
+        return Scannable.from(scheduler).inners().count();
+    }
+}
@@ -0,0 +1,232 @@
+package com.rjtmahinay.loan.scheduling;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+/**
+ * Subscribes to every driver publisher (connection acquisition, statements, transaction control) on a dedicated
+ * scheduler. Rows are then emitted, mapped and serialized on that scheduler too, never on the event loop that
+ * issued the query.
+ */
+class SchedulerIsolatingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+    private final Scheduler scheduler;
+
+    SchedulerIsolatingConnectionFactory(ConnectionFactory delegate, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(delegate.create())
+                .subscribeOn(scheduler)
+                .map(IsolatedConnection::new);
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    private <T> Flux<T> isolate(Publisher<T> publisher) {
+        return Flux.from(publisher).subscribeOn(scheduler);
+    }
+
+    private <T> Mono<T> isolateMono(Publisher<T> publisher) {
+        return Mono.from(publisher).subscribeOn(scheduler);
+    }
+
+    private final class IsolatedConnection implements Connection, Wrapped<Connection> {
+
+        private final Connection connection;
+
+        private IsolatedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return isolateMono(connection.beginTransaction());
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+            return isolateMono(connection.beginTransaction(definition));
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return isolateMono(connection.close());
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return isolateMono(connection.commitTransaction());
+        }
+
+        @Override
+        public Batch createBatch() {
+            Batch batch = connection.createBatch();
+            return new Batch() {
+                @Override
+                public Batch add(String sql) {
+                    batch.add(sql);
+                    return this;
+                }
+
+                @Override
+                public Publisher<? extends Result> execute() {
+                    return isolate(batch.execute());
+                }
+            };
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return isolateMono(connection.createSavepoint(name));
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new IsolatedStatement(connection.createStatement(sql));
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return connection.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return connection.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return connection.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return isolateMono(connection.releaseSavepoint(name));
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return isolateMono(connection.rollbackTransaction());
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return isolateMono(connection.rollbackTransactionToSavepoint(name));
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return isolateMono(connection.setAutoCommit(autoCommit));
+        }
+
+        @Override
+        public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+            return isolateMono(connection.setLockWaitTimeout(timeout));
+        }
+
+        @Override
+        public Publisher<Void> setStatementTimeout(Duration timeout) {
+            return isolateMono(connection.setStatementTimeout(timeout));
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return isolateMono(connection.setTransactionIsolationLevel(isolationLevel));
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return isolateMono(connection.validate(depth));
+        }
+
+        @Override
+        public Connection unwrap() {
+            return connection;
+        }
+    }
+
+    private final class IsolatedStatement implements Statement {
+
+        private final Statement statement;
+
+        private IsolatedStatement(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Statement add() {
+            statement.add();
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            statement.bind(index, value);
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            statement.bind(name, value);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            statement.bindNull(index, type);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            statement.bindNull(name, type);
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return isolate(statement.execute());
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            statement.returnGeneratedValues(columns);
+            return this;
+        }
+
+        @Override
+        public Statement fetchSize(int rows) {
+            statement.fetchSize(rows);
+            return this;
+        }
+    }
+}
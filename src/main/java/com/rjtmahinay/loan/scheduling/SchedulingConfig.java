@@ -0,0 +1,62 @@
+package com.rjtmahinay.loan.scheduling;
+
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Keeps blocking work off the HTTP event loops: database calls run on a dedicated bounded elastic scheduler,
+ * and the server's event loops can be sized apart from Reactor Netty's shared defaults.
+ */
+@Slf4j
+@Configuration
+public class SchedulingConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler dbScheduler(SchedulingProperties properties) {
+        SchedulingProperties.Db db = properties.getDb();
+        return Schedulers.newBoundedElastic(db.getThreadCap(), db.getQueuedTaskCap(), "loan-db",
+                (int) db.getTtl().toSeconds(), true);
+    }
+
+    /**
+     * Wraps the application's connection factory, whichever configuration defined it, once it is created.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "loan.scheduling", name = "isolate-database", havingValue = "true", matchIfMissing = true)
+    static BeanPostProcessor databaseIsolationPostProcessor(@Qualifier("dbScheduler") ObjectProvider<Scheduler> dbScheduler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory connectionFactory && "connectionFactory".equals(beanName)) {
+                    log.info("Running database calls on the loan-db scheduler");
+                    return new SchedulerIsolatingConnectionFactory(connectionFactory, dbScheduler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = "loan.scheduling.http", name = "event-loop-threads")
+    public LoopResources httpLoopResources(SchedulingProperties properties) {
+        SchedulingProperties.Http http = properties.getHttp();
+        log.info("HTTP server running on {} event loops", http.getEventLoopThreads());
+        return LoopResources.create("loan-http", http.getSelectThreads(), http.getEventLoopThreads(), true);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loan.scheduling.http", name = "event-loop-threads")
+    public NettyServerCustomizer httpEventLoopCustomizer(@Qualifier("httpLoopResources") LoopResources loops) {
+        return server -> server.runOn(loops);
+    }
+}
@@ -0,0 +1,57 @@
+package com.rjtmahinay.loan.scheduling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "loan.scheduling")
+public class SchedulingProperties {
+
+    /**
+     * Run R2DBC driver calls on the {@code db} scheduler instead of the thread that subscribes, usually a Netty
+     * event loop. The H2 driver does its work synchronously, so without this a slow query stalls every
+     * connection served by that event loop.
+     */
+    private boolean isolateDatabase = true;
+
+    /**
+     * How often each HTTP event loop is probed for lag.
+     */
+    private Duration lagProbeInterval = Duration.ofSeconds(1);
+
+    private Db db = new Db();
+
+    private Http http = new Http();
+
+    /**
+     * Bounded elastic pool for database work.
+     */
+    @Data
+    public static class Db {
+
+        private int threadCap = 10 * Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Tasks queued per thread once every thread is busy; further tasks are rejected.
+         */
+        private int queuedTaskCap = 100_000;
+
+        /**
+         * Idle threads above zero are released after this long.
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+
+    /**
+     * Event loops of the HTTP server. Unset, the server shares Reactor Netty's global loops, one per core.
+     */
+    @Data
+    public static class Http {
+
+        private Integer eventLoopThreads;
+
+        private int selectThreads = 1;
+    }
+}
@@ -0,0 +1,242 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.AccrualProperties;
+import com.rjtmahinay.loan.model.AccrualRun;
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.repository.AccrualRunRepository;
+import com.rjtmahinay.loan.repository.LoanLedgerRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly accrual and aging of the disbursed book. Each shard's accounts are read in application id order, one
+ * keyset page per chunk; chunks are computed concurrently on the parallel scheduler and written with one batched
+ * UPDATE each. Progress is checkpointed per business date after every chunk in order, so an interrupted run
+ * resumes after the last checkpointed chunk.
+ * <p>
+ * Accrual is idempotent for a business date: interest only accrues from an account's {@code interestThrough}, so
+ * re-processing an account already accrued that day changes nothing.
+ */
+@Slf4j
+@Service
+public class AccrualBatch {
+
+    private static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final LoanLedgerRepository ledgerRepository;
+    private final AccrualRunRepository runRepository;
+    private final AccrualProperties properties;
+    private final ShardRouter shardRouter;
+    private final Timer runDuration;
+    private final Timer chunkLatency;
+    private final DistributionSummary chunkThroughput;
+    private final Counter accruedAccounts;
+    private final Counter skippedAccounts;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AccrualBatch(LoanLedgerRepository ledgerRepository,
+                        AccrualRunRepository runRepository,
+                        AccrualProperties properties,
+                        ShardRouter shardRouter,
+                        MeterRegistry meterRegistry) {
+        this.ledgerRepository = ledgerRepository;
+        this.runRepository = runRepository;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.runDuration = Timer.builder("loan.accrual.run.duration")
+                .description("Time taken by one accrual run across all shards")
+                .register(meterRegistry);
+        this.chunkLatency = Timer.builder("loan.accrual.chunk.latency")
+                .description("Time to compute and write one chunk of accounts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.chunkThroughput = DistributionSummary.builder("loan.accrual.chunk.throughput")
+                .description("Accounts processed per second, per chunk")
+                .baseUnit("accounts/s")
+                .register(meterRegistry);
+        this.accruedAccounts = Counter.builder("loan.accrual.accounts")
+                .description("Accounts accrued and aged")
+                .register(meterRegistry);
+        this.skippedAccounts = Counter.builder("loan.accrual.skipped")
+                .description("Accounts left for the next run after repeated concurrent changes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${loan.accrual.cron:0 30 0 * * *}")
+    public void scheduledRun() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        run(LocalDate.now())
+                .doOnError(error -> {
+                    if (error instanceof IllegalStateException) {
+                        log.warn("Previous accrual run still running, skipping");
+                    } else {
+                        log.error("Error during accrual run: {}", error.getMessage());
+                    }
+                })
+                .onErrorResume(error -> Mono.empty())
+                .subscribe();
+    }
+
+    /**
+     * Accrues interest and ages every disbursed loan through {@code businessDate}, resuming a run for that date
+     * that did not finish. One run goes at a time, whether scheduled or requested.
+     *
+     * @return each shard's run; fails with {@link IllegalStateException} while another run is in progress
+     */
+    public Mono<List<AccrualRun>> run(LocalDate businessDate) {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("An accrual run is already in progress"));
+            }
+            long start = System.nanoTime();
+            log.info("Starting accrual run for {}", businessDate);
+            return shardRouter.onAllShards(shard -> runShard(shard, businessDate).flux())
+                    .collectList()
+                    .doOnSuccess(runs -> {
+                        runDuration.record(Duration.ofNanos(System.nanoTime() - start));
+                        log.info("Accrual run for {} finished: {} accounts in {} ms", businessDate,
+                                runs.stream().mapToLong(AccrualRun::getAccountsProcessed).sum(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    })
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    public Flux<AccrualRun> getRuns(LocalDate businessDate) {
+        return shardRouter.onAllShards(shard -> runRepository.findByBusinessDate(businessDate).flux());
+    }
+
+    private Mono<AccrualRun> runShard(int shard, LocalDate businessDate) {
+        LocalDateTime now = LocalDateTime.now();
+        return shardRouter.onShard(shard, runRepository.findByBusinessDate(businessDate))
+                .defaultIfEmpty(new AccrualRun(businessDate, 0L, 0L, false, now, now))
+                .flatMap(run -> {
+                    if (run.getCompleted()) {
+                        log.info("Accrual for {} already completed on shard {}", businessDate, shard);
+                        return Mono.just(run);
+                    }
+                    if (run.getLastApplicationId() > 0) {
+                        log.info("Resuming accrual for {} on shard {} after application {}",
+                                businessDate, shard, run.getLastApplicationId());
+                    }
+                    return accrueFrom(shard, run);
+                });
+    }
+
+    private Mono<AccrualRun> accrueFrom(int shard, AccrualRun run) {
+        int chunkSize = properties.getChunkSize();
+        LocalDate businessDate = run.getBusinessDate();
+
+        // Reading is sequential, each page starting after the previous one; computing and writing overlap
+        // across chunks, and flatMapSequential hands chunks to the checkpoint in read order
+        return readChunk(shard, run.getLastApplicationId(), chunkSize)
+                .expand(chunk -> chunk.size() < chunkSize
+                        ? Mono.empty()
+                        : readChunk(shard, chunk.get(chunk.size() - 1).getApplicationId(), chunkSize))
+                .filter(chunk -> !chunk.isEmpty())
+                .flatMapSequential(chunk -> accrueChunk(shard, chunk, businessDate), properties.getParallelism())
+                .concatMap(done -> {
+                    run.setLastApplicationId(done.lastApplicationId());
+                    run.setAccountsProcessed(run.getAccountsProcessed() + done.accounts());
+                    run.setUpdatedAt(LocalDateTime.now());
+                    return shardRouter.onShard(shard, runRepository.save(run));
+                })
+                .then(Mono.defer(() -> {
+                    run.setCompleted(true);
+                    run.setUpdatedAt(LocalDateTime.now());
+                    return shardRouter.onShard(shard, runRepository.save(run)).thenReturn(run);
+                }));
+    }
+
+    private Mono<List<LoanAccount>> readChunk(int shard, long afterApplicationId, int chunkSize) {
+        return shardRouter.onShard(shard, ledgerRepository.findDisbursedAccounts(afterApplicationId, chunkSize).collectList());
+    }
+
+    private Mono<ChunkResult> accrueChunk(int shard, List<LoanAccount> chunk, LocalDate businessDate) {
+        long start = System.nanoTime();
+        Long lastApplicationId = chunk.get(chunk.size() - 1).getApplicationId();
+        return Mono.fromCallable(() -> accrue(chunk, businessDate))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(changed -> write(shard, changed, businessDate, 0))
+                .map(skipped -> new ChunkResult(lastApplicationId, chunk.size(), skipped))
+                .doOnSuccess(result -> {
+                    long elapsed = System.nanoTime() - start;
+                    double perSecond = result.accounts() * 1e9 / Math.max(elapsed, 1);
+                    chunkLatency.record(elapsed, TimeUnit.NANOSECONDS);
+                    chunkThroughput.record(perSecond);
+                    accruedAccounts.increment(result.accounts() - result.skipped());
+                    skippedAccounts.increment(result.skipped());
+                    log.debug("Accrued {} accounts up to application {} on shard {} in {} ms ({} accounts/s)",
+                            result.accounts(), lastApplicationId, shard,
+                            TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(perSecond));
+                });
+    }
+
+    /**
+     * Writes the accounts; those changed by a payment since they were read are re-read and re-accrued.
+     *
+     * @return the number of accounts still not written after the retries
+     */
+    private Mono<Integer> write(int shard, List<LoanAccount> accounts, LocalDate businessDate, int attempt) {
+        return shardRouter.onShard(shard, ledgerRepository.accrue(accounts).collectList())
+                .flatMap(conflicts -> {
+                    if (conflicts.isEmpty() || attempt == MAX_CONFLICT_RETRIES) {
+                        return Mono.just(conflicts.size());
+                    }
+                    return shardRouter.onShard(shard, ledgerRepository.findAccounts(conflicts).collectList())
+                            .map(reloaded -> accrue(reloaded, businessDate))
+                            .flatMap(reaccrued -> write(shard, reaccrued, businessDate, attempt + 1));
+                });
+    }
+
+    /**
+     * Accrues interest through {@code businessDate} and ages the accounts in place.
+     *
+     * @return the accounts that changed
+     */
+    static List<LoanAccount> accrue(List<LoanAccount> accounts, LocalDate businessDate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<LoanAccount> changed = new ArrayList<>(accounts.size());
+        for (LoanAccount account : accounts) {
+            boolean accrued = false;
+            if (account.getBalance().signum() > 0 && businessDate.isAfter(account.getInterestThrough())) {
+                BigDecimal interest = Amortization.interest(account.getBalance(), account.getInterestRate(),
+                        ChronoUnit.DAYS.between(account.getInterestThrough(), businessDate));
+                account.setAccruedInterest(account.getAccruedInterest().add(interest));
+                account.setInterestThrough(businessDate);
+                accrued = true;
+            }
+            int daysPastDue = account.getDaysPastDue();
+            RepaymentService.age(account, businessDate);
+            if (accrued || account.getDaysPastDue() != daysPastDue) {
+                account.setUpdatedAt(now);
+                changed.add(account);
+            }
+        }
+        return changed;
+    }
+
+    private record ChunkResult(Long lastApplicationId, int accounts, int skipped) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-customer count of active (SUBMITTED or UNDER_REVIEW) applications, loaded from the database on first use
+ * and maintained in memory afterwards. Submissions reserve a slot with a compare-and-set, so concurrent
+ * submissions for one customer cannot together exceed the limit.
+ * <p>
+ * Counts are per node: applications created or closed through another instance are only picked up once the
+ * customer's counter is evicted and reloaded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActiveApplicationCounter {
+
+    public static final int MAX_ACTIVE_APPLICATIONS = 3;
+
+    private static final int STRIPES = 256;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final ShardRouter shardRouter;
+
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    // Bumped on every release or eviction; a load that overlaps a bump may have counted a row that has since
+    // changed, so it is discarded and retried instead of being installed
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    /**
+     * Takes one of the customer's active-application slots.
+     *
+     * @return false when the customer already has {@link #MAX_ACTIVE_APPLICATIONS} active applications
+     */
+    public Mono<Boolean> tryReserve(Long customerId) {
+        return counter(customerId).map(count -> {
+            int current;
+            do {
+                current = count.get();
+                if (current >= MAX_ACTIVE_APPLICATIONS) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            return true;
+        });
+    }
+
+    /**
+     * Gives back a slot, after a failed submission or when an active application reaches another status.
+     */
+    public void release(Long customerId) {
+        counters.computeIfPresent(customerId, (id, count) -> {
+            count.updateAndGet(current -> Math.max(0, current - 1));
+            return count;
+        });
+        versions.incrementAndGet(stripe(customerId));
+    }
+
+    /**
+     * Drops the customer's counter so the next submission reloads it from the database.
+     */
+    public void evict(Long customerId) {
+        counters.remove(customerId);
+        versions.incrementAndGet(stripe(customerId));
+    }
+
+    /**
+     * Drops every counter, for bulk changes that do not report which customers they touched.
+     */
+    public void evictAll() {
+        counters.clear();
+        for (int i = 0; i < STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+    }
+
+    private Mono<AtomicInteger> counter(Long customerId) {
+        AtomicInteger count = counters.get(customerId);
+        if (count != null) {
+            return Mono.just(count);
+        }
+        return Mono.defer(() -> {
+                    long version = versions.get(stripe(customerId));
+                    return shardRouter.byId(customerId, loanApplicationRepository.countActiveApplicationsByCustomerId(customerId))
+                            .filter(active -> versions.get(stripe(customerId)) == version)
+                            .map(active -> counters.computeIfAbsent(customerId, id -> new AtomicInteger(active.intValue())));
+                })
+                .repeatWhenEmpty(MAX_LOAD_ATTEMPTS, attempts -> attempts)
+                .doOnNext(loaded -> log.debug("Loaded active application count {} for customer {}", loaded.get(), customerId));
+    }
+
+    private static int stripe(Long customerId) {
+        return (int) (customerId & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,49 @@
+package com.rjtmahinay.loan.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-rate amortization math shared by pricing and loan servicing. Amounts are rounded to cents.
+ */
+public final class Amortization {
+
+    private static final BigDecimal MONTHS_PER_YEAR = new BigDecimal("12");
+    // Interest accrues actual/360: a 30-day month accrues exactly one month of interest
+    private static final BigDecimal DAYS_PER_YEAR = new BigDecimal("360");
+
+    private Amortization() {
+    }
+
+    public static BigDecimal monthlyRate(BigDecimal annualRate) {
+        return annualRate.divide(MONTHS_PER_YEAR, 8, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Level monthly payment: M = P * [r(1 + r)^n] / [(1 + r)^n - 1]
+     */
+    public static BigDecimal monthlyPayment(BigDecimal principal, BigDecimal annualRate, int numberOfPayments) {
+        BigDecimal monthlyRate = monthlyRate(annualRate);
+        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
+            // No interest loan
+            return principal.divide(new BigDecimal(numberOfPayments), 2, RoundingMode.HALF_UP);
+        }
+        BigDecimal onePlusR = BigDecimal.ONE.add(monthlyRate);
+        BigDecimal onePlusRToN = onePlusR.pow(numberOfPayments);
+        BigDecimal numerator = principal.multiply(monthlyRate).multiply(onePlusRToN);
+        BigDecimal denominator = onePlusRToN.subtract(BigDecimal.ONE);
+        return numerator.divide(denominator, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Interest on {@code balance} over {@code days}; zero for days that are not positive.
+     */
+    public static BigDecimal interest(BigDecimal balance, BigDecimal annualRate, long days) {
+        if (days <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return balance.multiply(annualRate)
+                .multiply(BigDecimal.valueOf(days))
+                .divide(DAYS_PER_YEAR, 2, RoundingMode.HALF_UP);
+    }
+}
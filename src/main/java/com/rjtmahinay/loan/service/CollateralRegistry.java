@@ -0,0 +1,116 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.model.CollateralConflict;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplicationSummary;
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guards against one vehicle being pledged on several open (submitted, under review, approved or disbursed)
+ * applications. Every VIN that has appeared on an application is kept in memory, so a submission with a VIN
+ * never seen before, the common case, is accepted without a database probe; only repeat VINs are checked
+ * against the VIN index.
+ * <p>
+ * The set is per node: a VIN first submitted through another instance is not probed here, and two concurrent
+ * first submissions of the same VIN can both pass. {@code GET /collateral-conflicts} lists what slips through.
+ */
+@Slf4j
+@Service
+public class CollateralRegistry {
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final ShardRouter shardRouter;
+    private final Set<String> knownVins = ConcurrentHashMap.newKeySet();
+    private final Counter skippedProbes;
+    private final Counter probes;
+    private final Counter conflicts;
+    private volatile boolean loaded;
+
+    public CollateralRegistry(LoanApplicationRepository loanApplicationRepository, ShardRouter shardRouter,
+                              MeterRegistry meterRegistry) {
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.shardRouter = shardRouter;
+        this.skippedProbes = vinChecks(meterRegistry, "new");
+        this.probes = vinChecks(meterRegistry, "probed");
+        this.conflicts = vinChecks(meterRegistry, "conflict");
+    }
+
+    private static Counter vinChecks(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("loan.collateral.vin-checks")
+                .description("VIN checks at submission by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads every VIN seen so far; run by the startup warm-up before the node reports ready.
+     */
+    public Mono<Long> loadKnownVins() {
+        return shardRouter.onAllShards(shard -> loanApplicationRepository.findAllVins())
+                .map(CollateralRegistry::normalize)
+                .doOnNext(knownVins::add)
+                .count()
+                .doOnSuccess(count -> {
+                    loaded = true;
+                    log.info("Loaded {} known vehicle VINs", count);
+                })
+                .doOnError(error -> log.error("Error loading known vehicle VINs, every VIN will be probed: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    /**
+     * Fails when the application's vehicle is already pledged on an open application. Normalizes the VIN
+     * on the application; applications without a VIN pass unchecked.
+     */
+    public Mono<LoanApplication> checkCollateral(LoanApplication application) {
+        if (application.getVin() == null || application.getVin().isBlank()) {
+            return Mono.just(application);
+        }
+        String vin = normalize(application.getVin());
+        application.setVin(vin);
+
+        if (knownVins.add(vin) && loaded) {
+            skippedProbes.increment();
+            return Mono.just(application);
+        }
+        probes.increment();
+        // A vehicle may be pledged on applications of customers on any shard
+        return shardRouter.onAllShards(shard -> loanApplicationRepository.countPledgedByVin(vin).flux())
+                .reduce(0L, Long::sum)
+                .flatMap(pledged -> {
+                    if (pledged > 0) {
+                        conflicts.increment();
+                        return Mono.error(new RuntimeException("Vehicle " + vin + " is already pledged on an open loan application"));
+                    }
+                    return Mono.just(application);
+                });
+    }
+
+    /**
+     * Vehicles pledged more than once. With sharding, only pledges on the same shard are paired up here;
+     * submissions are still checked against every shard.
+     */
+    public Flux<CollateralConflict> getCollateralConflicts() {
+        return shardRouter.onAllShardsOrdered(shard -> loanApplicationRepository.findCollateralConflicts(),
+                        Comparator.comparing(LoanApplication::getVin))
+                .bufferUntilChanged(LoanApplication::getVin)
+                .map(applications -> new CollateralConflict(applications.get(0).getVin(),
+                        applications.stream().map(LoanApplicationSummary::from).toList()));
+    }
+
+    private static String normalize(String vin) {
+        return vin.trim().toUpperCase(Locale.ROOT);
+    }
+}
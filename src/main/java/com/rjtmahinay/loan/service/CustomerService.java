@@ -1,7 +1,15 @@
 package com.rjtmahinay.loan.service;
 
+import com.rjtmahinay.loan.cache.LoanApplicationCache;
+import com.rjtmahinay.loan.encryption.CustomerSsnProtector;
 import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.CustomerOverview;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
 import com.rjtmahinay.loan.repository.CustomerRepository;
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.routing.ReadRouting;
+import com.rjtmahinay.loan.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,12 +24,20 @@ import java.time.LocalDateTime;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final ActiveApplicationCounter activeApplicationCounter;
+    private final ExposureRollup exposureRollup;
+    private final ShardRouter shardRouter;
+    private final CustomerSsnProtector ssnProtector;
+    private final LoanApplicationCache applicationCache;
 
     public Mono<Customer> createCustomer(Customer customer) {
         log.info("Creating new customer with email: {}", customer.getEmail());
 
-        // Check if customer with email already exists
-        return customerRepository.existsByEmail(customer.getEmail())
+        // Check if customer with email already exists; customers created before sharding may sit on any shard
+        Mono<Boolean> emailTaken = shardRouter.onAllShards(shard -> customerRepository.existsByEmail(customer.getEmail()).flux())
+                .any(Boolean::booleanValue);
+        return emailTaken
                 .flatMap(exists -> {
                     if (exists) {
                         return Mono.error(
@@ -29,7 +45,7 @@ public class CustomerService {
                     }
                     customer.setCreatedAt(LocalDateTime.now());
                     customer.setUpdatedAt(LocalDateTime.now());
-                    return customerRepository.save(customer);
+                    return shardRouter.onShard(shardRouter.shardForEmail(customer.getEmail()), customerRepository.save(customer));
                 })
                 .doOnSuccess(savedCustomer -> log.info("Customer created with ID: {}", savedCustomer.getId()))
                 .doOnError(error -> log.error("Error creating customer: {}", error.getMessage()));
@@ -37,7 +53,7 @@ public class CustomerService {
 
     public Mono<Customer> getCustomerById(Long id) {
         log.info("Fetching customer with ID: {}", id);
-        return customerRepository.findById(id)
+        return shardRouter.byId(id, customerRepository.findById(id))
                 .doOnSuccess(customer -> {
                     if (customer != null) {
                         log.info("Found customer: {}", customer.getEmail());
@@ -47,9 +63,17 @@ public class CustomerService {
                 });
     }
 
+    /**
+     * Last update time of the customer, read without loading the row. Empty when the customer does not exist.
+     */
+    public Mono<LocalDateTime> getCustomerVersion(Long id) {
+        return shardRouter.byId(id, customerRepository.findUpdatedAtById(id));
+    }
+
     public Mono<Customer> getCustomerByEmail(String email) {
         log.info("Fetching customer with email: {}", email);
-        return customerRepository.findByEmail(email)
+        return shardRouter.onAllShards(shard -> customerRepository.findByEmail(email).flux())
+                .next()
                 .doOnSuccess(customer -> {
                     if (customer != null) {
                         log.info("Found customer with ID: {}", customer.getId());
@@ -59,22 +83,50 @@ public class CustomerService {
                 });
     }
 
+    /**
+     * Finds a customer by SSN through its blind index; the SSN itself is never compared in SQL.
+     */
+    public Mono<Customer> getCustomerBySsn(String ssn) {
+        log.info("Fetching customer by SSN");
+        String ssnIndex = ssnProtector.ssnIndex(ssn);
+        return shardRouter.onAllShards(shard -> customerRepository.findBySsnIndex(ssnIndex).flux())
+                .next()
+                .doOnSuccess(customer -> {
+                    if (customer != null) {
+                        log.info("Found customer with ID: {}", customer.getId());
+                    } else {
+                        log.warn("Customer not found by SSN");
+                    }
+                });
+    }
+
+    public Mono<CustomerOverview> getCustomerOverview(Long id) {
+        log.info("Fetching overview for customer ID: {}", id);
+        // Both queries are independent, so run them concurrently rather than one after the other
+        return shardRouter.byId(id, Mono.zip(customerRepository.findById(id),
+                        loanApplicationRepository.findByCustomerId(id).collectList()))
+                .map(tuple -> CustomerOverview.of(tuple.getT1(), tuple.getT2()))
+                .doOnSuccess(overview -> {
+                    if (overview == null) {
+                        log.warn("Customer not found with ID: {}", id);
+                    }
+                });
+    }
+
     public Flux<Customer> getAllCustomers() {
         log.info("Fetching all customers");
-        return customerRepository.findAll()
-                .doOnNext(customer -> log.debug("Found customer: {}", customer.getEmail()));
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> customerRepository.findAll()));
     }
 
     public Flux<Customer> searchCustomersByName(String name) {
         log.info("Searching customers by name: {}", name);
-        return customerRepository.findByNameContaining(name)
-                .doOnNext(customer -> log.debug("Found customer: {}", customer.getName()));
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> customerRepository.findByNameContaining(name)));
     }
 
     public Mono<Customer> updateCustomer(Long id, Customer customerUpdate) {
         log.info("Updating customer with ID: {}", id);
 
-        return customerRepository.findById(id)
+        return shardRouter.byId(id, customerRepository.findById(id))
                 .switchIfEmpty(Mono.error(new RuntimeException("Customer not found with ID: " + id)))
                 .flatMap(existingCustomer -> {
                     // Update fields
@@ -98,7 +150,7 @@ public class CustomerService {
                     }
 
                     existingCustomer.setUpdatedAt(LocalDateTime.now());
-                    return customerRepository.save(existingCustomer);
+                    return shardRouter.byId(id, customerRepository.save(existingCustomer));
                 })
                 .doOnSuccess(updatedCustomer -> log.info("Customer updated: {}", updatedCustomer.getId()))
                 .doOnError(error -> log.error("Error updating customer: {}", error.getMessage()));
@@ -107,9 +159,20 @@ public class CustomerService {
     public Mono<Void> deleteCustomer(Long id) {
         log.info("Deleting customer with ID: {}", id);
 
-        return customerRepository.findById(id)
+        return shardRouter.byId(id, customerRepository.findById(id))
                 .switchIfEmpty(Mono.error(new RuntimeException("Customer not found with ID: " + id)))
-                .flatMap(customer -> customerRepository.delete(customer))
+                // Applications are removed by the cascading delete, so read them first to take them out of the rollups
+                .flatMap(customer -> shardRouter.byId(id, loanApplicationRepository.findByCustomerId(id).collectList())
+                        .flatMap(applications -> shardRouter.byId(id, customerRepository.delete(customer))
+                                .doOnSuccess(unused -> {
+                                    activeApplicationCounter.evict(id);
+                                    applications.stream()
+                                            .filter(app -> app.getStatus() == ApplicationStatus.APPROVED
+                                                    || app.getStatus() == ApplicationStatus.DISBURSED)
+                                            .forEach(exposureRollup::remove);
+                                })
+                                .then(applicationCache.evictCustomer(id,
+                                        applications.stream().map(LoanApplication::getId).toList()))))
                 .doOnSuccess(unused -> log.info("Customer deleted with ID: {}", id))
                 .doOnError(error -> log.error("Error deleting customer: {}", error.getMessage()));
     }
@@ -0,0 +1,88 @@
+package com.rjtmahinay.loan.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring for many producers and a single consumer. Each slot carries a sequence number that
+ * tells producers whether it is free and the consumer whether it is filled, so neither side takes a lock and
+ * producers never wait: {@link #offer} fails instead when the ring is full.
+ */
+final class EventRing<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer advances head; volatile because the consumer may run on a different thread each time
+    private volatile long head;
+
+    EventRing(int capacity) {
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(2, capacity) - 1));
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false when the ring is full
+     */
+    boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes up to {@code max} items in offer order. Must only be called by one thread at a time.
+     */
+    List<T> drain(int max) {
+        List<T> items = new ArrayList<>(Math.min(max, size()));
+        long position = head;
+        while (items.size() < max) {
+            int index = (int) (position & mask);
+            // A claimed slot whose item is still being written ends the drain; it is picked up next time
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            items.add(slots.get(index));
+            slots.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+        }
+        head = position;
+        return items;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
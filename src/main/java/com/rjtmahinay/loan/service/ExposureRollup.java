@@ -0,0 +1,198 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.RegionExposure;
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.repository.LoanLedgerRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Outstanding loan exposure by zip code region and loan type, kept in memory and updated as loans are approved,
+ * paid off or removed. A loan counts at its approved amount from approval until it is repaid in full; partial
+ * repayments do not reduce it. Loaded once from the database at startup; after that no query touches
+ * {@code loan_applications}.
+ * <p>
+ * Exposure is kept per node: loans approved through another instance are picked up on the next restart.
+ */
+@Slf4j
+@Service
+public class ExposureRollup {
+
+    static final String UNKNOWN_REGION = "UNKNOWN";
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final LoanLedgerRepository ledgerRepository;
+    private final ShardRouter shardRouter;
+
+    private final Map<Level, Map<String, Map<LoanType, Cell>>> regions = new EnumMap<>(Level.class);
+
+    public ExposureRollup(LoanApplicationRepository loanApplicationRepository,
+                          LoanLedgerRepository ledgerRepository,
+                          ShardRouter shardRouter) {
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.shardRouter = shardRouter;
+        for (Level level : Level.values()) {
+            regions.put(level, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Loads every outstanding loan; run by the startup warm-up before the node reports ready.
+     */
+    public Mono<Long> load() {
+        return shardRouter.onAllShards(shard -> ledgerRepository.findPaidOffApplicationIds()
+                        .collect(Collectors.toSet())
+                        .flatMapMany(paidOff -> Flux.concat(loanApplicationRepository.findByStatus(ApplicationStatus.APPROVED),
+                                loanApplicationRepository.findByStatus(ApplicationStatus.DISBURSED)
+                                        .filter(application -> !paidOff.contains(application.getId())))))
+                .doOnNext(this::add)
+                .count()
+                .doOnSuccess(count -> log.info("Loaded exposure of {} outstanding loans", count))
+                .doOnError(error -> log.error("Error loading loan exposure: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    /**
+     * Records a newly approved loan.
+     */
+    public void add(LoanApplication application) {
+        apply(application, 1);
+    }
+
+    /**
+     * Removes an outstanding loan, e.g. when it is paid off or its customer is deleted.
+     */
+    public void remove(LoanApplication application) {
+        apply(application, -1);
+    }
+
+    private void apply(LoanApplication application, int sign) {
+        if (application.getLoanAmount() == null || application.getLoanType() == null) {
+            return;
+        }
+        long cents = application.getLoanAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        for (Level level : Level.values()) {
+            regions.get(level)
+                    .computeIfAbsent(level.region(application.getZipCode()), region -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(application.getLoanType(), type -> new Cell())
+                    .add(sign * cents, sign);
+        }
+    }
+
+    /**
+     * Exposure of every region at {@code level}, largest first, optionally limited to one loan type.
+     */
+    public List<RegionExposure> getExposure(Level level, LoanType loanType) {
+        List<RegionExposure> exposures = new ArrayList<>();
+        regions.get(level).forEach((region, byType) -> {
+            RegionExposure exposure = exposure(region, byType, loanType);
+            if (exposure.getLoanCount() > 0) {
+                exposures.add(exposure);
+            }
+        });
+        exposures.sort(Comparator.comparing(RegionExposure::getTotalExposure).reversed());
+        return exposures;
+    }
+
+    /**
+     * Exposure of one region by loan type; the prefix length (3 or 5 digits) selects the level.
+     */
+    public List<RegionExposure> getRegionExposure(String region) {
+        Level level = region.length() == Level.ZIP3.digits ? Level.ZIP3 : Level.ZIP5;
+        Map<LoanType, Cell> byType = regions.get(level).getOrDefault(region, Map.of());
+        List<RegionExposure> exposures = new ArrayList<>();
+        byType.forEach((type, cell) -> exposures.add(exposure(region, Map.of(type, cell), type)));
+        exposures.sort(Comparator.comparing(RegionExposure::getTotalExposure).reversed());
+        return exposures;
+    }
+
+    /**
+     * The {@code k} regions at {@code level} with the largest exposure, largest first.
+     */
+    public List<RegionExposure> getTopRegions(Level level, LoanType loanType, int k) {
+        // Min-heap of the k largest seen so far: O(n log k) instead of sorting every region
+        PriorityQueue<RegionExposure> top = new PriorityQueue<>(k + 1, Comparator.comparing(RegionExposure::getTotalExposure));
+        regions.get(level).forEach((region, byType) -> {
+            RegionExposure exposure = exposure(region, byType, loanType);
+            if (exposure.getLoanCount() == 0) {
+                return;
+            }
+            top.offer(exposure);
+            if (top.size() > k) {
+                top.poll();
+            }
+        });
+        List<RegionExposure> result = new ArrayList<>(top);
+        result.sort(Comparator.comparing(RegionExposure::getTotalExposure).reversed());
+        return result;
+    }
+
+    private static RegionExposure exposure(String region, Map<LoanType, Cell> byType, LoanType loanType) {
+        long cents = 0;
+        long count = 0;
+        for (Map.Entry<LoanType, Cell> entry : byType.entrySet()) {
+            if (loanType == null || entry.getKey() == loanType) {
+                cents += entry.getValue().cents.sum();
+                count += entry.getValue().count.sum();
+            }
+        }
+        return new RegionExposure(region, loanType, BigDecimal.valueOf(cents, 2), count);
+    }
+
+    public enum Level {
+        ZIP3(3),
+        ZIP5(5);
+
+        private final int digits;
+
+        Level(int digits) {
+            this.digits = digits;
+        }
+
+        String region(String zipCode) {
+            if (zipCode == null) {
+                return UNKNOWN_REGION;
+            }
+            String zip = zipCode.trim();
+            if (zip.length() < digits) {
+                return UNKNOWN_REGION;
+            }
+            for (int i = 0; i < digits; i++) {
+                if (!Character.isDigit(zip.charAt(i))) {
+                    return UNKNOWN_REGION;
+                }
+            }
+            return zip.substring(0, digits);
+        }
+    }
+
+    private static final class Cell {
+
+        private final LongAdder cents = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private void add(long deltaCents, int deltaCount) {
+            cents.add(deltaCents);
+            count.add(deltaCount);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.EventLogProperties;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplicationEvent;
+import com.rjtmahinay.loan.repository.LoanApplicationEventRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every loan application status transition in the append-only event store. Transitions are buffered
+ * in a lock-free ring and written in batched INSERTs by a background flush, so recording one costs the request
+ * a single CAS. Events reach the store within one flush interval; at most the buffer capacity can be lost if
+ * the process dies without shutting down, and none on a clean shutdown while the database is reachable.
+ */
+@Slf4j
+@Service
+public class LoanApplicationEventLog {
+
+    /**
+     * Reactor context key holding the actor of the current request.
+     */
+    public static final String ACTOR = "loan.actor";
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final LoanApplicationEventRepository eventRepository;
+    private final EventLogProperties properties;
+    private final ShardRouter shardRouter;
+    private final EventRing<LoanApplicationEvent> buffer;
+    // The ring has a single consumer; whoever holds this flag is it
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final Timer flushLatency;
+    private final Counter writtenEvents;
+    private final Counter inlineEvents;
+    private final Counter droppedEvents;
+
+    public LoanApplicationEventLog(LoanApplicationEventRepository eventRepository,
+                                   EventLogProperties properties,
+                                   ShardRouter shardRouter,
+                                   MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.buffer = new EventRing<>(properties.getBufferCapacity());
+        this.flushLatency = Timer.builder("loan.event-log.flush.latency")
+                .description("Time to write one batch of buffered events")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.writtenEvents = Counter.builder("loan.event-log.written")
+                .description("Events written from the buffer")
+                .register(meterRegistry);
+        this.inlineEvents = Counter.builder("loan.event-log.inline")
+                .description("Events written on the request path because the buffer was full")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("loan.event-log.dropped")
+                .description("Events lost because their batch failed and the buffer had no room to retry them")
+                .register(meterRegistry);
+        Gauge.builder("loan.event-log.buffered", buffer, EventRing::size)
+                .description("Events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a transition made by the actor in the subscriber's context.
+     *
+     * @param from the previous status, or null for a new application
+     */
+    public Mono<Void> record(LoanApplication application, ApplicationStatus from, ApplicationStatus to) {
+        return Mono.deferContextual(context -> append(List.of(new LoanApplicationEvent(application.getId(), from, to,
+                context.getOrDefault(ACTOR, ANONYMOUS), LocalDateTime.now()))));
+    }
+
+    /**
+     * Records the same transition of several applications, made by a background job.
+     */
+    public Mono<Void> recordAll(List<Long> applicationIds, ApplicationStatus from, ApplicationStatus to, String actor) {
+        LocalDateTime now = LocalDateTime.now();
+        return append(applicationIds.stream()
+                .map(id -> new LoanApplicationEvent(id, from, to, actor, now))
+                .toList());
+    }
+
+    private Mono<Void> append(List<LoanApplicationEvent> events) {
+        List<LoanApplicationEvent> overflow = events.stream().filter(event -> !buffer.offer(event)).toList();
+        if (buffer.size() >= properties.getMaxBatchSize()) {
+            flush();
+        }
+        if (overflow.isEmpty()) {
+            return Mono.empty();
+        }
+        // Buffer full: write on the request path rather than lose the transition
+        inlineEvents.increment(overflow.size());
+        return eventRepository.append(overflow).then();
+    }
+
+    /**
+     * History of one application, oldest first. Transitions made in the last flush interval may be missing.
+     */
+    public Flux<LoanApplicationEvent> getHistory(Long applicationId) {
+        return shardRouter.byId(applicationId, eventRepository.findByApplicationId(applicationId));
+    }
+
+    /**
+     * Status of the application as rebuilt from its history; empty when it has no events.
+     */
+    public Mono<ApplicationStatus> replayStatus(Long applicationId) {
+        return getHistory(applicationId)
+                .map(LoanApplicationEvent::getToStatus)
+                .takeLast(1)
+                .next();
+    }
+
+    @Scheduled(fixedDelayString = "${loan.event-log.flush-interval:100ms}")
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        drain()
+                .doFinally(signal -> flushing.set(false))
+                .subscribe();
+    }
+
+    /**
+     * Writes batches until the buffer is empty or a batch fails; a failed batch's events are put back for the
+     * next flush.
+     */
+    private Mono<Long> drain() {
+        return Mono.defer(this::writeBatch)
+                .repeat(() -> !buffer.isEmpty())
+                .takeUntil(written -> written < 0)
+                .filter(written -> written > 0)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> writeBatch() {
+        List<LoanApplicationEvent> batch = buffer.drain(properties.getMaxBatchSize());
+        if (batch.isEmpty()) {
+            return Mono.just(0L);
+        }
+        long start = System.nanoTime();
+        return eventRepository.append(batch)
+                .doOnSuccess(rows -> {
+                    flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    writtenEvents.increment(batch.size());
+                    log.debug("Wrote {} loan application events", rows);
+                })
+                .onErrorResume(error -> {
+                    log.error("Error writing {} loan application events: {}", batch.size(), error.getMessage());
+                    long dropped = batch.stream().filter(event -> !buffer.offer(event)).count();
+                    if (dropped > 0) {
+                        droppedEvents.increment(dropped);
+                        log.error("Dropped {} loan application events, buffer full", dropped);
+                    }
+                    return Mono.just(-1L);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Writing {} buffered loan application events before shutdown", buffer.size());
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        // Wait out a scheduled flush that is still running, then drain as the sole consumer
+        while (!flushing.compareAndSet(false, true)) {
+            if (System.nanoTime() > deadline) {
+                log.error("Timed out waiting for a flush; {} loan application events not written", buffer.size());
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        try {
+            drain().block(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        } catch (RuntimeException e) {
+            log.error("Error writing loan application events on shutdown: {}", e.getMessage());
+        } finally {
+            flushing.set(false);
+        }
+        if (!buffer.isEmpty()) {
+            log.error("{} loan application events were not written before shutdown", buffer.size());
+        }
+    }
+}
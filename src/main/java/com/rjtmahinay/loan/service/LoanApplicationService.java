@@ -1,10 +1,20 @@
 package com.rjtmahinay.loan.service;
 
+import com.rjtmahinay.loan.cache.LoanApplicationCache;
+import com.rjtmahinay.loan.model.Customer;
 import com.rjtmahinay.loan.model.LoanApplication;
 import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
-import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.LoanApplicationEvent;
+import com.rjtmahinay.loan.model.LoanApplicationSummary;
 import com.rjtmahinay.loan.repository.CustomerRepository;
 import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.repository.LoanApplicationUpdate;
+import com.rjtmahinay.loan.routing.ReadRouting;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import com.rjtmahinay.loan.tracing.StepTracer;
+import com.rjtmahinay.loan.velocity.VelocityEngine;
+import com.rjtmahinay.loan.velocity.VelocityEngine.Decision;
+import com.rjtmahinay.loan.velocity.VelocityEngine.Verdict;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -12,8 +22,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 
 @Slf4j
 @Service
@@ -22,39 +32,88 @@ public class LoanApplicationService {
     
     private final LoanApplicationRepository loanApplicationRepository;
     private final CustomerRepository customerRepository;
+    private final LoanApplicationWriteCoalescer writeCoalescer;
+    private final ActiveApplicationCounter activeApplicationCounter;
+    private final CollateralRegistry collateralRegistry;
+    private final ExposureRollup exposureRollup;
+    private final ShardRouter shardRouter;
+    private final LoanApplicationEventLog eventLog;
+    private final RateTableService rateTableService;
+    private final RepaymentService repaymentService;
+    private final StepTracer stepTracer;
+    private final VelocityEngine velocityEngine;
+    private final LoanApplicationCache applicationCache;
+    private final ReviewQueueService reviewQueueService;
     
     public Mono<LoanApplication> submitLoanApplication(LoanApplication application) {
         log.info("Submitting loan application for customer ID: {}", application.getCustomerId());
         
         // Validate customer exists
-        return customerRepository.findById(application.getCustomerId())
+        // Each step is traced, so a slow submission shows which one the time went to
+        Mono<LoanApplication> submission = stepTracer.trace("loan.submit.find-customer",
+                        customerRepository.findById(application.getCustomerId()))
                 .switchIfEmpty(Mono.error(new RuntimeException("Customer not found with ID: " + application.getCustomerId())))
-                .flatMap(customer -> {
-                    // Check for active applications
-                    return loanApplicationRepository.countActiveApplicationsByCustomerId(application.getCustomerId())
-                            .flatMap(activeCount -> {
-                                if (activeCount >= 3) {
-                                    return Mono.error(new RuntimeException("Customer has reached maximum number of active applications"));
-                                }
-                                
-                                // Set initial values
-                                application.setStatus(ApplicationStatus.SUBMITTED);
-                                application.setCreatedAt(LocalDateTime.now());
-                                application.setUpdatedAt(LocalDateTime.now());
-                                
-                                // Calculate interest rate and monthly payment
-                                calculateLoanTerms(application);
-                                
-                                return loanApplicationRepository.save(application);
-                            });
-                })
+                .flatMap(customer -> screen(application, customer))
+                .flatMap(screened -> stepTracer.trace("loan.submit.check-collateral",
+                        collateralRegistry.checkCollateral(application)))
+                .flatMap(checked -> stepTracer.trace("loan.submit.reserve-slot",
+                        activeApplicationCounter.tryReserve(application.getCustomerId())))
+                .flatMap(reserved -> {
+                    if (!reserved) {
+                        return Mono.error(new RuntimeException("Customer has reached maximum number of active applications"));
+                    }
+                    
+                    // Set initial values
+                    application.setStatus(ApplicationStatus.SUBMITTED);
+                    application.setCreatedAt(LocalDateTime.now());
+                    application.setUpdatedAt(LocalDateTime.now());
+                    
+                    // Calculate interest rate and monthly payment
+                    stepTracer.trace("loan.submit.price", () -> calculateLoanTerms(application));
+                    
+                    // Give the reserved slot back if the application is not saved; if the caller goes away
+                    // mid-save the outcome is unknown, so reload the count instead
+                    return stepTracer.trace("loan.submit.save", loanApplicationRepository.save(application))
+                            .doOnError(error -> activeApplicationCounter.release(application.getCustomerId()))
+                            .doOnCancel(() -> activeApplicationCounter.evict(application.getCustomerId()))
+                            // The customer's cached list no longer holds all of their applications
+                            .flatMap(saved -> applicationCache.evict(saved).thenReturn(saved))
+                            .flatMap(saved -> stepTracer.trace("loan.submit.record-event",
+                                    eventLog.record(saved, null, ApplicationStatus.SUBMITTED)).thenReturn(saved));
+                });
+        
+        // The application is stored on its customer's shard
+        return shardRouter.byId(application.getCustomerId(), submission)
                 .doOnSuccess(savedApp -> log.info("Loan application submitted with ID: {}", savedApp.getId()))
                 .doOnError(error -> log.error("Error submitting loan application: {}", error.getMessage()));
     }
     
+    /**
+     * Refuses or flags the application when too many recent submissions share its email, SSN, zip code or VIN.
+     * Not traced as a step: the check takes microseconds, less than recording a span would.
+     */
+    private Mono<LoanApplication> screen(LoanApplication application, Customer customer) {
+        Verdict verdict = velocityEngine.check(application, customer);
+        if (verdict.decision() == Decision.ALLOW) {
+            return Mono.just(application);
+        }
+        log.warn("Velocity checks {} application for customer ID {}: {}",
+                verdict.decision() == Decision.BLOCK ? "blocked" : "flagged", application.getCustomerId(), verdict.reasons());
+        if (verdict.decision() == Decision.BLOCK) {
+            return Mono.error(new RuntimeException("Application refused by velocity checks: " + verdict.reasons()));
+        }
+        application.setVelocityFlags(verdict.reasons());
+        return Mono.just(application);
+    }
+    
     public Mono<LoanApplication> getLoanApplicationById(Long id) {
         log.info("Fetching loan application with ID: {}", id);
-        return loanApplicationRepository.findById(id)
+        Mono<LoanApplication> stored = shardRouter.byId(id, loanApplicationRepository.findById(id));
+        // An update not yet written is overlaid on a fresh copy of the row, so neither is cached
+        Mono<LoanApplication> application = writeCoalescer.hasPending(id)
+                ? stored.map(writeCoalescer::applyPending)
+                : applicationCache.getById(id, stored);
+        return application
                 .doOnSuccess(app -> {
                     if (app != null) {
                         log.info("Found loan application for customer ID: {}", app.getCustomerId());
@@ -64,28 +123,49 @@ public class LoanApplicationService {
                 });
     }
     
+    /**
+     * Last update time of the application, read without loading the row. Empty when the application
+     * does not exist or has an update this node has not written yet.
+     */
+    public Mono<LocalDateTime> getLoanApplicationVersion(Long id) {
+        if (writeCoalescer.hasPending(id)) {
+            return Mono.empty();
+        }
+        LoanApplication cached = applicationCache.peek(id);
+        if (cached != null) {
+            return Mono.justOrEmpty(cached.getUpdatedAt());
+        }
+        return shardRouter.byId(id, loanApplicationRepository.findUpdatedAtById(id));
+    }
+    
     public Flux<LoanApplication> getLoanApplicationsByCustomerId(Long customerId) {
         log.info("Fetching loan applications for customer ID: {}", customerId);
-        return loanApplicationRepository.findByCustomerId(customerId)
-                .doOnNext(app -> log.debug("Found application: {}", app.getId()));
+        return applicationCache.getByCustomer(customerId,
+                shardRouter.byId(customerId, loanApplicationRepository.findByCustomerId(customerId)));
     }
     
     public Flux<LoanApplication> getLoanApplicationsByStatus(ApplicationStatus status) {
         log.info("Fetching loan applications with status: {}", status);
-        return loanApplicationRepository.findByStatus(status)
-                .doOnNext(app -> log.debug("Found application: {} for customer: {}", app.getId(), app.getCustomerId()));
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> loanApplicationRepository.findByStatus(status)));
+    }
+    
+    public Flux<LoanApplicationSummary> getLoanApplicationSummariesByStatus(ApplicationStatus status) {
+        log.info("Fetching loan application summaries with status: {}", status);
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> loanApplicationRepository.findSummariesByStatus(status)));
     }
     
     public Flux<LoanApplication> getPendingApplications() {
         log.info("Fetching pending loan applications");
-        return loanApplicationRepository.findPendingApplicationsByCreatedDate()
-                .doOnNext(app -> log.debug("Pending application: {} submitted on: {}", app.getId(), app.getCreatedAt()));
+        return ReadRouting.onReplica(shardRouter.onAllShardsOrdered(
+                        shard -> loanApplicationRepository.findPendingApplicationsByCreatedDate(),
+                        Comparator.comparing(LoanApplication::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))));
     }
     
     public Mono<LoanApplication> reviewLoanApplication(Long id) {
         log.info("Starting review for loan application ID: {}", id);
         
-        return loanApplicationRepository.findById(id)
+        return stepTracer.trace("loan.transition.load", shardRouter.byId(id, loanApplicationRepository.findById(id)))
+                .map(writeCoalescer::applyPending)
                 .switchIfEmpty(Mono.error(new RuntimeException("Loan application not found with ID: " + id)))
                 .flatMap(application -> {
                     if (application.getStatus() != ApplicationStatus.SUBMITTED) {
@@ -94,15 +174,29 @@ public class LoanApplicationService {
                     
                     application.setStatus(ApplicationStatus.UNDER_REVIEW);
                     application.setUpdatedAt(LocalDateTime.now());
-                    return loanApplicationRepository.save(application);
+                    return stepTracer.trace("loan.transition.write", writeCoalescer.write(LoanApplicationUpdate.of(application)
+                                    .expecting(ApplicationStatus.SUBMITTED)
+                                    .status()
+                                    .updatedAt()))
+                            .flatMap(applied -> requireApplied(applied, application, ApplicationStatus.SUBMITTED))
+                            .then(evictAfterWrite(application))
+                            .then(stepTracer.trace("loan.transition.record-event",
+                                    eventLog.record(application, ApplicationStatus.SUBMITTED, ApplicationStatus.UNDER_REVIEW)))
+                            .thenReturn(application);
                 })
                 .doOnSuccess(app -> log.info("Loan application {} moved to UNDER_REVIEW", app.getId()));
     }
     
-    public Mono<LoanApplication> approveLoanApplication(Long id, BigDecimal approvedAmount, BigDecimal interestRate) {
+    /**
+     * @param leaseToken token of the review lease on the application; may be null when it is not leased
+     */
+    public Mono<LoanApplication> approveLoanApplication(Long id, BigDecimal approvedAmount, BigDecimal interestRate,
+                                                        String leaseToken) {
         log.info("Approving loan application ID: {} with amount: {}", id, approvedAmount);
         
-        return loanApplicationRepository.findById(id)
+        return reviewQueueService.requireLeaseHolder(id, leaseToken)
+                .then(stepTracer.trace("loan.transition.load", shardRouter.byId(id, loanApplicationRepository.findById(id))))
+                .map(writeCoalescer::applyPending)
                 .switchIfEmpty(Mono.error(new RuntimeException("Loan application not found with ID: " + id)))
                 .flatMap(application -> {
                     if (application.getStatus() != ApplicationStatus.UNDER_REVIEW) {
@@ -118,15 +212,36 @@ public class LoanApplicationService {
                     // Recalculate monthly payment with approved terms
                     calculateMonthlyPayment(application);
                     
-                    return loanApplicationRepository.save(application);
+                    return stepTracer.trace("loan.transition.write", writeCoalescer.write(LoanApplicationUpdate.of(application)
+                                    .expecting(ApplicationStatus.UNDER_REVIEW)
+                                    .status()
+                                    .loanAmount()
+                                    .interestRate()
+                                    .monthlyPayment()
+                                    .approvalDate()
+                                    .updatedAt()))
+                            .flatMap(applied -> requireApplied(applied, application, ApplicationStatus.UNDER_REVIEW))
+                            .doOnSuccess(unused -> {
+                                activeApplicationCounter.release(application.getCustomerId());
+                                exposureRollup.add(application);
+                            })
+                            .then(evictAfterWrite(application))
+                            .then(stepTracer.trace("loan.transition.record-event",
+                                    eventLog.record(application, ApplicationStatus.UNDER_REVIEW, ApplicationStatus.APPROVED)))
+                            .thenReturn(application);
                 })
                 .doOnSuccess(app -> log.info("Loan application {} approved", app.getId()));
     }
     
-    public Mono<LoanApplication> rejectLoanApplication(Long id, String rejectionReason) {
+    /**
+     * @param leaseToken token of the review lease on the application; may be null when it is not leased
+     */
+    public Mono<LoanApplication> rejectLoanApplication(Long id, String rejectionReason, String leaseToken) {
         log.info("Rejecting loan application ID: {} with reason: {}", id, rejectionReason);
         
-        return loanApplicationRepository.findById(id)
+        return reviewQueueService.requireLeaseHolder(id, leaseToken)
+                .then(stepTracer.trace("loan.transition.load", shardRouter.byId(id, loanApplicationRepository.findById(id))))
+                .map(writeCoalescer::applyPending)
                 .switchIfEmpty(Mono.error(new RuntimeException("Loan application not found with ID: " + id)))
                 .flatMap(application -> {
                     if (application.getStatus() != ApplicationStatus.UNDER_REVIEW) {
@@ -137,7 +252,17 @@ public class LoanApplicationService {
                     application.setRejectionReason(rejectionReason);
                     application.setUpdatedAt(LocalDateTime.now());
                     
-                    return loanApplicationRepository.save(application);
+                    return stepTracer.trace("loan.transition.write", writeCoalescer.write(LoanApplicationUpdate.of(application)
+                                    .expecting(ApplicationStatus.UNDER_REVIEW)
+                                    .status()
+                                    .rejectionReason()
+                                    .updatedAt()))
+                            .flatMap(applied -> requireApplied(applied, application, ApplicationStatus.UNDER_REVIEW))
+                            .doOnSuccess(unused -> activeApplicationCounter.release(application.getCustomerId()))
+                            .then(evictAfterWrite(application))
+                            .then(stepTracer.trace("loan.transition.record-event",
+                                    eventLog.record(application, ApplicationStatus.UNDER_REVIEW, ApplicationStatus.REJECTED)))
+                            .thenReturn(application);
                 })
                 .doOnSuccess(app -> log.info("Loan application {} rejected", app.getId()));
     }
@@ -145,7 +270,8 @@ public class LoanApplicationService {
     public Mono<LoanApplication> disburseLoan(Long id) {
         log.info("Disbursing loan for application ID: {}", id);
         
-        return loanApplicationRepository.findById(id)
+        return stepTracer.trace("loan.transition.load", shardRouter.byId(id, loanApplicationRepository.findById(id)))
+                .map(writeCoalescer::applyPending)
                 .switchIfEmpty(Mono.error(new RuntimeException("Loan application not found with ID: " + id)))
                 .flatMap(application -> {
                     if (application.getStatus() != ApplicationStatus.APPROVED) {
@@ -155,77 +281,125 @@ public class LoanApplicationService {
                     application.setStatus(ApplicationStatus.DISBURSED);
                     application.setUpdatedAt(LocalDateTime.now());
                     
-                    return loanApplicationRepository.save(application);
+                    return stepTracer.trace("loan.transition.write", writeCoalescer.write(LoanApplicationUpdate.of(application)
+                                    .expecting(ApplicationStatus.APPROVED)
+                                    .status()
+                                    .updatedAt()))
+                            .flatMap(applied -> requireApplied(applied, application, ApplicationStatus.APPROVED))
+                            .then(evictAfterWrite(application))
+                            .then(stepTracer.trace("loan.transition.record-event",
+                                    eventLog.record(application, ApplicationStatus.APPROVED, ApplicationStatus.DISBURSED)))
+                            .then(stepTracer.trace("loan.disburse.open-account", repaymentService.openAccount(application)))
+                            .thenReturn(application);
                 })
                 .doOnSuccess(app -> log.info("Loan disbursed for application {}", app.getId()));
     }
     
+    public Mono<LoanApplication> cancelLoanApplication(Long id) {
+        log.info("Cancelling loan application ID: {}", id);
+        
+        return stepTracer.trace("loan.transition.load", shardRouter.byId(id, loanApplicationRepository.findById(id)))
+                .map(writeCoalescer::applyPending)
+                .switchIfEmpty(Mono.error(new RuntimeException("Loan application not found with ID: " + id)))
+                .flatMap(application -> {
+                    if (application.getStatus() != ApplicationStatus.SUBMITTED
+                            && application.getStatus() != ApplicationStatus.UNDER_REVIEW) {
+                        return Mono.error(new RuntimeException("Only submitted or under review applications can be cancelled"));
+                    }
+                    
+                    ApplicationStatus previous = application.getStatus();
+                    application.setStatus(ApplicationStatus.CANCELLED);
+                    application.setUpdatedAt(LocalDateTime.now());
+                    
+                    return stepTracer.trace("loan.transition.write", writeCoalescer.write(LoanApplicationUpdate.of(application)
+                                    .expecting(previous)
+                                    .status()
+                                    .updatedAt()))
+                            .flatMap(applied -> requireApplied(applied, application, previous))
+                            .doOnSuccess(unused -> activeApplicationCounter.release(application.getCustomerId()))
+                            .then(evictAfterWrite(application))
+                            .then(stepTracer.trace("loan.transition.record-event",
+                                    eventLog.record(application, previous, ApplicationStatus.CANCELLED)))
+                            .thenReturn(application);
+                })
+                .doOnSuccess(app -> log.info("Loan application {} cancelled", app.getId()));
+    }
+    
+    /**
+     * Fails a transition whose conditional write found the application already moved on by a concurrent one,
+     * so the counter, rollup and event log are only updated by the transition that took effect.
+     */
+    private static Mono<Void> requireApplied(boolean applied, LoanApplication application, ApplicationStatus from) {
+        if (applied) {
+            return Mono.empty();
+        }
+        return Mono.error(new RuntimeException(
+                "Loan application " + application.getId() + " is no longer in " + from + " status"));
+    }
+    
+    /**
+     * Drops the changed application from the cache once its update is queued. With write-behind durability the
+     * row changes only later, and a read in between can cache the old one, so it is dropped again on commit.
+     */
+    private Mono<Void> evictAfterWrite(LoanApplication application) {
+        return applicationCache.evict(application)
+                .then(Mono.fromRunnable(() -> {
+                    if (writeCoalescer.hasPending(application.getId())) {
+                        writeCoalescer.committed(application.getId())
+                                .then(applicationCache.evict(application))
+                                .subscribe();
+                    }
+                }));
+    }
+    
+    public Flux<LoanApplicationEvent> getLoanApplicationHistory(Long id) {
+        log.info("Fetching history for loan application ID: {}", id);
+        return eventLog.getHistory(id);
+    }
+    
+    public Mono<ApplicationStatus> getReplayedStatus(Long id) {
+        log.info("Rebuilding status of loan application ID: {} from its history", id);
+        return eventLog.replayStatus(id);
+    }
+    
     public Flux<LoanApplication> getAllLoanApplications() {
         log.info("Fetching all loan applications");
-        return loanApplicationRepository.findAll()
-                .doOnNext(app -> log.debug("Found application: {} for customer: {}", app.getId(), app.getCustomerId()));
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> loanApplicationRepository.findAll()));
+    }
+    
+    public Flux<LoanApplicationSummary> getAllLoanApplicationSummaries() {
+        log.info("Fetching all loan application summaries");
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> loanApplicationRepository.findAllSummaries()));
     }
     
     public Mono<BigDecimal> getTotalLoanValue() {
         log.info("Calculating total loan value across all applications");
-        return loanApplicationRepository.getTotalLoanValue()
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> loanApplicationRepository.getTotalLoanValue().flux())
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
                 .doOnSuccess(total -> log.info("Total loan value calculated: {}", total))
                 .doOnError(error -> log.error("Error calculating total loan value: {}", error.getMessage()));
     }
     
     public Mono<BigDecimal> getTotalLoanValueByStatus(ApplicationStatus status) {
         log.info("Calculating total loan value for applications with status: {}", status);
-        return loanApplicationRepository.getTotalLoanValueByStatus(status)
+        return ReadRouting.onReplica(shardRouter.onAllShards(shard -> loanApplicationRepository.getTotalLoanValueByStatus(status).flux())
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
                 .doOnSuccess(total -> log.info("Total loan value for status {}: {}", status, total))
                 .doOnError(error -> log.error("Error calculating total loan value by status: {}", error.getMessage()));
     }
     
     private void calculateLoanTerms(LoanApplication application) {
-        // Simple interest rate calculation based on loan type and amount
-        BigDecimal baseRate = getBaseInterestRate(application.getLoanType());
-        
-        // Adjust rate based on loan amount (higher amounts get better rates)
-        if (application.getLoanAmount().compareTo(new BigDecimal("50000")) > 0) {
-            baseRate = baseRate.subtract(new BigDecimal("0.005")); // 0.5% discount
-        } else if (application.getLoanAmount().compareTo(new BigDecimal("10000")) < 0) {
-            baseRate = baseRate.add(new BigDecimal("0.01")); // 1% premium
-        }
-        
-        application.setInterestRate(baseRate);
+        // Priced from the current rate table; the version is kept so the price can be explained later
+        RateTable rateTable = rateTableService.current();
+        int creditScore = application.getCreditScore() != null ? application.getCreditScore() : 0;
+        application.setInterestRate(rateTable.rateFor(application.getLoanType(), application.getLoanAmount(),
+                application.getLoanTermMonths(), creditScore));
+        application.setRateTableVersion(rateTable.getVersion());
         calculateMonthlyPayment(application);
     }
     
-    private BigDecimal getBaseInterestRate(LoanType loanType) {
-        return switch (loanType) {
-            case PERSONAL -> new BigDecimal("0.12"); // 12%
-            case AUTO -> new BigDecimal("0.08"); // 8%
-            case HOME -> new BigDecimal("0.06"); // 6%
-            case STUDENT -> new BigDecimal("0.05"); // 5%
-            case BUSINESS -> new BigDecimal("0.10"); // 10%
-        };
-    }
-    
     private void calculateMonthlyPayment(LoanApplication application) {
-        // Calculate monthly payment using standard loan formula
-        // M = P * [r(1 + r)^n] / [(1 + r)^n - 1]
-        
-        BigDecimal principal = application.getLoanAmount();
-        BigDecimal annualRate = application.getInterestRate();
-        BigDecimal monthlyRate = annualRate.divide(new BigDecimal("12"), 8, RoundingMode.HALF_UP);
-        int numberOfPayments = application.getLoanTermMonths();
-        
-        if (monthlyRate.compareTo(BigDecimal.ZERO) == 0) {
-            // No interest loan
-            application.setMonthlyPayment(principal.divide(new BigDecimal(numberOfPayments), 2, RoundingMode.HALF_UP));
-        } else {
-            // Standard loan calculation
-            BigDecimal onePlusR = BigDecimal.ONE.add(monthlyRate);
-            BigDecimal onePlusRToN = onePlusR.pow(numberOfPayments);
-            BigDecimal numerator = principal.multiply(monthlyRate).multiply(onePlusRToN);
-            BigDecimal denominator = onePlusRToN.subtract(BigDecimal.ONE);
-            
-            BigDecimal monthlyPayment = numerator.divide(denominator, 2, RoundingMode.HALF_UP);
-            application.setMonthlyPayment(monthlyPayment);
-        }
+        application.setMonthlyPayment(Amortization.monthlyPayment(application.getLoanAmount(),
+                application.getInterestRate(), application.getLoanTermMonths()));
     }
 }
@@ -0,0 +1,277 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.WriteCoalescerProperties;
+import com.rjtmahinay.loan.config.WriteCoalescerProperties.Durability;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.repository.LoanApplicationBatchWriter;
+import com.rjtmahinay.loan.repository.LoanApplicationUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Groups loan application updates arriving within a short window into batched, changed-columns-only
+ * UPDATE statements. Several updates of the same application inside one window collapse into a
+ * single row write. One batch is written at a time, so two writes of the same row commit in the order
+ * they were queued.
+ */
+@Slf4j
+@Service
+public class LoanApplicationWriteCoalescer {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final LoanApplicationBatchWriter batchWriter;
+    private final WriteCoalescerProperties properties;
+    private final Timer flushLatency;
+    private final DistributionSummary batchSize;
+    private final Counter failedWrites;
+
+    private final Object lock = new Object();
+    private Map<Long, PendingWrite> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // Drained but not yet committed, kept so reads can still see them
+    private final Map<Long, PendingWrite> inFlight = new ConcurrentHashMap<>();
+    // Held by whoever is writing batches; a flush that finds it taken leaves its updates to the holder
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    public LoanApplicationWriteCoalescer(LoanApplicationBatchWriter batchWriter,
+                                         WriteCoalescerProperties properties,
+                                         MeterRegistry meterRegistry) {
+        this.batchWriter = batchWriter;
+        this.properties = properties;
+        this.flushLatency = Timer.builder("loan.write-coalescer.flush.latency")
+                .description("Time to write one coalesced batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("loan.write-coalescer.batch.size")
+                .description("Distinct applications written per flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failedWrites = Counter.builder("loan.write-coalescer.failed.writes")
+                .description("Updates dropped because their batch failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an update. With {@link Durability#WRITE_THROUGH} the returned Mono emits once the batch holding
+     * the update is committed; with {@link Durability#WRITE_BEHIND} it emits immediately.
+     *
+     * @return false when the update expects a status the application no longer has: checked at once against
+     *         updates of it queued or in flight on this node, and, with write-through, against the row as written
+     */
+    public Mono<Boolean> write(LoanApplicationUpdate update) {
+        if (!properties.isEnabled()) {
+            return batchWriter.write(List.of(update)).map(written -> written.contains(update.getId()));
+        }
+
+        PendingWrite write;
+        boolean flushNow;
+        synchronized (lock) {
+            if (conflicts(update)) {
+                return Mono.just(false);
+            }
+            write = pending.compute(update.getId(),
+                    (id, existing) -> existing == null ? new PendingWrite(update) : existing.merge(update));
+            flushNow = pending.size() >= properties.getMaxBatchSize();
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                Schedulers.parallel().schedule(this::flush, properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+        return properties.getDurability() == Durability.WRITE_THROUGH ? write.awaitCommit() : Mono.just(true);
+    }
+
+    /**
+     * True when a queued or in-flight update of the application already moves it away from the status this
+     * update expects. Must be called holding {@link #lock}.
+     */
+    private boolean conflicts(LoanApplicationUpdate update) {
+        if (update.getExpectedStatus() == null) {
+            return false;
+        }
+        PendingWrite latest = pending.get(update.getId());
+        if (latest == null || latest.update.getNewStatus() == null) {
+            latest = inFlight.get(update.getId());
+        }
+        return latest != null && latest.update.getNewStatus() != null
+                && latest.update.getNewStatus() != update.getExpectedStatus();
+    }
+
+    /**
+     * Overlays any queued or in-flight update onto an application read from the database, so that
+     * by-id reads on this node observe their own writes in write-behind mode.
+     */
+    public LoanApplication applyPending(LoanApplication application) {
+        synchronized (lock) {
+            // The in-flight update is the older one; a queued update of the same row goes on top of it
+            PendingWrite written = inFlight.get(application.getId());
+            if (written != null) {
+                written.update.applyTo(application);
+            }
+            PendingWrite queued = pending.get(application.getId());
+            if (queued != null) {
+                queued.update.applyTo(application);
+            }
+        }
+        return application;
+    }
+
+    /**
+     * True when an update of the application is queued or being written, i.e. the row in the database
+     * may not reflect it yet.
+     */
+    public boolean hasPending(Long id) {
+        synchronized (lock) {
+            if (pending.containsKey(id)) {
+                return true;
+            }
+        }
+        return inFlight.containsKey(id);
+    }
+
+    /**
+     * Completes once the updates of the application queued so far are committed or have failed, whatever the
+     * durability; immediately when none are pending.
+     */
+    public Mono<Void> committed(Long id) {
+        PendingWrite write;
+        synchronized (lock) {
+            write = pending.get(id);
+        }
+        if (write == null) {
+            write = inFlight.get(id);
+        }
+        return write != null ? write.awaitCommit().onErrorResume(error -> Mono.empty()).then() : Mono.empty();
+    }
+
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        drain()
+                .doFinally(signal -> {
+                    flushing.set(false);
+                    // Updates queued after the last batch was taken, whose own flush found the flag held
+                    if (hasQueued()) {
+                        flush();
+                    }
+                })
+                .subscribe();
+    }
+
+    /**
+     * Writes batches one after another until nothing is queued. Must only run while holding {@link #flushing}.
+     */
+    private Mono<Void> drain() {
+        return Mono.defer(this::writeBatch)
+                .repeat(this::hasQueued)
+                .then();
+    }
+
+    private boolean hasQueued() {
+        synchronized (lock) {
+            return !pending.isEmpty();
+        }
+    }
+
+    private Mono<Void> writeBatch() {
+        Map<Long, PendingWrite> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+            // Under the lock, so a read never sees an update in neither map
+            inFlight.putAll(batch);
+        }
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        List<LoanApplicationUpdate> updates = batch.values().stream().map(write -> write.update).toList();
+        batchSize.record(updates.size());
+        long start = System.nanoTime();
+
+        return batchWriter.write(updates)
+                .doOnSuccess(written -> {
+                    flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    log.debug("Flushed {} coalesced loan application updates, {} rows updated", updates.size(), written.size());
+                    batch.forEach((id, write) -> {
+                        inFlight.remove(id, write);
+                        write.completion.tryEmitValue(written.contains(id));
+                    });
+                })
+                .doOnError(error -> {
+                    log.error("Error flushing {} loan application updates: {}", updates.size(), error.getMessage());
+                    failedWrites.increment(updates.size());
+                    batch.forEach((id, write) -> {
+                        inFlight.remove(id, write);
+                        write.completion.tryEmitError(error);
+                    });
+                })
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Flushing pending loan application updates before shutdown");
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+        // Wait for the batch in flight to commit, then write what is left as the only writer
+        while (!flushing.compareAndSet(false, true)) {
+            if (System.nanoTime() > deadline) {
+                log.error("Timed out waiting for a flush; {} loan application updates not written", inFlight.size());
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        try {
+            drain().block(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        } catch (RuntimeException e) {
+            log.error("Error writing loan application updates on shutdown: {}", e.getMessage());
+        } finally {
+            flushing.set(false);
+        }
+        if (hasQueued() || !inFlight.isEmpty()) {
+            log.error("Loan application updates were not written before shutdown");
+        }
+    }
+
+    private static final class PendingWrite {
+
+        private final LoanApplicationUpdate update;
+        // Whether the row was updated: false when it no longer had the expected status
+        private final Sinks.One<Boolean> completion = Sinks.one();
+
+        private PendingWrite(LoanApplicationUpdate update) {
+            this.update = update;
+        }
+
+        private PendingWrite merge(LoanApplicationUpdate later) {
+            update.merge(later);
+            return this;
+        }
+
+        private Mono<Boolean> awaitCommit() {
+            return completion.asMono();
+        }
+    }
+}
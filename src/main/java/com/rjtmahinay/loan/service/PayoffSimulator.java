@@ -0,0 +1,258 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.model.LoanAccount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What-if payoff projections for a disbursed loan: extra monthly payments, lump sums and refinancing at a new rate
+ * or term, each compared with paying the current installment until the loan is paid off.
+ * <p>
+ * Schedules are projected month by month in whole cents with long arithmetic, so a 30-year projection is a few
+ * hundred primitive operations. Each month's interest is a 30-day month of {@link Amortization#interest}, rounded
+ * half up to the cent exactly as the servicing ledger rounds it; the last payment is what is then still owed.
+ * Reported amounts are converted to {@link BigDecimal} at the end.
+ */
+@Slf4j
+@Service
+public class PayoffSimulator {
+
+    public static final int MAX_SCENARIOS = 1000;
+    // Longest projection; a payment that never pays the loan off stops here
+    public static final int MAX_MONTHS = 600;
+
+    // Below this many scenarios, evaluating on the caller's thread beats handing off to other cores
+    private static final int PARALLEL_THRESHOLD = 64;
+    // Rates are held to the loan_accounts.interest_rate scale, as units of 1/10000
+    private static final int RATE_SCALE = 4;
+    // Cents times rate units over this is a month of interest in cents: 12 months of 10^4 rate units
+    private static final long MONTHLY_RATE_DIVISOR = 120_000;
+
+    private final RepaymentService repaymentService;
+    private final Timer simulationLatency;
+
+    public PayoffSimulator(RepaymentService repaymentService, MeterRegistry meterRegistry) {
+        this.repaymentService = repaymentService;
+        this.simulationLatency = Timer.builder("loan.simulation.latency")
+                .description("Time to evaluate one what-if simulation request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Mono<Simulation> simulate(Long applicationId, List<Scenario> scenarios) {
+        if (scenarios.isEmpty() || scenarios.size() > MAX_SCENARIOS) {
+            return Mono.error(new RuntimeException("Between 1 and " + MAX_SCENARIOS + " scenarios are required"));
+        }
+        for (Scenario scenario : scenarios) {
+            String problem = validate(scenario);
+            if (problem != null) {
+                return Mono.error(new RuntimeException(problem));
+            }
+        }
+        log.info("Simulating {} scenarios for application ID: {}", scenarios.size(), applicationId);
+
+        return repaymentService.getAccount(applicationId)
+                .switchIfEmpty(Mono.error(new RuntimeException("No disbursed loan " + applicationId)))
+                .flatMap(account -> {
+                    if (account.getBalance().signum() == 0) {
+                        return Mono.error(new RuntimeException("Loan " + applicationId + " is paid off"));
+                    }
+                    long start = System.nanoTime();
+                    LocalDate asOf = LocalDate.now();
+                    Projection baseline = Projection.of(account, asOf);
+                    Outcome baselineOutcome = baseline.run(new Scenario("baseline", null, List.of(), null, null), null);
+                    return evaluate(baseline, baselineOutcome, scenarios)
+                            .map(outcomes -> new Simulation(applicationId, asOf, baselineOutcome, outcomes))
+                            .doOnSuccess(simulation -> simulationLatency.record(Duration.ofNanos(System.nanoTime() - start)));
+                });
+    }
+
+    /**
+     * Projects every scenario against the baseline; large requests are spread over the parallel scheduler.
+     */
+    public static Mono<List<Outcome>> evaluate(Projection projection, Outcome baseline, List<Scenario> scenarios) {
+        if (scenarios.size() < PARALLEL_THRESHOLD) {
+            List<Outcome> outcomes = new ArrayList<>(scenarios.size());
+            scenarios.forEach(scenario -> outcomes.add(projection.run(scenario, baseline)));
+            return Mono.just(outcomes);
+        }
+        return Flux.range(0, scenarios.size())
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .map(i -> Tuples.of(i, projection.run(scenarios.get(i), baseline)))
+                .collectSortedList(Comparator.comparing(Tuple2::getT1))
+                .map(indexed -> indexed.stream().map(Tuple2::getT2).toList());
+    }
+
+    private static String validate(Scenario scenario) {
+        if (scenario.extraMonthlyPayment() != null && scenario.extraMonthlyPayment().signum() < 0) {
+            return "Extra monthly payment cannot be negative";
+        }
+        if (scenario.newInterestRate() != null && (scenario.newInterestRate().compareTo(new BigDecimal("0.01")) < 0
+                || scenario.newInterestRate().compareTo(new BigDecimal("0.30")) > 0)) {
+            return "New interest rate must be between 1% and 30%";
+        }
+        if (scenario.newInterestRate() != null && scenario.newInterestRate().stripTrailingZeros().scale() > RATE_SCALE) {
+            return "New interest rate can have at most " + RATE_SCALE + " decimal places";
+        }
+        if (scenario.newTermMonths() != null && (scenario.newTermMonths() < 1 || scenario.newTermMonths() > MAX_MONTHS)) {
+            return "New term must be between 1 and " + MAX_MONTHS + " months";
+        }
+        for (LumpSum lumpSum : scenario.lumpSums()) {
+            if (lumpSum.month() < 1 || lumpSum.month() > MAX_MONTHS || lumpSum.amount() == null || lumpSum.amount().signum() <= 0) {
+                return "Lump sums need a month between 1 and " + MAX_MONTHS + " and a positive amount";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starting point shared by every scenario of one request.
+     *
+     * @param balanceCents    outstanding principal
+     * @param carriedCents    interest accrued and unpaid as of the simulation date, paid with the first payment
+     * @param annualRate      current rate
+     * @param paymentCents    current installment
+     * @param firstPaymentOn  date of the first projected payment
+     */
+    public record Projection(long balanceCents, long carriedCents, BigDecimal annualRate, long paymentCents, LocalDate firstPaymentOn) {
+
+        public static Projection of(LoanAccount account, LocalDate asOf) {
+            BigDecimal carried = account.getAccruedInterest().add(Amortization.interest(account.getBalance(),
+                    account.getInterestRate(), ChronoUnit.DAYS.between(account.getInterestThrough(), asOf)));
+            LocalDate firstPaymentOn = account.getNextDueDate().isBefore(asOf) ? asOf : account.getNextDueDate();
+            return new Projection(cents(account.getBalance()), cents(carried), account.getInterestRate(),
+                    cents(account.getMonthlyPayment()), firstPaymentOn);
+        }
+
+        /**
+         * @param baseline outcome of paying the current installment, or null when projecting the baseline itself
+         */
+        public Outcome run(Scenario scenario, Outcome baseline) {
+            long balance = balanceCents;
+            long carried = carriedCents;
+            long payment = paymentCents;
+            BigDecimal rate = annualRate;
+
+            // Refinancing rolls the accrued interest into the new principal and re-amortizes over the new term,
+            // by default what the current schedule has left
+            if (scenario.newInterestRate() != null || scenario.newTermMonths() != null) {
+                balance += carried;
+                carried = 0;
+                rate = scenario.newInterestRate() != null ? scenario.newInterestRate() : annualRate;
+                int term = scenario.newTermMonths() != null ? scenario.newTermMonths()
+                        : baseline != null ? Math.max(1, baseline.payments()) : MAX_MONTHS;
+                payment = cents(Amortization.monthlyPayment(BigDecimal.valueOf(balance, 2), rate, term));
+            }
+            payment += scenario.extraMonthlyPayment() != null ? cents(scenario.extraMonthlyPayment()) : 0;
+
+            long[] lumps = new long[MAX_MONTHS + 1];
+            int lastLump = 0;
+            for (LumpSum lumpSum : scenario.lumpSums()) {
+                lumps[lumpSum.month()] += cents(lumpSum.amount());
+                lastLump = Math.max(lastLump, lumpSum.month());
+            }
+
+            long rateUnits = rate.setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            long totalInterest = 0;
+            long totalPaid = 0;
+            int months = 0;
+            boolean paysOff = false;
+            for (int month = 1; month <= MAX_MONTHS; month++) {
+                long interest = monthlyInterest(balance, rateUnits) + (month == 1 ? carried : 0);
+                long due = balance + interest;
+                long paid = payment + lumps[month];
+                totalInterest += interest;
+                months = month;
+                if (paid >= due) {
+                    // The last payment is only what is still owed, which may be less than the installment
+                    totalPaid += due;
+                    paysOff = true;
+                    break;
+                }
+                totalPaid += paid;
+                if (paid <= interest && month >= lastLump) {
+                    // The balance only grows from here on
+                    break;
+                }
+                balance = due - paid;
+            }
+            return Outcome.of(scenario.name(), payment, totalInterest, totalPaid, months, paysOff, firstPaymentOn, baseline);
+        }
+    }
+
+    /**
+     * A 30-day month of interest on {@code balanceCents}, in cents rounded half up: the same figure as
+     * {@link Amortization#interest} over 30 days. Split at the divisor so the product cannot overflow.
+     */
+    static long monthlyInterest(long balanceCents, long rateUnits) {
+        long whole = balanceCents / MONTHLY_RATE_DIVISOR * rateUnits;
+        long rest = balanceCents % MONTHLY_RATE_DIVISOR * rateUnits;
+        return whole + (rest + MONTHLY_RATE_DIVISOR / 2) / MONTHLY_RATE_DIVISOR;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public record LumpSum(int month, BigDecimal amount) {
+    }
+
+    /**
+     * One what-if. Extra payments and lump sums apply on top of the installment; a new rate or term refinances
+     * the outstanding balance first.
+     *
+     * @param lumpSums one-off payments, by month counted from the next due payment as month 1
+     */
+    public record Scenario(String name, BigDecimal extraMonthlyPayment, List<LumpSum> lumpSums,
+                           BigDecimal newInterestRate, Integer newTermMonths) {
+
+        public Scenario {
+            lumpSums = lumpSums != null ? lumpSums : List.of();
+        }
+    }
+
+    /**
+     * Projected result of a scenario. {@code totalPaid} adds up every payment, the smaller final one included.
+     * When {@code paysOff} is false the payments never cover the interest: there is no payoff date or total paid,
+     * and {@code payments} and {@code totalInterest} stop at the first month, after the last lump sum, in which the
+     * payment no longer covers the interest. {@code interestSaved} and {@code paymentsSaved} compare with the
+     * baseline only when both pay off, and are null otherwise.
+     */
+    public record Outcome(String name, BigDecimal monthlyPayment, int payments, LocalDate payoffDate,
+                          BigDecimal totalInterest, BigDecimal totalPaid, BigDecimal interestSaved,
+                          Integer paymentsSaved, boolean paysOff) {
+
+        private static Outcome of(String name, long paymentCents, long totalInterestCents, long totalPaidCents,
+                                  int months, boolean paysOff, LocalDate firstPaymentOn, Outcome baseline) {
+            BigDecimal totalInterest = BigDecimal.valueOf(totalInterestCents, 2);
+            // Totals of a schedule that never pays off cover an arbitrary horizon
+            boolean comparable = baseline != null && baseline.paysOff() && paysOff;
+            return new Outcome(name, BigDecimal.valueOf(paymentCents, 2), months,
+                    paysOff ? firstPaymentOn.plusMonths(months - 1) : null,
+                    totalInterest, paysOff ? BigDecimal.valueOf(totalPaidCents, 2) : null,
+                    comparable ? baseline.totalInterest().subtract(totalInterest) : null,
+                    comparable ? baseline.payments() - months : null,
+                    paysOff);
+        }
+    }
+
+    public record Simulation(Long applicationId, LocalDate asOf, Outcome baseline, List<Outcome> scenarios) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.RateTableEntry;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, array-indexed pricing grid built from one rate-table version. Each loan type has sorted band
+ * minimums per dimension and a flat array of rates, so a lookup is three binary searches over arrays and
+ * allocates nothing.
+ */
+public final class RateTable {
+
+    private static final BigDecimal MIN_RATE = new BigDecimal("0.01");
+    private static final BigDecimal MAX_RATE = new BigDecimal("0.30");
+    private static final Comparator<RateTableEntry> ENTRY_ORDER = Comparator.comparing(RateTableEntry::getLoanType)
+            .thenComparing(RateTableEntry::getMinAmount)
+            .thenComparing(RateTableEntry::getMinTermMonths)
+            .thenComparing(RateTableEntry::getMinCreditScore);
+
+    private final long version;
+    private final List<RateTableEntry> entries;
+    // Indexed by LoanType ordinal
+    private final Grid[] grids;
+
+    private RateTable(long version, List<RateTableEntry> entries, Grid[] grids) {
+        this.version = version;
+        this.entries = entries;
+        this.grids = grids;
+    }
+
+    /**
+     * Builds the grid, checking that every loan type has a rate for every combination of its bands, that the
+     * lowest band of each dimension starts at zero, and that rates are between 1% and 30%.
+     *
+     * @throws IllegalArgumentException when the entries do not form such a grid
+     */
+    public static RateTable of(long version, List<RateTableEntry> entries) {
+        for (RateTableEntry entry : entries) {
+            if (entry.getLoanType() == null || entry.getMinAmount() == null || entry.getMinTermMonths() == null
+                    || entry.getMinCreditScore() == null || entry.getRate() == null) {
+                throw new IllegalArgumentException("Rate table entry is missing a field: " + entry);
+            }
+        }
+        LoanType[] types = LoanType.values();
+        Grid[] grids = new Grid[types.length];
+        for (LoanType type : types) {
+            List<RateTableEntry> cells = entries.stream().filter(entry -> entry.getLoanType() == type).toList();
+            if (cells.isEmpty()) {
+                throw new IllegalArgumentException("Rate table has no rates for loan type " + type);
+            }
+            grids[type.ordinal()] = Grid.of(type, cells);
+        }
+        return new RateTable(version, entries.stream().sorted(ENTRY_ORDER).toList(), grids);
+    }
+
+    /**
+     * @param creditScore applicant's credit score; callers pass 0 when it is unknown
+     */
+    public BigDecimal rateFor(LoanType loanType, BigDecimal amount, int termMonths, int creditScore) {
+        return grids[loanType.ordinal()].rateFor(amount, termMonths, creditScore);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<RateTableEntry> getEntries() {
+        return entries;
+    }
+
+    private record Grid(BigDecimal[] amountBands, int[] termBands, int[] scoreBands, BigDecimal[] rates) {
+
+        private static Grid of(LoanType type, List<RateTableEntry> cells) {
+            BigDecimal[] amountBands = cells.stream().map(RateTableEntry::getMinAmount).map(BigDecimal::stripTrailingZeros)
+                    .distinct().sorted().toArray(BigDecimal[]::new);
+            int[] termBands = cells.stream().mapToInt(RateTableEntry::getMinTermMonths).distinct().sorted().toArray();
+            int[] scoreBands = cells.stream().mapToInt(RateTableEntry::getMinCreditScore).distinct().sorted().toArray();
+            if (amountBands[0].signum() != 0 || termBands[0] != 0 || scoreBands[0] != 0) {
+                throw new IllegalArgumentException("Lowest amount, term and credit-score bands for " + type + " must start at 0");
+            }
+
+            BigDecimal[] rates = new BigDecimal[amountBands.length * termBands.length * scoreBands.length];
+            Grid grid = new Grid(amountBands, termBands, scoreBands, rates);
+            for (RateTableEntry cell : cells) {
+                BigDecimal rate = cell.getRate();
+                if (rate.compareTo(MIN_RATE) < 0 || rate.compareTo(MAX_RATE) > 0) {
+                    throw new IllegalArgumentException("Rate " + rate + " for " + type + " is outside 0.01 - 0.30");
+                }
+                int index = grid.index(cell.getMinAmount(), cell.getMinTermMonths(), cell.getMinCreditScore());
+                if (rates[index] != null) {
+                    throw new IllegalArgumentException("Duplicate rate for " + type + " band " + describe(cell));
+                }
+                rates[index] = rate;
+            }
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < rates.length; i++) {
+                if (rates[i] == null) {
+                    missing.add(grid.describe(i));
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Missing rates for " + type + " bands " + missing);
+            }
+            return grid;
+        }
+
+        private BigDecimal rateFor(BigDecimal amount, int termMonths, int creditScore) {
+            return rates[index(amount, termMonths, creditScore)];
+        }
+
+        private int index(BigDecimal amount, int termMonths, int creditScore) {
+            int amountBand = band(amountBands, amount);
+            int termBand = band(termBands, termMonths);
+            int scoreBand = band(scoreBands, creditScore);
+            return (amountBand * termBands.length + termBand) * scoreBands.length + scoreBand;
+        }
+
+        private String describe(int index) {
+            int scoreBand = index % scoreBands.length;
+            int termBand = index / scoreBands.length % termBands.length;
+            int amountBand = index / scoreBands.length / termBands.length;
+            return "(amount " + amountBands[amountBand].toPlainString() + ", term " + termBands[termBand]
+                    + ", score " + scoreBands[scoreBand] + ")";
+        }
+
+        private static String describe(RateTableEntry cell) {
+            return "(amount " + cell.getMinAmount().toPlainString() + ", term " + cell.getMinTermMonths()
+                    + ", score " + cell.getMinCreditScore() + ")";
+        }
+
+        // Index of the last band whose minimum is at or below the value; values below every minimum fall in band 0
+        private static int band(BigDecimal[] minimums, BigDecimal value) {
+            int low = 0;
+            int high = minimums.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (minimums[mid].compareTo(value) <= 0) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private static int band(int[] minimums, int value) {
+            int low = 0;
+            int high = minimums.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (minimums[mid] <= value) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
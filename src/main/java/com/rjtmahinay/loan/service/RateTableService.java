@@ -0,0 +1,127 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.RateTableProperties;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.RateTableEntry;
+import com.rjtmahinay.loan.repository.RateTableRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Holds the current rate table. Updates build a complete new {@link RateTable} and swap the reference, so
+ * pricing reads one volatile field and never waits on, or sees half of, an update.
+ */
+@Slf4j
+@Service
+@DependsOnDatabaseInitialization
+public class RateTableService {
+
+    private final RateTableRepository rateTableRepository;
+    private final RateTableProperties properties;
+    private volatile RateTable current;
+
+    public RateTableService(RateTableRepository rateTableRepository,
+                            RateTableProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.rateTableRepository = rateTableRepository;
+        this.properties = properties;
+        Gauge.builder("loan.rate-table.version", this, service -> service.current == null ? 0 : service.current.getVersion())
+                .description("Rate table version used for pricing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the latest published version, storing the seed file as the first version when there is none.
+     * Blocks, since nothing can be priced without a table.
+     */
+    @PostConstruct
+    void load() {
+        RateTable table = rateTableRepository.findLatestVersion()
+                .flatMap(this::loadVersion)
+                .switchIfEmpty(Mono.defer(() -> {
+                    List<RateTableEntry> entries = readSeedFile();
+                    // Rejects an invalid seed file before anything is stored
+                    RateTable.of(0, entries);
+                    log.info("No rate table in the database, storing {}", properties.getSeedFile().getDescription());
+                    return rateTableRepository.save(entries, "Seeded from " + properties.getSeedFile().getFilename())
+                            .map(version -> RateTable.of(version, entries));
+                }))
+                .block(Duration.ofSeconds(30));
+        install(table);
+    }
+
+    public RateTable current() {
+        return current;
+    }
+
+    /**
+     * Validates and stores the entries as a new version, then prices with it.
+     */
+    public Mono<RateTable> update(List<RateTableEntry> entries, String description) {
+        log.info("Publishing rate table with {} entries", entries.size());
+        return Mono.fromCallable(() -> RateTable.of(0, entries))
+                .flatMap(validated -> rateTableRepository.save(entries, description))
+                .map(version -> RateTable.of(version, entries))
+                .doOnNext(this::install)
+                .doOnError(error -> log.error("Error publishing rate table: {}", error.getMessage()));
+    }
+
+    /**
+     * Picks up versions published by other instances.
+     */
+    @Scheduled(fixedDelayString = "${loan.rate-table.refresh-interval:30s}")
+    public void refresh() {
+        rateTableRepository.findLatestVersion()
+                .filter(version -> version > current.getVersion())
+                .flatMap(this::loadVersion)
+                .subscribe(this::install,
+                        error -> log.error("Error refreshing rate table: {}", error.getMessage()));
+    }
+
+    private Mono<RateTable> loadVersion(long version) {
+        return rateTableRepository.findEntries(version)
+                .collectList()
+                .map(entries -> RateTable.of(version, entries));
+    }
+
+    private synchronized void install(RateTable table) {
+        // Concurrent updates and refreshes may finish out of order; never go back to an older version
+        if (current == null || table.getVersion() > current.getVersion()) {
+            current = table;
+            log.info("Pricing with rate table version {}", table.getVersion());
+        }
+    }
+
+    private List<RateTableEntry> readSeedFile() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(properties.getSeedFile().getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .skip(1)
+                    .filter(line -> !line.isBlank())
+                    .map(line -> {
+                        String[] fields = line.split(",");
+                        return new RateTableEntry(LoanType.valueOf(fields[0].trim()), new BigDecimal(fields[1].trim()),
+                                Integer.valueOf(fields[2].trim()), Integer.valueOf(fields[3].trim()),
+                                new BigDecimal(fields[4].trim()));
+                    })
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read rate table seed file", e);
+        }
+    }
+}
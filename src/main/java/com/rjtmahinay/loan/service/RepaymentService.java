@@ -0,0 +1,397 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.PaymentProperties;
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.model.LoanAccount.DelinquencyBucket;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanPayment;
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.repository.LoanLedgerRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Services disbursed loans: opens an account at disbursement and posts repayments against it. Each payment
+ * first pays interest accrued since the last posting, then principal; installments are counted off the
+ * scheduled monthly payment to keep the due date and days past due current.
+ * <p>
+ * Single payments and bank files go through the same chunk posting: load the chunk's accounts and already
+ * posted references, apply the payments in memory in date order, then write ledger and accounts in one
+ * transaction. A chunk that loses an optimistic-lock race is re-read and re-applied. Loans a chunk pays off
+ * leave the {@link ExposureRollup}.
+ */
+@Slf4j
+@Service
+public class RepaymentService {
+
+    private static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final LoanLedgerRepository ledgerRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final ExposureRollup exposureRollup;
+    private final PaymentProperties properties;
+    private final ShardRouter shardRouter;
+    private final Timer chunkLatency;
+    private final Counter postedPayments;
+    private final Counter rejectedPayments;
+
+    public RepaymentService(LoanLedgerRepository ledgerRepository,
+                            LoanApplicationRepository loanApplicationRepository,
+                            ExposureRollup exposureRollup,
+                            PaymentProperties properties,
+                            ShardRouter shardRouter,
+                            MeterRegistry meterRegistry) {
+        this.ledgerRepository = ledgerRepository;
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.exposureRollup = exposureRollup;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.chunkLatency = Timer.builder("loan.payments.chunk.latency")
+                .description("Time to post one chunk of payments")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.postedPayments = Counter.builder("loan.payments.posted")
+                .description("Payments posted to the ledger")
+                .register(meterRegistry);
+        this.rejectedPayments = Counter.builder("loan.payments.rejected")
+                .description("Payments rejected or skipped as duplicates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens the servicing account of a just-disbursed loan; the first installment is due a month later.
+     */
+    public Mono<Void> openAccount(LoanApplication application) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LoanAccount account = new LoanAccount(application.getId(), application.getCustomerId(),
+                application.getLoanAmount(), application.getInterestRate(), application.getMonthlyPayment(),
+                application.getLoanTermMonths(), application.getLoanAmount(), BigDecimal.ZERO.setScale(2), today,
+                BigDecimal.ZERO.setScale(2), today.plusMonths(1), 0, DelinquencyBucket.CURRENT, null, now, now, 0L);
+        return shardRouter.byId(application.getId(), ledgerRepository.openAccount(account))
+                .doOnSuccess(unused -> log.info("Opened loan account for application {}", application.getId()));
+    }
+
+    /**
+     * Account with days past due brought up to today.
+     */
+    public Mono<LoanAccount> getAccount(Long applicationId) {
+        log.info("Fetching loan account for application ID: {}", applicationId);
+        return shardRouter.byId(applicationId, ledgerRepository.findAccount(applicationId))
+                .map(account -> {
+                    age(account, LocalDate.now());
+                    return account;
+                });
+    }
+
+    public Flux<LoanPayment> getPayments(Long applicationId) {
+        log.info("Fetching payments for application ID: {}", applicationId);
+        return shardRouter.byId(applicationId, ledgerRepository.findPayments(applicationId));
+    }
+
+    /**
+     * Posts one payment.
+     *
+     * @return the ledger entry; fails when the payment is rejected or its reference was already posted
+     */
+    public Mono<LoanPayment> postPayment(IncomingPayment payment) {
+        if (payment.applicationId() == null || payment.reference() == null || payment.amount() == null) {
+            return Mono.error(new RuntimeException("Application ID, reference and amount are required"));
+        }
+        log.info("Posting payment {} of {} to application {}", payment.reference(), payment.amount(), payment.applicationId());
+        return shardRouter.byId(payment.applicationId(), postChunk(List.of(payment)))
+                .flatMap(result -> {
+                    if (!result.posted().isEmpty()) {
+                        return Mono.just(result.posted().get(0));
+                    }
+                    String reason = result.rejections().isEmpty()
+                            ? "Payment " + payment.reference() + " was already posted"
+                            : result.rejections().get(0).reason();
+                    return Mono.error(new RuntimeException(reason));
+                });
+    }
+
+    /**
+     * Posts a bank file, one {@code reference,application_id,amount,paid_on} line per payment; a header line and
+     * blank lines are skipped. Payments whose reference is already in the ledger are skipped, so a file can be
+     * posted again after a failure.
+     */
+    public Mono<BatchPostingResult> postBankFile(Flux<String> lines) {
+        long start = System.nanoTime();
+        BatchPostingResult total = new BatchPostingResult(properties.getMaxReportedRejections());
+        return lines
+                .index()
+                .filter(line -> !line.getT2().isBlank() && !line.getT2().startsWith("reference"))
+                .map(line -> parse(line.getT1() + 1, line.getT2()))
+                .buffer(properties.getChunkSize())
+                .concatMap(chunk -> {
+                    List<IncomingPayment> payments = new ArrayList<>(chunk.size());
+                    for (ParsedLine parsed : chunk) {
+                        if (parsed.payment() != null) {
+                            payments.add(parsed.payment());
+                        } else {
+                            total.reject(parsed.rejection());
+                            rejectedPayments.increment();
+                        }
+                    }
+                    return postAcrossShards(payments);
+                })
+                .doOnNext(total::add)
+                .then(Mono.fromSupplier(() -> total))
+                .doOnSuccess(result -> log.info("Posted bank file: {} payments, {} duplicates, {} rejected in {} ms",
+                        result.getPosted(), result.getDuplicates(), result.getRejected(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    private Flux<ChunkResult> postAcrossShards(List<IncomingPayment> payments) {
+        Map<Integer, List<IncomingPayment>> byShard = new LinkedHashMap<>();
+        for (IncomingPayment payment : payments) {
+            byShard.computeIfAbsent(shardRouter.shardOfId(payment.applicationId()), shard -> new ArrayList<>()).add(payment);
+        }
+        return Flux.fromIterable(byShard.entrySet())
+                .concatMap(shard -> shardRouter.onShard(shard.getKey(), postChunk(shard.getValue())));
+    }
+
+    private Mono<ChunkResult> postChunk(List<IncomingPayment> payments) {
+        if (payments.isEmpty()) {
+            return Mono.just(new ChunkResult(List.of(), 0, List.of(), List.of()));
+        }
+        Set<Long> applicationIds = payments.stream().map(IncomingPayment::applicationId).collect(Collectors.toSet());
+        Set<String> references = payments.stream().map(IncomingPayment::reference).collect(Collectors.toSet());
+
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return Mono.zip(
+                                    ledgerRepository.findAccounts(applicationIds)
+                                            .collectMap(LoanAccount::getApplicationId, Function.identity()),
+                                    ledgerRepository.findPostedReferences(references).collect(Collectors.toSet()))
+                            .flatMap(loaded -> {
+                                ChunkResult result = apply(payments, loaded.getT1(), loaded.getT2());
+                                Set<LoanAccount> changed = new HashSet<>();
+                                result.posted().forEach(entry -> changed.add(loaded.getT1().get(entry.getApplicationId())));
+                                return ledgerRepository.post(result.posted(), changed).thenReturn(result);
+                            })
+                            .doOnSuccess(result -> chunkLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                })
+                .retryWhen(Retry.max(MAX_CONFLICT_RETRIES)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .doBeforeRetry(signal -> log.debug("Payment chunk hit a concurrent posting, retrying")))
+                .doOnSuccess(result -> {
+                    postedPayments.increment(result.posted().size());
+                    rejectedPayments.increment(result.duplicates() + result.rejections().size());
+                })
+                .flatMap(result -> removePaidOff(result.paidOff()).thenReturn(result));
+    }
+
+    /**
+     * Takes loans the chunk paid off out of the exposure rollup. The postings are committed by now, so a failed
+     * lookup is logged rather than failing them; the loan then leaves the rollup at the next restart.
+     */
+    private Mono<Void> removePaidOff(List<Long> applicationIds) {
+        if (applicationIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return loanApplicationRepository.findAllById(applicationIds)
+                .doOnNext(exposureRollup::remove)
+                .doOnNext(application -> log.info("Loan application {} is paid off", application.getId()))
+                .then()
+                .doOnError(error -> log.error("Error removing paid-off loans {} from exposure: {}", applicationIds,
+                        error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    private ChunkResult apply(List<IncomingPayment> payments, Map<Long, LoanAccount> accounts, Set<String> postedReferences) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> seen = new HashSet<>(postedReferences);
+        List<LoanPayment> posted = new ArrayList<>();
+        List<Rejection> rejections = new ArrayList<>();
+        List<Long> paidOff = new ArrayList<>();
+        int duplicates = 0;
+
+        List<IncomingPayment> ordered = payments.stream().sorted(Comparator.comparing(IncomingPayment::paidOn)).toList();
+        for (IncomingPayment payment : ordered) {
+            if (!seen.add(payment.reference())) {
+                duplicates++;
+                continue;
+            }
+            LoanAccount account = accounts.get(payment.applicationId());
+            String problem = account == null ? "No disbursed loan " + payment.applicationId() : validate(account, payment);
+            if (problem != null) {
+                rejections.add(new Rejection(payment.reference(), problem));
+                continue;
+            }
+            posted.add(post(account, payment, now));
+            if (account.getBalance().signum() == 0) {
+                paidOff.add(account.getApplicationId());
+            }
+        }
+        return new ChunkResult(posted, duplicates, rejections, paidOff);
+    }
+
+    private static String validate(LoanAccount account, IncomingPayment payment) {
+        if (payment.amount().signum() <= 0) {
+            return "Payment amount must be positive";
+        }
+        // Ledger and balances are kept in cents; 100.005 would be applied in full but stored rounded
+        if (payment.amount().stripTrailingZeros().scale() > 2) {
+            return "Payment amount must be in whole cents";
+        }
+        if (account.getBalance().signum() == 0) {
+            return "Loan " + account.getApplicationId() + " is paid off";
+        }
+        BigDecimal payoff = account.getBalance().add(account.getAccruedInterest()).add(accrued(account, payment.paidOn()));
+        if (payment.amount().compareTo(payoff) > 0) {
+            return "Payment exceeds payoff amount " + payoff;
+        }
+        return null;
+    }
+
+    /**
+     * Applies one payment to the account in place: interest accrued up to the payment date first, then principal.
+     */
+    private static LoanPayment post(LoanAccount account, IncomingPayment payment, LocalDateTime now) {
+        // Exact: validate() rejects amounts finer than cents
+        BigDecimal amount = payment.amount().setScale(2);
+        BigDecimal interestDue = account.getAccruedInterest().add(accrued(account, payment.paidOn()));
+        BigDecimal interest = amount.min(interestDue);
+        BigDecimal principal = amount.subtract(interest);
+
+        account.setAccruedInterest(interestDue.subtract(interest));
+        if (payment.paidOn().isAfter(account.getInterestThrough())) {
+            account.setInterestThrough(payment.paidOn());
+        }
+        account.setBalance(account.getBalance().subtract(principal));
+
+        // Count off whole installments to move the due date
+        BigDecimal credit = account.getInstallmentCredit().add(amount);
+        while (credit.compareTo(account.getMonthlyPayment()) >= 0 && account.getBalance().signum() > 0) {
+            credit = credit.subtract(account.getMonthlyPayment());
+            account.setNextDueDate(account.getNextDueDate().plusMonths(1));
+        }
+        account.setInstallmentCredit(account.getBalance().signum() > 0 ? credit : BigDecimal.ZERO.setScale(2));
+        if (account.getLastPaymentDate() == null || payment.paidOn().isAfter(account.getLastPaymentDate())) {
+            account.setLastPaymentDate(payment.paidOn());
+        }
+        age(account, payment.paidOn());
+        account.setUpdatedAt(now);
+
+        return new LoanPayment(null, account.getApplicationId(), payment.reference(), amount, principal,
+                interest, account.getBalance(), payment.paidOn(), now);
+    }
+
+    private static BigDecimal accrued(LoanAccount account, LocalDate through) {
+        return Amortization.interest(account.getBalance(), account.getInterestRate(),
+                ChronoUnit.DAYS.between(account.getInterestThrough(), through));
+    }
+
+    /**
+     * Sets days past due and the aging bucket as of {@code asOf}.
+     */
+    static void age(LoanAccount account, LocalDate asOf) {
+        int daysPastDue = account.getBalance().signum() == 0 || !asOf.isAfter(account.getNextDueDate())
+                ? 0
+                : (int) ChronoUnit.DAYS.between(account.getNextDueDate(), asOf);
+        account.setDaysPastDue(daysPastDue);
+        account.setDelinquencyBucket(DelinquencyBucket.of(daysPastDue));
+    }
+
+    private static ParsedLine parse(long lineNumber, String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 4) {
+            return ParsedLine.rejected(new Rejection("line " + lineNumber, "Expected reference,application_id,amount,paid_on"));
+        }
+        String reference = fields[0].trim();
+        try {
+            return new ParsedLine(new IncomingPayment(Long.valueOf(fields[1].trim()), reference,
+                    new BigDecimal(fields[2].trim()), LocalDate.parse(fields[3].trim())), null);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return ParsedLine.rejected(new Rejection(reference, "Line " + lineNumber + " is not valid: " + e.getMessage()));
+        }
+    }
+
+    public record IncomingPayment(Long applicationId, String reference, BigDecimal amount, LocalDate paidOn) {
+    }
+
+    public record Rejection(String reference, String reason) {
+    }
+
+    private record ParsedLine(IncomingPayment payment, Rejection rejection) {
+
+        private static ParsedLine rejected(Rejection rejection) {
+            return new ParsedLine(null, rejection);
+        }
+    }
+
+    private record ChunkResult(List<LoanPayment> posted, int duplicates, List<Rejection> rejections,
+                               List<Long> paidOff) {
+    }
+
+    /**
+     * Outcome of posting a bank file. Only the first rejections are listed; all are counted.
+     */
+    public static final class BatchPostingResult {
+
+        private final int maxReported;
+        private long posted;
+        private long duplicates;
+        private long rejected;
+        private final List<Rejection> rejections = new ArrayList<>();
+
+        private BatchPostingResult(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        private void add(ChunkResult chunk) {
+            posted += chunk.posted().size();
+            duplicates += chunk.duplicates();
+            chunk.rejections().forEach(this::reject);
+        }
+
+        private void reject(Rejection rejection) {
+            rejected++;
+            if (rejections.size() < maxReported) {
+                rejections.add(rejection);
+            }
+        }
+
+        public long getPosted() {
+            return posted;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public List<Rejection> getRejections() {
+            return rejections;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.ReviewQueueProperties;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.repository.ReviewLeaseRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out UNDER_REVIEW applications to reviewers in submission order. Each claim leases a batch of
+ * applications with one conditional UPDATE, so concurrent reviewers never receive the same application
+ * and never wait on each other's rows. While a lease lasts, only its token can approve or reject the
+ * application (see {@link #requireLeaseHolder}).
+ */
+@Slf4j
+@Service
+public class ReviewQueueService {
+
+    private final ReviewLeaseRepository leaseRepository;
+    private final LoanApplicationWriteCoalescer writeCoalescer;
+    private final ReviewQueueProperties properties;
+    private final ShardRouter shardRouter;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final Timer claimLatency;
+    private final Counter claimedApplications;
+    private final Counter reclaimedLeases;
+
+    public ReviewQueueService(ReviewLeaseRepository leaseRepository,
+                              LoanApplicationWriteCoalescer writeCoalescer,
+                              ReviewQueueProperties properties,
+                              ShardRouter shardRouter,
+                              MeterRegistry meterRegistry) {
+        this.leaseRepository = leaseRepository;
+        this.writeCoalescer = writeCoalescer;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.claimLatency = Timer.builder("loan.review-queue.claim.latency")
+                .description("Time to lease and load one batch of applications")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.claimedApplications = Counter.builder("loan.review-queue.claimed")
+                .description("Applications leased to reviewers")
+                .register(meterRegistry);
+        this.reclaimedLeases = Counter.builder("loan.review-queue.reclaimed")
+                .description("Expired leases returned to the queue by the sweeper")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Leases the next {@code limit} unclaimed applications to {@code reviewer}. The returned claim may hold
+     * fewer applications than asked for when the queue is short or concurrent claims kept winning its rows.
+     */
+    public Mono<Claim> claim(String reviewer, int limit) {
+        if (limit < 1) {
+            return Mono.error(new RuntimeException("Claim size must be at least 1"));
+        }
+        int size = Math.min(limit, properties.getMaxClaimSize());
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(properties.getLeaseDuration());
+        log.info("Reviewer {} claiming up to {} applications", reviewer, size);
+
+        long start = System.nanoTime();
+        // Rotate the starting shard so no shard's queue is always drained first
+        int firstShard = Math.floorMod(nextShard.getAndIncrement(), shardRouter.shardCount());
+        return claimFrom(firstShard, 0, size, reviewer, token, now, expiresAt)
+                .map(writeCoalescer::applyPending)
+                .collectList()
+                .map(applications -> new Claim(token, reviewer, expiresAt, applications))
+                .doOnSuccess(claim -> {
+                    claimLatency.record(Duration.ofNanos(System.nanoTime() - start));
+                    claimedApplications.increment(claim.applications().size());
+                    log.info("Reviewer {} leased {} applications until {}", reviewer, claim.applications().size(), expiresAt);
+                });
+    }
+
+    /**
+     * Claims up to {@code remaining} applications on one shard, moving on to the next shard while the claim is
+     * not filled. Order is oldest first within each shard.
+     */
+    private Flux<LoanApplication> claimFrom(int shard, int visited, int remaining, String reviewer, String token,
+                                            LocalDateTime now, LocalDateTime expiresAt) {
+        if (remaining == 0 || visited == shardRouter.shardCount()) {
+            return Flux.empty();
+        }
+        int nextShard = (shard + 1) % shardRouter.shardCount();
+        return shardRouter.onShard(shard, leaseRepository.claim(reviewer, token, remaining, now, expiresAt))
+                .flatMapMany(claimed -> (claimed == 0
+                        ? Flux.<LoanApplication>empty()
+                        : shardRouter.onShard(shard, leaseRepository.findByLeaseToken(token)))
+                        .concatWith(claimFrom(nextShard, visited + 1, remaining - claimed.intValue(),
+                                reviewer, token, now, expiresAt)));
+    }
+
+    /**
+     * Extends a lease that has not expired yet by another lease duration from now.
+     */
+    public Mono<LocalDateTime> renew(Long id, String token) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(properties.getLeaseDuration());
+        return shardRouter.byId(id, leaseRepository.renew(id, token, now, expiresAt))
+                .flatMap(renewed -> renewed
+                        ? Mono.just(expiresAt)
+                        : Mono.error(new RuntimeException("No active lease on application " + id + " for this token")));
+    }
+
+    /**
+     * Returns a leased application to the queue before its lease expires.
+     */
+    public Mono<Void> release(Long id, String token) {
+        return shardRouter.byId(id, leaseRepository.release(id, token))
+                .flatMap(released -> released
+                        ? Mono.<Void>empty()
+                        : Mono.error(new RuntimeException("No lease on application " + id + " for this token")));
+    }
+
+    /**
+     * Completes when a decision on the application may be made under {@code token}: the application is not
+     * leased, its lease has expired, or {@code token} holds it. Fails with {@link IllegalStateException} while
+     * another reviewer holds it, or while anyone does and {@code token} is null.
+     */
+    public Mono<Void> requireLeaseHolder(Long id, String token) {
+        return shardRouter.byId(id, leaseRepository.isLeasedToOther(id, token, LocalDateTime.now()))
+                .flatMap(leasedToOther -> leasedToOther
+                        ? Mono.<Void>error(new IllegalStateException("Application " + id + " is leased to another reviewer"))
+                        : Mono.<Void>empty());
+    }
+
+    /**
+     * Claims already treat expired leases as free; the sweep clears them so lease columns reflect
+     * who is actually working on what.
+     */
+    @Scheduled(fixedDelayString = "${loan.review-queue.sweep-interval:30s}")
+    public void reclaimExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        shardRouter.onAllShards(shard -> leaseRepository.reclaimExpired(now).flux())
+                .reduce(0L, Long::sum)
+                .doOnSuccess(reclaimed -> {
+                    if (reclaimed > 0) {
+                        reclaimedLeases.increment(reclaimed);
+                        log.info("Returned {} expired review leases to the queue", reclaimed);
+                    }
+                })
+                .doOnError(error -> log.error("Error reclaiming expired review leases: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .subscribe();
+    }
+
+    public record Claim(String token, String reviewer, LocalDateTime expiresAt, List<LoanApplication> applications) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.cache.LoanApplicationCache;
+import com.rjtmahinay.loan.config.SlaSweeperProperties;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.repository.StaleApplicationRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Enforces application SLAs: stale SUBMITTED applications are moved to UNDER_REVIEW, and applications idle in
+ * SUBMITTED or UNDER_REVIEW past the cancellation threshold are CANCELLED so they stop counting toward the
+ * customer's active-application limit.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "loan.sla-sweeper", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlaSweeper {
+
+    // Recorded as the actor of the transitions the sweeper makes
+    private static final String ACTOR = "sla-sweeper";
+
+    private final StaleApplicationRepository staleApplicationRepository;
+    private final ActiveApplicationCounter activeApplicationCounter;
+    private final SlaSweeperProperties properties;
+    private final ShardRouter shardRouter;
+    private final LoanApplicationEventLog eventLog;
+    private final LoanApplicationCache applicationCache;
+    private final MeterRegistry meterRegistry;
+    private final Timer sweepDuration;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SlaSweeper(StaleApplicationRepository staleApplicationRepository,
+                      ActiveApplicationCounter activeApplicationCounter,
+                      SlaSweeperProperties properties,
+                      ShardRouter shardRouter,
+                      LoanApplicationEventLog eventLog,
+                      LoanApplicationCache applicationCache,
+                      MeterRegistry meterRegistry) {
+        this.staleApplicationRepository = staleApplicationRepository;
+        this.activeApplicationCounter = activeApplicationCounter;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.eventLog = eventLog;
+        this.applicationCache = applicationCache;
+        this.meterRegistry = meterRegistry;
+        this.sweepDuration = Timer.builder("loan.sla-sweeper.duration")
+                .description("Time taken by one SLA sweep")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${loan.sla-sweeper.interval:1m}")
+    public void scheduledSweep() {
+        // A sweep that outlives the interval keeps running; the next one is skipped rather than overlapping it
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Previous SLA sweep still running, skipping");
+            return;
+        }
+        sweep()
+                .doOnError(error -> log.error("Error during SLA sweep: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .doFinally(signal -> running.set(false))
+                .subscribe();
+    }
+
+    /**
+     * @return the number of applications changed
+     */
+    public Mono<Long> sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cancelIdleSince = now.minus(properties.getCancelAfter());
+        LocalDateTime reviewIdleSince = now.minus(properties.getReviewAfter());
+        long start = System.nanoTime();
+
+        // Cancel first so an application idle past both thresholds ends up CANCELLED, not UNDER_REVIEW
+        return transition(ApplicationStatus.UNDER_REVIEW, ApplicationStatus.CANCELLED, cancelIdleSince, now)
+                .concatWith(transition(ApplicationStatus.SUBMITTED, ApplicationStatus.CANCELLED, cancelIdleSince, now))
+                .concatWith(transition(ApplicationStatus.SUBMITTED, ApplicationStatus.UNDER_REVIEW, reviewIdleSince, now))
+                .reduce(0L, Long::sum)
+                .doOnSuccess(total -> {
+                    sweepDuration.record(Duration.ofNanos(System.nanoTime() - start));
+                    if (total > 0) {
+                        log.info("SLA sweep changed {} loan applications", total);
+                    }
+                });
+    }
+
+    /**
+     * Runs batches on every shard until one comes back short or the per-sweep cap is reached.
+     */
+    private Mono<Long> transition(ApplicationStatus from, ApplicationStatus to, LocalDateTime idleSince, LocalDateTime now) {
+        int batchSize = properties.getBatchSize();
+        Counter rows = Counter.builder("loan.sla-sweeper.rows")
+                .description("Applications changed by the SLA sweeper")
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .register(meterRegistry);
+
+        // Shards are swept concurrently, each with its own batch cap
+        return shardRouter.onAllShards(shard -> Flux.range(0, properties.getMaxBatchesPerSweep())
+                        .concatMap(batch -> staleApplicationRepository.transitionIdle(from, to, idleSince, now, batchSize)
+                                .collectList()
+                                .flatMap(ids -> eventLog.recordAll(ids, from, to, ACTOR)
+                                        .then(applicationCache.evictApplications(ids))
+                                        .thenReturn((long) ids.size())))
+                        .takeUntil(changed -> changed < batchSize))
+                .doOnNext(changed -> {
+                    rows.increment(changed);
+                    // The batch UPDATE does not report which customers it touched; cancellations are rare
+                    // enough that reloading every active-application count afterwards is cheap
+                    if (to == ApplicationStatus.CANCELLED && changed > 0) {
+                        activeApplicationCounter.evictAll();
+                    }
+                    log.debug("SLA sweep moved {} applications from {} to {}", changed, from, to);
+                })
+                .reduce(0L, Long::sum);
+    }
+}
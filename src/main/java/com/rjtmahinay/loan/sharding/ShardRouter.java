@@ -0,0 +1,98 @@
+package com.rjtmahinay.loan.sharding;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Directs repository calls to a shard. A customer's shard is fixed when it is created and is encoded in its id,
+ * as is every application's, so any id or customer id resolves to its shard without a lookup. Queries not keyed
+ * by either run on every shard in parallel and their results are merged.
+ * <p>
+ * The target shard travels in the Reactor context and must be applied downstream of the repository call. With
+ * sharding disabled there is a single shard and every method here is a pass-through.
+ */
+@Component
+public class ShardRouter {
+
+    static final String SHARD = ShardRouter.class.getName() + ".SHARD";
+
+    private final int shardCount;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? Math.max(1, properties.getShards().size()) : 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Shard holding the customer or application with this id.
+     */
+    public int shardOfId(Long id) {
+        int shard = ShardedIdGenerator.shardOf(id);
+        if (shard >= shardCount) {
+            throw new IllegalArgumentException("Id " + id + " belongs to unknown shard " + shard);
+        }
+        return shard;
+    }
+
+    /**
+     * Shard for a new customer, spread by email so customers distribute evenly.
+     */
+    public int shardForEmail(String email) {
+        return Math.floorMod(email.toLowerCase().hashCode(), shardCount);
+    }
+
+    public <T> Mono<T> onShard(int shard, Mono<T> query) {
+        return shardCount == 1 ? query : query.contextWrite(context -> context.put(SHARD, shard));
+    }
+
+    public <T> Flux<T> onShard(int shard, Flux<T> query) {
+        return shardCount == 1 ? query : query.contextWrite(context -> context.put(SHARD, shard));
+    }
+
+    /**
+     * Runs the query on the shard owning {@code id}; fails if the id names a shard that is not configured.
+     */
+    public <T> Mono<T> byId(Long id, Mono<T> query) {
+        return Mono.defer(() -> onShard(shardOfId(id), query));
+    }
+
+    public <T> Flux<T> byId(Long id, Flux<T> query) {
+        return Flux.defer(() -> onShard(shardOfId(id), query));
+    }
+
+    /**
+     * Runs the query on every shard concurrently; results arrive in completion order.
+     */
+    public <T> Flux<T> onAllShards(IntFunction<? extends Flux<T>> query) {
+        if (shardCount == 1) {
+            return query.apply(0);
+        }
+        return Flux.merge(IntStream.range(0, shardCount)
+                .mapToObj(shard -> onShard(shard, query.apply(shard)))
+                .toList());
+    }
+
+    /**
+     * Runs a query whose per-shard results are sorted by {@code order} on every shard concurrently and merges
+     * them into one sorted stream.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> onAllShardsOrdered(IntFunction<? extends Flux<T>> query, Comparator<? super T> order) {
+        if (shardCount == 1) {
+            return query.apply(0);
+        }
+        List<Flux<T>> perShard = IntStream.range(0, shardCount)
+                .mapToObj(shard -> onShard(shard, query.apply(shard)))
+                .toList();
+        return Flux.mergeComparing(order, perShard.toArray(Flux[]::new));
+    }
+}
@@ -0,0 +1,31 @@
+package com.rjtmahinay.loan.sharding;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections to the shard named in the Reactor context by {@link ShardRouter}. Calls made without a
+ * shard, such as schema initialization, go to shard 0.
+ */
+class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    ShardRoutingConnectionFactory(List<? extends ConnectionFactory> shards) {
+        Map<Integer, ConnectionFactory> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(ShardRouter.SHARD)));
+    }
+}
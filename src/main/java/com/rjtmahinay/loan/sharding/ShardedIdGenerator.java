@@ -0,0 +1,64 @@
+package com.rjtmahinay.loan.sharding;
+
+import java.time.Instant;
+
+/**
+ * Globally unique, roughly time-ordered ids that carry their shard, generated without a central sequence.
+ * Layout, from the most significant bit: sign (0), shard (8), milliseconds since 2024-01-01 (41), node (6),
+ * sequence within the millisecond (8).
+ * <p>
+ * Ids from the former AUTO_INCREMENT columns are small, so their shard bits are zero and they resolve to shard 0.
+ */
+public class ShardedIdGenerator {
+
+    static final int SHARD_BITS = 8;
+    static final int NODE_BITS = 6;
+    static final int SEQUENCE_BITS = 8;
+    static final int TIMESTAMP_BITS = 41;
+
+    private static final int SHARD_SHIFT = TIMESTAMP_BITS + NODE_BITS + SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private final int nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ShardedIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long nextId(int shard) {
+        if (shard < 0 || shard >= 1 << SHARD_BITS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + ((1 << SHARD_BITS) - 1));
+        }
+        long millis;
+        long seq;
+        synchronized (this) {
+            millis = Math.max(System.currentTimeMillis(), lastMillis);
+            if (millis == lastMillis) {
+                sequence = (sequence + 1) & MAX_SEQUENCE;
+                if (sequence == 0) {
+                    // Sequence exhausted for this millisecond; borrow the next one rather than wait for the clock
+                    millis++;
+                }
+            } else {
+                sequence = 0;
+            }
+            lastMillis = millis;
+            seq = sequence;
+        }
+        return ((long) shard << SHARD_SHIFT)
+                | ((millis - EPOCH) << TIMESTAMP_SHIFT)
+                | ((long) nodeId << SEQUENCE_BITS)
+                | seq;
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT);
+    }
+}
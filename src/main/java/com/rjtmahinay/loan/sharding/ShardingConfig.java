@@ -0,0 +1,105 @@
+package com.rjtmahinay.loan.sharding;
+
+import com.rjtmahinay.loan.config.ConnectionFactories;
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured connection factory with one pool per configured shard, routed by
+ * {@link ShardRouter}, and assigns shard-carrying ids to new customers and applications.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "loan.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    ShardPools shardPools(ShardingProperties properties, ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("loan.sharding.enabled is set but no loan.sharding.shards are configured");
+        }
+        List<ConnectionPool> pools = properties.getShards().stream()
+                .map(shard -> new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.decorate(
+                                ConnectionFactoryBuilder.withUrl(shard.getUrl())
+                                        .username(shard.getUsername())
+                                        .password(shard.getPassword())
+                                        .build(),
+                                decorators))
+                        .maxSize(properties.getMaxPoolSize())
+                        .build()))
+                .toList();
+
+        // Boot initializes only the default target; every shard needs the schema
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        Flux.fromIterable(pools).concatMap(populator::populate).then().block(Duration.ofSeconds(30));
+        log.info("Sharding loan data over {} databases", pools.size());
+        return new ShardPools(pools);
+    }
+
+    @Bean
+    @Primary
+    public ConnectionFactory connectionFactory(ShardPools shardPools) {
+        return new ShardRoutingConnectionFactory(shardPools.pools);
+    }
+
+    @Bean
+    ShardedIdGenerator shardedIdGenerator(ShardingProperties properties) {
+        return new ShardedIdGenerator(properties.getNodeId());
+    }
+
+    @Bean
+    BeforeConvertCallback<Customer> customerIdCallback(ShardedIdGenerator idGenerator, ShardRouter shardRouter) {
+        return (customer, table) -> {
+            if (customer.getId() == null) {
+                customer.setId(idGenerator.nextId(shardRouter.shardForEmail(customer.getEmail())));
+            }
+            return Mono.just(customer);
+        };
+    }
+
+    @Bean
+    BeforeConvertCallback<LoanApplication> loanApplicationIdCallback(ShardedIdGenerator idGenerator,
+                                                                     ShardRouter shardRouter) {
+        return (application, table) -> {
+            if (application.getId() == null) {
+                // Applications live with their customer
+                application.setId(idGenerator.nextId(shardRouter.shardOfId(application.getCustomerId())));
+            }
+            return Mono.just(application);
+        };
+    }
+
+    static final class ShardPools implements DisposableBean {
+
+        private final List<ConnectionPool> pools;
+
+        private ShardPools(List<ConnectionPool> pools) {
+            this.pools = pools;
+        }
+
+        @Override
+        public void destroy() {
+            pools.forEach(ConnectionPool::dispose);
+        }
+    }
+}
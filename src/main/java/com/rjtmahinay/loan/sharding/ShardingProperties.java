@@ -0,0 +1,41 @@
+package com.rjtmahinay.loan.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "loan.sharding")
+public class ShardingProperties {
+
+    /**
+     * Spread customers and their applications over the databases listed in {@code shards}. When disabled
+     * everything lives in {@code spring.r2dbc}. Requires the R2DBC persistence mode.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Identifies this instance in generated ids (0-63); instances sharing the shards must use distinct values.
+     */
+    private int nodeId = 0;
+
+    private int maxPoolSize = 10;
+
+    /**
+     * Shard databases in shard-number order. The order is part of every generated id and must never change;
+     * shard 0 also holds every row created before sharding was enabled.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
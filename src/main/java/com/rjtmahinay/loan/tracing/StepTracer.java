@@ -0,0 +1,32 @@
+package com.rjtmahinay.loan.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records one step of a service call as an observation: a child span of the request when tracing samples it,
+ * and a {@code <name>} timer either way. Database queries the step runs become its child spans.
+ */
+@Component
+@RequiredArgsConstructor
+public class StepTracer {
+
+    private final ObservationRegistry observationRegistry;
+
+    public <T> Mono<T> trace(String name, Mono<T> step) {
+        return step.name(name).tap(Micrometer.observation(observationRegistry));
+    }
+
+    public <T> Flux<T> trace(String name, Flux<T> step) {
+        return step.name(name).tap(Micrometer.observation(observationRegistry));
+    }
+
+    public void trace(String name, Runnable step) {
+        Observation.createNotStarted(name, observationRegistry).observe(step);
+    }
+}
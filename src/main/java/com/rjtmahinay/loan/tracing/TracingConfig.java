@@ -0,0 +1,23 @@
+package com.rjtmahinay.loan.tracing;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span export besides OTLP, which Spring Boot sets up when {@code management.otlp.tracing.endpoint} is set.
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loan.tracing", name = "log-exporter", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        log.info("Writing finished spans to the log");
+        return LoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,82 @@
+package com.rjtmahinay.loan.velocity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free event counts over the last minute, hour and day for one key. Each window is a ring of time buckets;
+ * a bucket's slot packs the bucket's epoch (its start time divided by the bucket width) with its count, so a
+ * stale bucket is recognised and restarted by the same compare-and-set that counts into it, without a rotation
+ * thread or locks. Counts are accurate to one bucket width at the trailing edge of each window.
+ */
+final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private static final Window[] WINDOWS = Window.values();
+    private static final int[] OFFSETS = new int[WINDOWS.length];
+    private static final int SLOTS;
+
+    static {
+        int slots = 0;
+        for (Window window : WINDOWS) {
+            OFFSETS[window.ordinal()] = slots;
+            slots += window.getBuckets();
+        }
+        SLOTS = slots;
+    }
+
+    private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+
+    /**
+     * Counts one event at {@code nowMillis} and returns the counts of every window, this event included, indexed
+     * by {@link Window#ordinal()}.
+     */
+    long[] increment(long nowMillis) {
+        long[] counts = new long[WINDOWS.length];
+        for (Window window : WINDOWS) {
+            long epoch = nowMillis / window.getBucketMillis();
+            int slot = OFFSETS[window.ordinal()] + (int) (epoch % window.getBuckets());
+            long current;
+            long next;
+            long countedEpoch;
+            do {
+                current = slots.get(slot);
+                if (current >>> COUNT_BITS < epoch) {
+                    countedEpoch = epoch;
+                    next = epoch << COUNT_BITS | 1;
+                } else {
+                    // The bucket is current, or another thread already moved the slot to a later one: the event is
+                    // counted there, which keeps it in every window a bucket width longer at most
+                    countedEpoch = current >>> COUNT_BITS;
+                    // Saturates rather than carrying into the epoch bits
+                    next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+                }
+            } while (next != current && !slots.compareAndSet(slot, current, next));
+            counts[window.ordinal()] = sum(window, countedEpoch);
+        }
+        return counts;
+    }
+
+    /**
+     * True when nothing has been counted within the longest window.
+     */
+    boolean isIdle(long nowMillis) {
+        Window longest = WINDOWS[WINDOWS.length - 1];
+        return sum(longest, nowMillis / longest.getBucketMillis()) == 0;
+    }
+
+    private long sum(Window window, long epoch) {
+        long oldest = epoch - window.getBuckets() + 1;
+        long total = 0;
+        int offset = OFFSETS[window.ordinal()];
+        for (int i = 0; i < window.getBuckets(); i++) {
+            long value = slots.get(offset + i);
+            long bucketEpoch = value >>> COUNT_BITS;
+            if (bucketEpoch >= oldest && bucketEpoch <= epoch) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
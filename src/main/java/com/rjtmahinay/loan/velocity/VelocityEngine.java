@@ -0,0 +1,141 @@
+package com.rjtmahinay.loan.velocity;
+
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.velocity.VelocityProperties.Attribute;
+import com.rjtmahinay.loan.velocity.VelocityProperties.Rule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts submissions per email, SSN, zip code and VIN across all customers over sliding minute, hour and day
+ * windows, and flags or blocks a submission once a configured threshold is reached. Everything is in memory and
+ * lock-free, so a check costs a few map lookups and compare-and-sets rather than queries.
+ * <p>
+ * Counts are per node: submissions made through another instance are not seen here.
+ */
+@Slf4j
+@Component
+public class VelocityEngine {
+
+    private final VelocityProperties properties;
+    private final Map<Attribute, Map<String, SlidingWindowCounter>> counters = new EnumMap<>(Attribute.class);
+    private final Map<Attribute, List<Rule>> rules = new EnumMap<>(Attribute.class);
+    private final Counter flagged;
+    private final Counter blocked;
+
+    public VelocityEngine(VelocityProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Attribute attribute : Attribute.values()) {
+            Map<String, SlidingWindowCounter> keys = new ConcurrentHashMap<>();
+            counters.put(attribute, keys);
+            rules.put(attribute, properties.getRules().stream().filter(rule -> rule.getAttribute() == attribute).toList());
+            Gauge.builder("loan.velocity.keys", keys, Map::size)
+                    .description("Keys with submissions in the last day")
+                    .tag("attribute", attribute.name())
+                    .register(meterRegistry);
+        }
+        this.flagged = decisions(meterRegistry, Decision.FLAG);
+        this.blocked = decisions(meterRegistry, Decision.BLOCK);
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, Decision decision) {
+        return Counter.builder("loan.velocity.decisions")
+                .description("Submissions flagged or blocked by velocity checks")
+                .tag("decision", decision.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the submission against each of its attributes and checks the thresholds. Attributes the application
+     * or customer does not have are skipped.
+     */
+    public Verdict check(LoanApplication application, Customer customer) {
+        if (!properties.isEnabled()) {
+            return Verdict.ALLOW;
+        }
+        long now = System.currentTimeMillis();
+        List<String> flags = null;
+        boolean block = false;
+        for (Attribute attribute : Attribute.values()) {
+            String key = key(attribute, application, customer);
+            List<Rule> attributeRules = rules.get(attribute);
+            if (key == null || attributeRules.isEmpty()) {
+                continue;
+            }
+            long[] counts = counters.get(attribute).computeIfAbsent(key, k -> new SlidingWindowCounter()).increment(now);
+            for (Rule rule : attributeRules) {
+                long count = counts[rule.getWindow().ordinal()];
+                boolean overBlock = rule.getBlockAt() > 0 && count >= rule.getBlockAt();
+                if (overBlock || rule.getFlagAt() > 0 && count >= rule.getFlagAt()) {
+                    if (flags == null) {
+                        flags = new ArrayList<>(2);
+                    }
+                    flags.add(attribute + "/" + rule.getWindow() + "=" + count);
+                    block |= overBlock;
+                }
+            }
+        }
+        if (flags == null) {
+            return Verdict.ALLOW;
+        }
+        (block ? blocked : flagged).increment();
+        return new Verdict(block ? Decision.BLOCK : Decision.FLAG, String.join(",", flags));
+    }
+
+    private static String key(Attribute attribute, LoanApplication application, Customer customer) {
+        String value = switch (attribute) {
+            case EMAIL -> customer.getEmail();
+            case SSN -> customer.getSsnIndex();
+            case ZIP_CODE -> application.getZipCode();
+            case VIN -> application.getVin();
+        };
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return attribute == Attribute.SSN ? value : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Drops the counters of keys with no submission within the longest window, so memory tracks recent traffic.
+     */
+    @Scheduled(fixedDelayString = "${loan.velocity.sweep-interval:10m}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (Map<String, SlidingWindowCounter> keys : counters.values()) {
+            int before = keys.size();
+            // A submission racing the removal of its key's counter may go uncounted; the key was idle for a day
+            keys.values().removeIf(counter -> counter.isIdle(now));
+            evicted += before - keys.size();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle velocity counters", evicted);
+        }
+    }
+
+    public enum Decision {
+        ALLOW,
+        FLAG,
+        BLOCK
+    }
+
+    /**
+     * @param reasons the thresholds reached, e.g. {@code EMAIL/MINUTE=4,VIN/HOUR=2}; null when allowed
+     */
+    public record Verdict(Decision decision, String reasons) {
+
+        static final Verdict ALLOW = new Verdict(Decision.ALLOW, null);
+    }
+}
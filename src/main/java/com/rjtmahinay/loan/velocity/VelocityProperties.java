@@ -0,0 +1,66 @@
+package com.rjtmahinay.loan.velocity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "loan.velocity")
+public class VelocityProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Thresholds on submissions sharing an attribute within a window. Setting this list replaces the defaults.
+     */
+    private List<Rule> rules = new ArrayList<>(List.of(
+            new Rule(Attribute.EMAIL, Window.MINUTE, 3, 10),
+            new Rule(Attribute.EMAIL, Window.DAY, 10, 30),
+            new Rule(Attribute.SSN, Window.HOUR, 3, 10),
+            new Rule(Attribute.SSN, Window.DAY, 5, 20),
+            new Rule(Attribute.ZIP_CODE, Window.MINUTE, 30, 0),
+            new Rule(Attribute.ZIP_CODE, Window.HOUR, 300, 0),
+            new Rule(Attribute.VIN, Window.HOUR, 2, 5),
+            new Rule(Attribute.VIN, Window.DAY, 3, 10)));
+
+    /**
+     * Delay between sweeps that drop the counters of keys with no submission in the last day.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(10);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+
+        private Attribute attribute;
+
+        private Window window;
+
+        /**
+         * Submissions in the window, this one included, at which the application is flagged; 0 never flags.
+         */
+        private int flagAt;
+
+        /**
+         * Submissions in the window, this one included, at which the application is refused; 0 never blocks.
+         */
+        private int blockAt;
+    }
+
+    /**
+     * Submission attributes counted across customers.
+     */
+    public enum Attribute {
+        EMAIL,
+        // Keyed on the SSN's blind index, never the SSN itself
+        SSN,
+        ZIP_CODE,
+        VIN
+    }
+}
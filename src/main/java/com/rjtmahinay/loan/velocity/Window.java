@@ -0,0 +1,29 @@
+package com.rjtmahinay.loan.velocity;
+
+import java.time.Duration;
+
+/**
+ * Sliding windows the velocity checks count over, each split into equal time buckets.
+ */
+public enum Window {
+
+    MINUTE(Duration.ofMinutes(1), 12),
+    HOUR(Duration.ofHours(1), 12),
+    DAY(Duration.ofDays(1), 24);
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    Window(Duration length, int buckets) {
+        this.bucketMillis = length.toMillis() / buckets;
+        this.buckets = buckets;
+    }
+
+    long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    int getBuckets() {
+        return buckets;
+    }
+}
@@ -6,7 +6,9 @@ CREATE TABLE IF NOT EXISTS customers (
     phone_number VARCHAR(20),
     address TEXT NOT NULL,
     date_of_birth VARCHAR(20),
-    ssn VARCHAR(11),
+    -- AES-GCM ciphertext of the SSN; ssn_index is its HMAC blind index for equality lookups
+    ssn VARCHAR(128),
+    ssn_index VARCHAR(64),
     annual_income DECIMAL(15,2),
     employment_status VARCHAR(50),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -23,6 +25,7 @@ CREATE TABLE IF NOT EXISTS loan_applications (
     purpose TEXT,
     status VARCHAR(20) NOT NULL DEFAULT 'SUBMITTED',
     interest_rate DECIMAL(5,4),
+    rate_table_version BIGINT,
     monthly_payment DECIMAL(10,2),
     approval_date TIMESTAMP NULL,
     rejection_reason TEXT,
@@ -35,6 +38,10 @@ CREATE TABLE IF NOT EXISTS loan_applications (
     vehicle_year INTEGER,
     vehicle_model VARCHAR(50),
     zip_code VARCHAR(10),
+    velocity_flags VARCHAR(255),
+    lease_owner VARCHAR(100),
+    lease_token VARCHAR(36),
+    lease_expires_at TIMESTAMP NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
@@ -56,9 +63,127 @@ CREATE TABLE IF NOT EXISTS loan_applications (
 );
 
 -- Create indexes for better query performance
-CREATE INDEX IF NOT EXISTS idx_customers_email ON customers(email);
-CREATE INDEX IF NOT EXISTS idx_customers_name ON customers(name);
-CREATE INDEX IF NOT EXISTS idx_loan_applications_customer_id ON loan_applications(customer_id);
-CREATE INDEX IF NOT EXISTS idx_loan_applications_status ON loan_applications(status);
+CREATE INDEX IF NOT EXISTS idx_customers_ssn_index ON customers(ssn_index);
+CREATE INDEX IF NOT EXISTS idx_customers_annual_income ON customers(annual_income);
+CREATE INDEX IF NOT EXISTS idx_loan_applications_customer_status ON loan_applications(customer_id, status);
 CREATE INDEX IF NOT EXISTS idx_loan_applications_created_at ON loan_applications(created_at);
 CREATE INDEX IF NOT EXISTS idx_loan_applications_loan_type ON loan_applications(loan_type);
+CREATE INDEX IF NOT EXISTS idx_loan_applications_loan_amount ON loan_applications(loan_amount);
+CREATE INDEX IF NOT EXISTS idx_loan_applications_approval_date ON loan_applications(status, approval_date);
+
+-- Indexes no query can use: email has its UNIQUE constraint's index, status lookups use the (status, ...)
+-- indexes below, and name is only searched with a leading wildcard. Dropped so writes stop maintaining them
+DROP INDEX IF EXISTS idx_customers_email;
+DROP INDEX IF EXISTS idx_customers_name;
+DROP INDEX IF EXISTS idx_loan_applications_status;
+-- Superseded by idx_loan_applications_customer_status; under its old name IF NOT EXISTS would keep the
+-- single-column index on databases created before it was widened
+DROP INDEX IF EXISTS idx_loan_applications_customer_id;
+
+-- Review work-queue: FIFO scan of claimable applications, lookup by claim token, and expired-lease sweep
+CREATE INDEX IF NOT EXISTS idx_loan_applications_status_created_at ON loan_applications(status, created_at);
+CREATE INDEX IF NOT EXISTS idx_loan_applications_lease_token ON loan_applications(lease_token);
+CREATE INDEX IF NOT EXISTS idx_loan_applications_lease_expires_at ON loan_applications(lease_expires_at);
+
+-- SLA sweeper: longest-idle applications per status
+CREATE INDEX IF NOT EXISTS idx_loan_applications_status_updated_at ON loan_applications(status, updated_at);
+
+-- Collateral checks: pledged applications per vehicle
+CREATE INDEX IF NOT EXISTS idx_loan_applications_vehicle_vin ON loan_applications(vehicle_vin, status);
+
+-- Versioned pricing. A version is written unpublished, filled with entries, then published, so readers
+-- never see a partial table; the highest published version is current
+CREATE TABLE IF NOT EXISTS rate_table_versions (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    description VARCHAR(255),
+    published BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS rate_table_entries (
+    version BIGINT NOT NULL,
+    loan_type VARCHAR(20) NOT NULL,
+    min_amount DECIMAL(15,2) NOT NULL,
+    min_term_months INTEGER NOT NULL,
+    min_credit_score INTEGER NOT NULL,
+    rate DECIMAL(5,4) NOT NULL,
+
+    PRIMARY KEY (version, loan_type, min_amount, min_term_months, min_credit_score),
+
+    CONSTRAINT fk_rate_table_entry_version
+        FOREIGN KEY (version) REFERENCES rate_table_versions(version)
+);
+
+-- Append-only history of loan application status transitions; kept after the application is deleted
+CREATE TABLE IF NOT EXISTS loan_application_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    application_id BIGINT NOT NULL,
+    from_status VARCHAR(20),
+    to_status VARCHAR(20) NOT NULL,
+    actor VARCHAR(100) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_loan_application_events_application_id ON loan_application_events(application_id, occurred_at);
+
+-- Servicing state of disbursed loans; one row per loan, opened at disbursement
+CREATE TABLE IF NOT EXISTS loan_accounts (
+    application_id BIGINT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    principal DECIMAL(15,2) NOT NULL,
+    interest_rate DECIMAL(5,4) NOT NULL,
+    monthly_payment DECIMAL(10,2) NOT NULL,
+    term_months INTEGER NOT NULL,
+    balance DECIMAL(15,2) NOT NULL,
+    accrued_interest DECIMAL(15,2) NOT NULL DEFAULT 0,
+    interest_through DATE NOT NULL,
+    installment_credit DECIMAL(15,2) NOT NULL DEFAULT 0,
+    next_due_date DATE NOT NULL,
+    days_past_due INTEGER NOT NULL DEFAULT 0,
+    delinquency_bucket VARCHAR(12) NOT NULL DEFAULT 'CURRENT',
+    last_payment_date DATE,
+    opened_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_loan_account_application
+        FOREIGN KEY (application_id) REFERENCES loan_applications(id)
+        ON DELETE CASCADE
+);
+
+-- Payment ledger; the reference is the bank's and makes re-posting a file a no-op
+CREATE TABLE IF NOT EXISTS loan_payments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    application_id BIGINT NOT NULL,
+    reference VARCHAR(64) NOT NULL UNIQUE,
+    amount DECIMAL(15,2) NOT NULL,
+    principal DECIMAL(15,2) NOT NULL,
+    interest DECIMAL(15,2) NOT NULL,
+    balance_after DECIMAL(15,2) NOT NULL,
+    paid_on DATE NOT NULL,
+    posted_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT fk_loan_payment_account
+        FOREIGN KEY (application_id) REFERENCES loan_accounts(application_id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_loan_payments_application_id ON loan_payments(application_id, paid_on);
+
+CREATE INDEX IF NOT EXISTS idx_loan_accounts_delinquency_bucket ON loan_accounts(delinquency_bucket);
+
+-- Progress of the nightly accrual run per business date; a restarted run resumes after last_application_id
+CREATE TABLE IF NOT EXISTS accrual_runs (
+    business_date DATE PRIMARY KEY,
+    last_application_id BIGINT NOT NULL DEFAULT 0,
+    accounts_processed BIGINT NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Written on the primary and read back from the replica to measure replication lag
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id INTEGER PRIMARY KEY,
+    beat_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,104 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.LoanServiceApplication;
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read throughput of loan applications by id and by customer with the cache off, with the local tier only, and
+ * with the in-process shared tier behind it. Each setting boots the full application on a random port and is
+ * driven over HTTP; every {@code benchmark.write-every}th request moves an application to UNDER_REVIEW, so the
+ * cached runs also pay for evictions and reloads.
+ *
+ * <p>Tunables: {@code -Dbenchmark.requests}, {@code -Dbenchmark.concurrency}, {@code -Dbenchmark.write-every}.
+ */
+@Tag("benchmark")
+class LoanApplicationCacheBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 50_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final int WRITE_EVERY = Integer.getInteger("benchmark.write-every", 100);
+    private static final int CUSTOMERS = 200;
+    private static final int APPLICATIONS_PER_CUSTOMER = 3;
+
+    @Test
+    void compareCacheSettings() {
+        List<String> reports = List.of(
+                run("off", "loan.cache.enabled=false"),
+                run("local", "loan.cache.shared-tier=none"),
+                run("local+shared", "loan.cache.shared-tier=in-process"));
+        System.out.println("cache          req/s");
+        reports.forEach(System.out::println);
+    }
+
+    private String run(String name, String setting) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LoanServiceApplication.class)
+                // As arguments, so they take precedence over application.yaml
+                .run(
+                        "--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///bench_cache_" + name.replace('+', '_') + "?options=DB_CLOSE_DELAY=-1",
+                        "--logging.level.com.rjtmahinay=WARN",
+                        "--" + setting);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+            List<LoanApplication> applications = seed(client, name);
+
+            measure(client, applications, REQUESTS / 4);
+            double throughput = measure(client, applications, REQUESTS);
+            return String.format("%-14s %.0f", name, throughput);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<LoanApplication> seed(WebClient client, String name) {
+        return Flux.range(0, CUSTOMERS)
+                .flatMap(i -> client.post().uri("/customers")
+                        .bodyValue(new Customer("Bench " + i, name + i + "@bench.local", "+15550000000", "1 Bench St"))
+                        .retrieve()
+                        .bodyToMono(Customer.class), 16)
+                .flatMap(customer -> Flux.range(0, APPLICATIONS_PER_CUSTOMER)
+                        .concatMap(n -> client.post().uri("/loan-applications")
+                                .bodyValue(new LoanApplication(customer.getId(), new BigDecimal("25000"),
+                                        LoanType.PERSONAL, 36, "Benchmark"))
+                                .retrieve()
+                                .bodyToMono(LoanApplication.class)), 16)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+    }
+
+    private double measure(WebClient client, List<LoanApplication> applications, int requests) {
+        long start = System.nanoTime();
+        Long completed = Flux.range(0, requests)
+                .flatMap(i -> {
+                    LoanApplication application = applications.get(ThreadLocalRandom.current().nextInt(applications.size()));
+                    // Only the first review of an application succeeds; later ones are refused without a write
+                    if (i % WRITE_EVERY == 0) {
+                        return client.put().uri("/loan-applications/" + application.getId() + "/review")
+                                .retrieve().toBodilessEntity().onErrorResume(error -> Mono.empty());
+                    }
+                    String uri = i % 2 == 0
+                            ? "/loan-applications/" + application.getId()
+                            : "/loan-applications/customer/" + application.getCustomerId();
+                    return client.get().uri(uri).retrieve().toBodilessEntity().onErrorResume(error -> Mono.empty());
+                }, CONCURRENCY)
+                .count()
+                .block(Duration.ofMinutes(10));
+        return completed / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
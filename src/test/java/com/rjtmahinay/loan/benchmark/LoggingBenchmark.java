@@ -0,0 +1,94 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.LoanServiceApplication;
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request throughput with application logging off, with every per-request line written as async JSON, and
+ * with those lines sampled at the default rate. Each setting boots the full application on a random port and
+ * is driven over HTTP with by-id reads of applications and customers.
+ *
+ * <p>Tunables: {@code -Dbenchmark.requests}, {@code -Dbenchmark.concurrency}.
+ */
+@Tag("benchmark")
+class LoggingBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final int CUSTOMERS = 200;
+
+    @Test
+    void compareLoggingSettings() {
+        List<String> reports = List.of(
+                run("off", "logging.level.com.rjtmahinay=WARN"),
+                run("json-all", "loan.logging.info-sample-rate=1.0"),
+                run("json-sampled", "loan.logging.info-sample-rate=0.1"));
+        System.out.println("logging        req/s");
+        reports.forEach(System.out::println);
+    }
+
+    private String run(String name, String setting) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LoanServiceApplication.class)
+                // As arguments, so they take precedence over application.yaml
+                .run(
+                        "--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///bench_logging_" + name + "?options=DB_CLOSE_DELAY=-1",
+                        "--" + setting);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+            List<LoanApplication> applications = seed(client, name);
+
+            measure(client, applications, REQUESTS / 4);
+            double throughput = measure(client, applications, REQUESTS);
+            return String.format("%-14s %.0f", name, throughput);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<LoanApplication> seed(WebClient client, String name) {
+        return Flux.range(0, CUSTOMERS)
+                .flatMap(i -> client.post().uri("/customers")
+                        .bodyValue(new Customer("Bench " + i, name + i + "@bench.local", "+15550000000", "1 Bench St"))
+                        .retrieve()
+                        .bodyToMono(Customer.class), 16)
+                .flatMap(customer -> client.post().uri("/loan-applications")
+                        .bodyValue(new LoanApplication(customer.getId(), new BigDecimal("25000"), LoanType.PERSONAL,
+                                36, "Benchmark"))
+                        .retrieve()
+                        .bodyToMono(LoanApplication.class), 16)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+    }
+
+    private double measure(WebClient client, List<LoanApplication> applications, int requests) {
+        long start = System.nanoTime();
+        Long completed = Flux.range(0, requests)
+                .flatMap(i -> {
+                    LoanApplication application = applications.get(ThreadLocalRandom.current().nextInt(applications.size()));
+                    String uri = i % 2 == 0
+                            ? "/loan-applications/" + application.getId()
+                            : "/customers/" + application.getCustomerId();
+                    return client.get().uri(uri).retrieve().toBodilessEntity().onErrorResume(error -> Mono.empty());
+                }, CONCURRENCY)
+                .count()
+                .block(Duration.ofMinutes(10));
+        return completed / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.model.LoanAccount.DelinquencyBucket;
+import com.rjtmahinay.loan.service.PayoffSimulator;
+import com.rjtmahinay.loan.service.PayoffSimulator.LumpSum;
+import com.rjtmahinay.loan.service.PayoffSimulator.Outcome;
+import com.rjtmahinay.loan.service.PayoffSimulator.Projection;
+import com.rjtmahinay.loan.service.PayoffSimulator.Scenario;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latency of one simulation request against a freshly disbursed 30-year loan, the longest schedules the
+ * simulator projects, for a mix of extra-payment, lump-sum and refinance scenarios.
+ *
+ * <p>Tunables: {@code -Dbenchmark.iterations}, {@code -Dbenchmark.scenarios}.
+ */
+@Tag("benchmark")
+class PayoffSimulatorBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final int SCENARIOS = Integer.getInteger("benchmark.scenarios", 500);
+
+    @Test
+    void measureSimulationLatency() {
+        LocalDate today = LocalDate.now();
+        LoanAccount account = new LoanAccount(1L, 1L, new BigDecimal("350000.00"), new BigDecimal("0.0650"),
+                new BigDecimal("2212.24"), 360, new BigDecimal("350000.00"), BigDecimal.ZERO.setScale(2), today,
+                BigDecimal.ZERO.setScale(2), today.plusMonths(1), 0, DelinquencyBucket.CURRENT, null,
+                LocalDateTime.now(), LocalDateTime.now(), 0L);
+        Projection projection = Projection.of(account, today);
+        Outcome baseline = projection.run(new Scenario("baseline", null, List.of(), null, null), null);
+        List<Scenario> scenarios = scenarios();
+
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            PayoffSimulator.evaluate(projection, baseline, scenarios).block();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            PayoffSimulator.evaluate(projection, baseline, scenarios).block();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("scenarios  p50 ms  p99 ms%n%-10d %-7.2f %.2f%n", SCENARIOS,
+                nanos[ITERATIONS / 2] / 1e6, nanos[ITERATIONS * 99 / 100] / 1e6);
+    }
+
+    private static List<Scenario> scenarios() {
+        List<Scenario> scenarios = new ArrayList<>(SCENARIOS);
+        for (int i = 0; i < SCENARIOS; i++) {
+            scenarios.add(switch (i % 3) {
+                case 0 -> new Scenario("extra-" + i, BigDecimal.valueOf(10L * i), List.of(), null, null);
+                case 1 -> new Scenario("lump-" + i, null, List.of(new LumpSum(1 + i % 120, BigDecimal.valueOf(1000L + i))), null, null);
+                default -> new Scenario("refi-" + i, null, List.of(),
+                        new BigDecimal("0.0400").add(BigDecimal.valueOf(i % 40, 4)), 120 + i % 240);
+            });
+        }
+        return scenarios;
+    }
+}
@@ -0,0 +1,136 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.LoanServiceApplication;
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Throughput and tail-latency comparison of the R2DBC and JDBC persistence modes. Each mode boots
+ * the full application on a random port with its own in-memory database and is driven over HTTP.
+ * The application cache is off so reads reach the repository; the workloads only touch the loan
+ * application and customer repositories, the two that switch to JDBC.
+ *
+ * <p>Run with {@code ./mvnw test -Pbenchmark} (on a Java 21 runtime for virtual threads).
+ * Tunables: {@code -Dbenchmark.requests}, {@code -Dbenchmark.concurrency}.
+ */
+@Tag("benchmark")
+class PersistenceModeBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final int CUSTOMERS = 200;
+
+    @Test
+    void compareR2dbcAndJdbc() {
+        List<String> reports = List.of(run("r2dbc"), run("jdbc"));
+        System.out.println("mode   workload   req/s      p50(ms)  p95(ms)  p99(ms)  max(ms)");
+        reports.forEach(System.out::println);
+    }
+
+    private String run(String mode) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LoanServiceApplication.class)
+                // As arguments, so they take precedence over application.yaml
+                .run(
+                        "--server.port=0",
+                        "--loan.persistence.mode=" + mode,
+                        "--loan.cache.enabled=false",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///bench_" + mode + "?options=DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.url=jdbc:h2:mem:bench_" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.r2dbc=WARN",
+                        "--logging.level.io.r2dbc.h2=WARN",
+                        // Keeps the executor choice visible
+                        "--logging.level.com.rjtmahinay.loan.config.JdbcPersistenceConfig=INFO");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient client = WebClient.create("http://localhost:" + port + "/api/v1");
+            List<Long> applicationIds = seed(client, mode);
+
+            Function<Integer, Mono<?>> read = i -> client.get()
+                    .uri("/loan-applications/{id}",
+                            applicationIds.get(ThreadLocalRandom.current().nextInt(applicationIds.size())))
+                    .retrieve()
+                    .toBodilessEntity();
+            Function<Integer, Mono<?>> write = i -> client.post().uri("/customers")
+                    .bodyValue(new Customer("Writer " + i, mode + "-w" + i + "@bench.local", "+15550000000", "2 Bench St"))
+                    .retrieve()
+                    .toBodilessEntity();
+
+            // Warm up JIT, connection pools and codecs before measuring
+            measure(read, REQUESTS / 4);
+            Result reads = measure(read, REQUESTS);
+            Result writes = measure(write, REQUESTS / 4);
+            return String.format("%-6s %-10s %s%n%-6s %-10s %s", mode, "read", reads, mode, "write", writes);
+        } finally {
+            context.close();
+        }
+    }
+
+    private List<Long> seed(WebClient client, String mode) {
+        return Flux.range(0, CUSTOMERS)
+                .flatMap(i -> client.post().uri("/customers")
+                        .bodyValue(new Customer("Bench " + i, mode + i + "@bench.local", "+15550000000", "1 Bench St"))
+                        .retrieve()
+                        .bodyToMono(Customer.class), 16)
+                .flatMap(customer -> client.post().uri("/loan-applications")
+                        .bodyValue(new LoanApplication(customer.getId(), new BigDecimal("25000"), LoanType.PERSONAL,
+                                36, "Benchmark"))
+                        .retrieve()
+                        .bodyToMono(LoanApplication.class), 16)
+                .map(LoanApplication::getId)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+    }
+
+    private Result measure(Function<Integer, Mono<?>> request, int requests) {
+        long[] latencies = new long[requests];
+        AtomicInteger index = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requestStart = System.nanoTime();
+                    return request.apply(i)
+                            .doOnSuccess(response -> latencies[index.getAndIncrement()] = System.nanoTime() - requestStart)
+                            .onErrorResume(error -> Mono.empty());
+                }), CONCURRENCY)
+                .blockLast(Duration.ofMinutes(10));
+        long elapsed = System.nanoTime() - start;
+        return new Result(Arrays.copyOf(latencies, index.get()), elapsed);
+    }
+
+    private record Result(long[] latencies, long elapsedNanos) {
+
+        @Override
+        public String toString() {
+            Arrays.sort(latencies);
+            double throughput = latencies.length / (elapsedNanos / 1_000_000_000.0);
+            return String.format("%-10.0f %-8.2f %-8.2f %-8.2f %-8.2f", throughput,
+                    percentile(0.50), percentile(0.95), percentile(0.99), percentile(1.0));
+        }
+
+        private double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(rank, 0)] / 1_000_000.0;
+        }
+    }
+}
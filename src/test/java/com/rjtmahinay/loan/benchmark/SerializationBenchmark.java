@@ -0,0 +1,93 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.LoanApplicationSummary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU time and bytes on the wire for 10k loan applications, comparing JSON and Smile for
+ * the full entity and the summary projection, each with and without gzip.
+ */
+@Tag("benchmark")
+class SerializationBenchmark {
+
+    private static final int APPLICATIONS = 10_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+
+    @Test
+    void compareEncodings() throws IOException {
+        List<LoanApplication> applications = applications();
+        List<LoanApplicationSummary> summaries = applications.stream().map(LoanApplicationSummary::from).toList();
+        ObjectMapper json = mapper().build();
+        ObjectMapper smile = mapper().factory(new SmileFactory()).build();
+
+        System.out.println("encoding        view     ms/10k   bytes      gzip bytes");
+        report("json", "full", json, applications);
+        report("json", "summary", json, summaries);
+        report("smile", "full", smile, applications);
+        report("smile", "summary", smile, summaries);
+    }
+
+    private void report(String encoding, String view, ObjectMapper mapper, Object payload) throws IOException {
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        long start = System.nanoTime();
+        byte[] bytes = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(payload);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        System.out.printf("%-15s %-8s %-8.2f %-10d %-10d%n", encoding, view, millis, bytes.length, gzip(bytes).length);
+    }
+
+    private static Jackson2ObjectMapperBuilder mapper() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<LoanApplication> applications() {
+        List<LoanApplication> applications = new ArrayList<>(APPLICATIONS);
+        LoanType[] types = LoanType.values();
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        for (int i = 0; i < APPLICATIONS; i++) {
+            LoanApplication application = new LoanApplication((long) (i % 2_000), new BigDecimal(5_000 + i * 7L),
+                    types[i % types.length], 12 * (1 + i % 5), "Benchmark purpose " + i);
+            application.setId((long) i);
+            application.setStatus(statuses[i % statuses.length]);
+            application.setInterestRate(new BigDecimal("0.0850"));
+            application.setMonthlyPayment(new BigDecimal("512.37"));
+            application.setCreditScore(600 + i % 250);
+            application.setDownpayment(new BigDecimal("1000.00"));
+            application.setMonthlyDebtPayments(new BigDecimal("350.00"));
+            application.setEmploymentYears(i % 30);
+            application.setZipCode(String.format("%05d", i % 99_999));
+            application.setApprovalDate(LocalDateTime.now());
+            application.setUpdatedAt(LocalDateTime.now());
+            applications.add(application);
+        }
+        return applications;
+    }
+}
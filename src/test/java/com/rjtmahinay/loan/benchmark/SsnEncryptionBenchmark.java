@@ -0,0 +1,90 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.encryption.CustomerSsnProtector;
+import com.rjtmahinay.loan.encryption.EncryptionProperties;
+import com.rjtmahinay.loan.encryption.FieldEncryptor;
+import com.rjtmahinay.loan.model.Customer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * SSN protection cost on the customer paths: encrypt plus blind index per created customer, decrypt per
+ * row read for a 10k-customer export, and blind index per lookup, single-threaded and across all cores.
+ *
+ * <p>Tunables: {@code -Dbenchmark.iterations}.
+ */
+@Tag("benchmark")
+class SsnEncryptionBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    @Test
+    void measureCustomerPaths() {
+        EncryptionProperties properties = new EncryptionProperties();
+        properties.setKey(randomKey());
+        properties.setIndexKey(randomKey());
+        CustomerSsnProtector protector = new CustomerSsnProtector(new FieldEncryptor(properties));
+
+        List<Customer> created = customers();
+        List<Customer> stored = customers();
+        stored.forEach(protector::protect);
+
+        System.out.println("path            threads  ops/s");
+        report("create", created, customer -> {
+            // Force a fresh encryption, as for a new customer
+            customer.setSsnIndex(null);
+            protector.protect(customer);
+        });
+        report("read", stored, protector::reveal);
+        report("lookup", stored, customer -> protector.ssnIndex(customer.getSsn()));
+    }
+
+    private void report(String path, List<Customer> customers, Consumer<Customer> operation) {
+        for (int threads : new int[] {1, Runtime.getRuntime().availableProcessors()}) {
+            for (int i = 0; i < ITERATIONS / 4; i++) {
+                run(customers, operation, threads);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                run(customers, operation, threads);
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("%-15s %-8d %.0f%n", path, threads, (double) CUSTOMERS * ITERATIONS / seconds);
+        }
+    }
+
+    private static void run(List<Customer> customers, Consumer<Customer> operation, int threads) {
+        if (threads == 1) {
+            customers.forEach(operation);
+            return;
+        }
+        int chunk = (customers.size() + threads - 1) / threads;
+        IntStream.range(0, threads).parallel()
+                .forEach(t -> customers.subList(Math.min(t * chunk, customers.size()),
+                        Math.min((t + 1) * chunk, customers.size())).forEach(operation));
+    }
+
+    private static List<Customer> customers() {
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer("Bench " + i, "bench" + i + "@bench.local", "+15550000000", "1 Bench St");
+            customer.setSsn(String.format("%03d-%02d-%04d", 100 + i % 800, i % 100, i));
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    private static String randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
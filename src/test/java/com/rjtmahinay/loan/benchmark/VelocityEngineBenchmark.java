@@ -0,0 +1,97 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.velocity.VelocityEngine;
+import com.rjtmahinay.loan.velocity.VelocityEngine.Verdict;
+import com.rjtmahinay.loan.velocity.VelocityProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one velocity check, as added to every submission, with one thread and with a thread per core all
+ * checking at once. {@code keys} sets how many distinct emails, SSNs, zip codes and VINs the submissions share:
+ * few keys means every thread contends on the same counters, many keys spreads them out.
+ *
+ * <p>Runs JMH in a forked JVM. Tunables: {@code -Dbenchmark.threads}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VelocityEngineBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", Runtime.getRuntime().availableProcessors());
+
+    @Param({"16", "100000"})
+    public int keys;
+
+    private VelocityEngine engine;
+    private LoanApplication[] applications;
+    private Customer[] customers;
+
+    @Setup
+    public void setUp() {
+        VelocityProperties properties = new VelocityProperties();
+        // Every submission is counted against the default rules, but none reaches a threshold, so each check
+        // takes the common, allowed path however long the benchmark runs
+        properties.getRules().forEach(rule -> {
+            rule.setFlagAt(0);
+            rule.setBlockAt(0);
+        });
+        engine = new VelocityEngine(properties, new SimpleMeterRegistry());
+        applications = new LoanApplication[keys];
+        customers = new Customer[keys];
+        for (int i = 0; i < keys; i++) {
+            applications[i] = new LoanApplication((long) i, new BigDecimal("25000"), LoanType.AUTO, 60, "Benchmark");
+            applications[i].setZipCode(String.format("%05d", i));
+            applications[i].setVin(String.format("1HGCM%012d", i));
+            customers[i] = new Customer("Bench " + i, "bench" + i + "@bench.local", "+15550000000", "1 Bench St");
+            customers[i].setSsnIndex("ssn-index-" + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Verdict check(Cursor cursor) {
+        int i = Math.floorMod(cursor.next++, keys);
+        return engine.check(applications[i], customers[i]);
+    }
+
+    @Test
+    void compareSingleThreadedAndContended() throws RunnerException {
+        for (int threads : new int[] {1, THREADS}) {
+            new Runner(new OptionsBuilder()
+                    .include(VelocityEngineBenchmark.class.getName() + ".check")
+                    .threads(threads)
+                    .build())
+                    .run();
+        }
+    }
+}
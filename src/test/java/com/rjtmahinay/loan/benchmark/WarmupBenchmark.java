@@ -0,0 +1,155 @@
+package com.rjtmahinay.loan.benchmark;
+
+import com.rjtmahinay.loan.LoanServiceApplication;
+import com.rjtmahinay.loan.model.Customer;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency over the first minute of traffic after a node reports ready, with and without the startup warm-up.
+ * Each setting starts the application in a fresh JVM, so neither inherits the other's JIT-compiled code, waits
+ * for {@code /actuator/health/readiness} as a rolling deploy would, and then drives a mix of customer and loan
+ * application creates and reads over HTTP.
+ *
+ * <p>Tunables: {@code -Dbenchmark.seconds}, {@code -Dbenchmark.concurrency}.
+ */
+@Tag("benchmark")
+class WarmupBenchmark {
+
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 60);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 16);
+    private static final int WINDOW_SECONDS = 10;
+
+    @Test
+    void compareFirstMinuteWithAndWithoutWarmup() throws Exception {
+        List<String> reports = List.of(run(true), run(false));
+        System.out.println("warmup  ready(ms)  window(s)  requests  p50(ms)  p99(ms)  max(ms)");
+        reports.forEach(System.out::println);
+    }
+
+    private String run(boolean warmup) throws IOException, InterruptedException {
+        int port = freePort();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                LoanServiceApplication.class.getName(),
+                "--server.port=" + port,
+                "--loan.warmup.enabled=" + warmup,
+                "--logging.level.root=WARN",
+                "--logging.level.com.rjtmahinay=WARN")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            WebClient client = WebClient.create("http://localhost:" + port);
+            awaitReady(client);
+            long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            List<Queue<Long>> windows = drive(client.mutate().baseUrl("http://localhost:" + port + "/api/v1").build());
+
+            List<String> lines = new ArrayList<>();
+            for (int window = 0; window < windows.size(); window++) {
+                long[] latencies = windows.get(window).stream().mapToLong(Long::longValue).sorted().toArray();
+                lines.add(String.format("%-7s %-10d %-10s %-9d %-8.2f %-8.2f %-8.2f", warmup ? "on" : "off", readyMillis,
+                        window * WINDOW_SECONDS + "-" + (window + 1) * WINDOW_SECONDS, latencies.length,
+                        percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0)));
+            }
+            return String.join(System.lineSeparator(), lines);
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitReady(WebClient client) {
+        Mono.defer(() -> client.get().uri("/actuator/health/readiness").retrieve().toBodilessEntity())
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(50)))
+                .block(Duration.ofMinutes(3));
+    }
+
+    /**
+     * Closed-loop load for {@link #SECONDS}: creates customers and applications and reads them back by id. Returns
+     * request latencies in nanoseconds, grouped by the window in which each request completed.
+     */
+    private static List<Queue<Long>> drive(WebClient client) {
+        List<Queue<Long>> windows = new ArrayList<>();
+        for (int i = 0; i < (SECONDS + WINDOW_SECONDS - 1) / WINDOW_SECONDS; i++) {
+            windows.add(new ConcurrentLinkedQueue<>());
+        }
+        List<Long> customerIds = new CopyOnWriteArrayList<>();
+        List<Long> applicationIds = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+
+        Flux.range(0, Integer.MAX_VALUE)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requestStart = System.nanoTime();
+                    return request(client, i, customerIds, applicationIds)
+                            .doOnSuccess(done -> {
+                                long now = System.nanoTime();
+                                int window = (int) TimeUnit.NANOSECONDS.toSeconds(now - start) / WINDOW_SECONDS;
+                                if (window < windows.size()) {
+                                    windows.get(window).add(now - requestStart);
+                                }
+                            })
+                            .onErrorResume(error -> Mono.empty());
+                }), CONCURRENCY)
+                .take(Duration.ofSeconds(SECONDS))
+                .blockLast(Duration.ofSeconds(SECONDS + 60));
+        return windows;
+    }
+
+    private static Mono<?> request(WebClient client, int i, List<Long> customerIds, List<Long> applicationIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (customerIds.isEmpty() || i % 8 == 0) {
+            return client.post().uri("/customers")
+                    .bodyValue(new Customer("Warm " + i, "warm" + i + "@bench.local", "+15550000000", "1 Bench St"))
+                    .retrieve()
+                    .bodyToMono(Customer.class)
+                    .doOnNext(customer -> customerIds.add(customer.getId()));
+        }
+        Long customerId = customerIds.get(random.nextInt(customerIds.size()));
+        if (applicationIds.isEmpty() || i % 8 == 1) {
+            return client.post().uri("/loan-applications")
+                    .bodyValue(new LoanApplication(customerId, new BigDecimal("25000"), LoanType.PERSONAL, 36, "Benchmark"))
+                    .retrieve()
+                    .bodyToMono(LoanApplication.class)
+                    .doOnNext(application -> applicationIds.add(application.getId()));
+        }
+        return i % 2 == 0
+                ? client.get().uri("/loan-applications/{id}", applicationIds.get(random.nextInt(applicationIds.size())))
+                        .retrieve().toBodilessEntity()
+                : client.get().uri("/customers/{id}", customerId).retrieve().toBodilessEntity();
+    }
+
+    private static double percentile(long[] latencies, double p) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * latencies.length) - 1;
+        return latencies[Math.max(rank, 0)] / 1_000_000.0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
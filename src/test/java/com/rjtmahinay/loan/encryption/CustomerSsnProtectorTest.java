@@ -0,0 +1,127 @@
+package com.rjtmahinay.loan.encryption;
+
+import com.rjtmahinay.loan.model.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerSsnProtectorTest {
+
+    private static final String SSN = "123-45-6789";
+
+    private FieldEncryptor fieldEncryptor;
+    private CustomerSsnProtector protector;
+
+    @BeforeEach
+    void setUp() {
+        fieldEncryptor = new FieldEncryptor(properties(key(1), key(2)));
+        protector = new CustomerSsnProtector(fieldEncryptor);
+    }
+
+    @Test
+    void encryptsAndDecryptsAFieldValue() {
+        String stored = fieldEncryptor.encrypt(SSN);
+
+        assertTrue(stored.startsWith("v1:"));
+        assertEquals(SSN, fieldEncryptor.decrypt(stored));
+        // A fresh IV per value, so equal plaintexts do not give equal ciphertexts
+        assertNotEquals(stored, fieldEncryptor.encrypt(SSN));
+        assertNull(fieldEncryptor.encrypt(null));
+        assertNull(fieldEncryptor.decrypt(null));
+    }
+
+    @Test
+    void refusesAValueEncryptedWithAnotherKey() {
+        FieldEncryptor otherKey = new FieldEncryptor(properties(key(3), key(2)));
+
+        assertThrows(IllegalStateException.class, () -> otherKey.decrypt(fieldEncryptor.encrypt(SSN)));
+    }
+
+    @Test
+    void returnsValuesStoredBeforeEncryptionUnchanged() {
+        assertEquals(SSN, fieldEncryptor.decrypt(SSN));
+
+        Customer legacy = customer(null);
+        legacy.setSsnCiphertext(SSN);
+        assertEquals(SSN, protector.reveal(legacy).getSsn());
+    }
+
+    @Test
+    void roundTripsACustomerSsn() {
+        Customer customer = protector.protect(customer(SSN));
+
+        assertTrue(customer.getSsnCiphertext().startsWith("v1:"));
+        assertEquals(protector.ssnIndex(SSN), customer.getSsnIndex());
+
+        Customer read = customer(null);
+        read.setSsnCiphertext(customer.getSsnCiphertext());
+        read.setSsnIndex(customer.getSsnIndex());
+        assertEquals(SSN, protector.reveal(read).getSsn());
+    }
+
+    @Test
+    void indexesAnSsnTheSameHoweverItIsFormatted() {
+        String index = protector.ssnIndex(SSN);
+
+        assertEquals(index, protector.ssnIndex("123456789"));
+        assertEquals(index, protector.ssnIndex(" 123 45 6789 "));
+        assertEquals(index, protector.protect(customer("123456789")).getSsnIndex());
+        assertNotEquals(index, protector.ssnIndex("123-45-6788"));
+        // Keyed, so an index cannot be recomputed from the SSN alone
+        assertNotEquals(index, new CustomerSsnProtector(new FieldEncryptor(properties(key(1), key(4)))).ssnIndex(SSN));
+    }
+
+    @Test
+    void keepsTheCiphertextOfAnUnchangedSsn() {
+        Customer customer = protector.protect(customer(SSN));
+        String ciphertext = customer.getSsnCiphertext();
+
+        // Reformatting the same SSN does not re-encrypt it
+        customer.setSsn("123456789");
+        assertSame(ciphertext, protector.protect(customer).getSsnCiphertext());
+
+        customer.setSsn("987-65-4321");
+        Customer changed = protector.protect(customer);
+        assertNotEquals(ciphertext, changed.getSsnCiphertext());
+        assertEquals(protector.ssnIndex("987654321"), changed.getSsnIndex());
+    }
+
+    @Test
+    void clearsTheStoredColumnsWhenTheSsnIsRemoved() {
+        Customer customer = protector.protect(customer(SSN));
+
+        customer.setSsn(null);
+        protector.protect(customer);
+
+        assertNull(customer.getSsnCiphertext());
+        assertNull(customer.getSsnIndex());
+    }
+
+    private static Customer customer(String ssn) {
+        Customer customer = new Customer("Jane Doe", "jane.doe@example.com", "+15550000000", "1 Main St");
+        customer.setSsn(ssn);
+        return customer;
+    }
+
+    private static EncryptionProperties properties(String key, String indexKey) {
+        EncryptionProperties properties = new EncryptionProperties();
+        properties.setKey(key);
+        properties.setIndexKey(indexKey);
+        return properties;
+    }
+
+    private static String key(int seed) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
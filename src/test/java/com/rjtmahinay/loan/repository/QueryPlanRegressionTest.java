@@ -0,0 +1,368 @@
+package com.rjtmahinay.loan.repository;
+
+import com.rjtmahinay.loan.LoanServiceApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Query-plan regression suite for {@link LoanApplicationRepository} and {@link CustomerRepository}. Boots the
+ * application against an in-memory database seeded with a realistic volume, runs every query method, and
+ * EXPLAINs each statement it sends: a full table scan fails the suite unless the query is listed in
+ * {@link #ACCEPTED_FULL_SCANS}. The median latency of each query is reported, and compared with the baseline
+ * recorded on the same machine when there is one.
+ *
+ * <p>Run with {@code ./mvnw test -Pquery-plans}. Tunables: {@code -Dqueryplan.customers},
+ * {@code -Dqueryplan.iterations}, {@code -Dqueryplan.tolerance}; {@code -Dqueryplan.update-baselines=true}
+ * rewrites the baseline file with this run's latencies.
+ */
+@Tag("query-plan")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+    private static final int CUSTOMERS = Integer.getInteger("queryplan.customers", 1_000_000);
+    // Two applications per customer
+    private static final int APPLICATIONS = CUSTOMERS * 2;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = Integer.getInteger("queryplan.iterations", 5);
+    // A query regresses when its median exceeds the baseline by this factor and by more than the noise floor
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("queryplan.tolerance", "2.0"));
+    private static final double NOISE_FLOOR_MS = 2.0;
+    private static final Path BASELINES = Path.of("src/test/resources/query-plan-baselines.properties");
+    private static final Path REPORT = Path.of("target/query-plan-baselines.properties");
+
+    /**
+     * Queries that read the whole table by design, with the reason. Anything else that scans fails the suite.
+     */
+    private static final Map<String, String> ACCEPTED_FULL_SCANS = Map.of(
+            "CustomerRepository.findByNameContaining",
+            "Substring search; a leading wildcard cannot be served by a B-tree index",
+            "LoanApplicationRepository.findAllSummaries", "Returns every application",
+            "LoanApplicationRepository.getTotalLoanValue", "Sums every application",
+            "LoanApplicationRepository.findAllVins",
+            "Loads every pledged VIN once, when the collateral registry starts; IS NOT NULL is not an index condition");
+
+    private final QueryCapture capture = new QueryCapture();
+    private ConfigurableApplicationContext context;
+    private DatabaseClient databaseClient;
+    private Map<String, Supplier<Publisher<?>>> queries;
+
+    @BeforeAll
+    void seed() {
+        context = new SpringApplicationBuilder(LoanServiceApplication.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .registerSingleton("queryCapture", capture))
+                // As arguments, so they take precedence over application.yaml
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///query_plans?options=DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.url=jdbc:h2:mem:query_plans;DB_CLOSE_DELAY=-1",
+                        "--loan.sla-sweeper.enabled=false",
+                        "--loan.accrual.enabled=false",
+                        "--loan.warmup.enabled=false",
+                        "--management.tracing.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.r2dbc=WARN",
+                        "--logging.level.io.r2dbc.h2=WARN");
+        databaseClient = context.getBean(DatabaseClient.class);
+
+        long start = System.nanoTime();
+        databaseClient.sql("""
+                        INSERT INTO customers (name, email, phone_number, address, ssn_index, annual_income,
+                                               employment_status, created_at, updated_at)
+                        SELECT 'Customer ' || X, 'customer' || X || '@example.com', '+15550000000', X || ' Main St',
+                               'ssn-index-' || X, 20000 + MOD(X * 7919, 230000), 'EMPLOYED',
+                               DATEADD('MINUTE', -X, LOCALTIMESTAMP), DATEADD('MINUTE', -X, LOCALTIMESTAMP)
+                        FROM SYSTEM_RANGE(1, :customers)""")
+                .bind("customers", CUSTOMERS)
+                .then()
+                .block();
+        // Mostly closed applications, as in a live book; AUTO loans pledge a VIN
+        databaseClient.sql("""
+                        INSERT INTO loan_applications (customer_id, loan_amount, loan_type, loan_term_months, status,
+                                                       approval_date, vehicle_vin, created_at, updated_at)
+                        SELECT 1 + MOD(X, :customers), 1000 + MOD(X * 104729, 499000),
+                               CASEWHEN(MOD(X, 5) = 0, 'PERSONAL', CASEWHEN(MOD(X, 5) = 1, 'AUTO',
+                                   CASEWHEN(MOD(X, 5) = 2, 'HOME', CASEWHEN(MOD(X, 5) = 3, 'STUDENT', 'BUSINESS')))),
+                               12 * (1 + MOD(X, 5)),
+                               CASEWHEN(MOD(X, 20) = 0, 'SUBMITTED', CASEWHEN(MOD(X, 20) = 1, 'UNDER_REVIEW',
+                                   CASEWHEN(MOD(X, 20) = 2, 'APPROVED', CASEWHEN(MOD(X, 20) < 12, 'DISBURSED',
+                                   CASEWHEN(MOD(X, 20) < 17, 'REJECTED', 'CANCELLED'))))),
+                               CASEWHEN(MOD(X, 20) BETWEEN 2 AND 11, DATEADD('MINUTE', -X + 1440, LOCALTIMESTAMP), NULL),
+                               CASEWHEN(MOD(X, 5) = 1, '1HGCM' || LPAD(CAST(X AS VARCHAR), 12, '0'), NULL),
+                               DATEADD('MINUTE', -X, LOCALTIMESTAMP), DATEADD('MINUTE', -X, LOCALTIMESTAMP)
+                        FROM SYSTEM_RANGE(1, :applications)""")
+                .bind("customers", CUSTOMERS)
+                .bind("applications", APPLICATIONS)
+                .then()
+                .block();
+        // Gives the optimizer the column selectivity it would have in production
+        databaseClient.sql("ANALYZE").then().block();
+        System.out.printf("Seeded %d customers and %d applications in %d s%n",
+                CUSTOMERS, APPLICATIONS, Duration.ofNanos(System.nanoTime() - start).toSeconds());
+
+        queries = queries(context.getBean(CustomerRepository.class), context.getBean(LoanApplicationRepository.class));
+    }
+
+    @AfterAll
+    void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * Every query method needs a case in {@link #queries}, so a new query cannot skip the plan check.
+     */
+    @Test
+    void everyQueryMethodIsChecked() {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(CustomerRepository.class, LoanApplicationRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> Modifier.isAbstract(method.getModifiers()))
+                    .map(Method::getName)
+                    .forEach(name -> declared.add(repository.getSimpleName() + "." + name));
+        }
+        declared.removeAll(queries.keySet());
+        assertTrue(declared.isEmpty(), "Query methods without a plan check: " + declared);
+    }
+
+    @Test
+    void noUnexpectedFullScans() {
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            List<CapturedQuery> statements = run(query);
+            if (statements.isEmpty()) {
+                failures.add(name + ": sent no statement");
+            }
+            for (CapturedQuery statement : statements) {
+                String plan = explain(statement);
+                if (plan.contains(".tableScan") && !ACCEPTED_FULL_SCANS.containsKey(name)) {
+                    failures.add(name + ": full scan\n    " + plan.replace("\n", "\n    "));
+                }
+            }
+        });
+        if (!failures.isEmpty()) {
+            fail("Queries without a usable index:\n" + String.join("\n", failures));
+        }
+    }
+
+    @Test
+    void latenciesWithinBaseline() throws IOException {
+        boolean updating = Boolean.getBoolean("queryplan.update-baselines");
+        Properties baselines = new Properties();
+        if (Files.exists(BASELINES)) {
+            try (Reader reader = Files.newBufferedReader(BASELINES)) {
+                baselines.load(reader);
+            }
+        }
+
+        Properties measured = new Properties();
+        List<String> regressions = new ArrayList<>();
+        System.out.println("query                                                        p50(ms)  baseline(ms)");
+        queries.forEach((name, query) -> {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                block(query);
+            }
+            double[] latencies = new double[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                block(query);
+                latencies[i] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            Arrays.sort(latencies);
+            double median = latencies[ITERATIONS / 2];
+            measured.setProperty(name, String.format("%.2f", median));
+
+            String baseline = baselines.getProperty(name);
+            System.out.printf("%-60s %-8.2f %s%n", name, median, baseline == null ? "-" : baseline);
+            if (baseline != null) {
+                double limit = Double.parseDouble(baseline);
+                if (median > limit * TOLERANCE && median - limit > NOISE_FLOOR_MS) {
+                    regressions.add(String.format("%s: %.2f ms, baseline %s ms", name, median, baseline));
+                }
+            }
+        });
+
+        Files.createDirectories(REPORT.getParent());
+        store(measured, REPORT);
+        if (updating) {
+            store(measured, BASELINES);
+            return;
+        }
+        if (!regressions.isEmpty()) {
+            fail("Queries slower than " + TOLERANCE + "x their baseline:\n" + String.join("\n", regressions));
+        }
+        // Latencies depend on the machine, so none are committed; reported as skipped rather than passed
+        assumeTrue(baselines.stringPropertyNames().containsAll(measured.stringPropertyNames()),
+                "Latencies without a baseline in " + BASELINES + " were reported but not compared; "
+                        + "record them with -Dqueryplan.update-baselines=true");
+    }
+
+    private Map<String, Supplier<Publisher<?>>> queries(CustomerRepository customers,
+                                                         LoanApplicationRepository applications) {
+        long customerId = CUSTOMERS / 2;
+        long applicationId = APPLICATIONS / 2;
+        // Application 6 is an AUTO loan
+        String vin = "1HGCM000000000006";
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Supplier<Publisher<?>>> queries = new LinkedHashMap<>();
+        queries.put("CustomerRepository.findByEmail", () -> customers.findByEmail("customer" + customerId + "@example.com"));
+        queries.put("CustomerRepository.existsByEmail", () -> customers.existsByEmail("customer" + customerId + "@example.com"));
+        queries.put("CustomerRepository.findByNameContaining", () -> customers.findByNameContaining("Customer 4242"));
+        queries.put("CustomerRepository.findBySsnIndex", () -> customers.findBySsnIndex("ssn-index-" + customerId));
+        queries.put("CustomerRepository.findUpdatedAtById", () -> customers.findUpdatedAtById(customerId));
+        queries.put("CustomerRepository.findByAnnualIncomeGreaterThanEqual",
+                () -> customers.findByAnnualIncomeGreaterThanEqual(249_000.0));
+
+        queries.put("LoanApplicationRepository.findByCustomerId", () -> applications.findByCustomerId(customerId));
+        queries.put("LoanApplicationRepository.findByStatus", () -> applications.findByStatus(ApplicationStatus.UNDER_REVIEW));
+        queries.put("LoanApplicationRepository.findByLoanType", () -> applications.findByLoanType(LoanType.AUTO));
+        queries.put("LoanApplicationRepository.findAllSummaries", applications::findAllSummaries);
+        queries.put("LoanApplicationRepository.findSummariesByStatus",
+                () -> applications.findSummariesByStatus(ApplicationStatus.SUBMITTED));
+        queries.put("LoanApplicationRepository.findByCustomerIdAndStatus",
+                () -> applications.findByCustomerIdAndStatus(customerId, ApplicationStatus.DISBURSED));
+        queries.put("LoanApplicationRepository.findByLoanAmountBetween",
+                () -> applications.findByLoanAmountBetween(new BigDecimal("250000"), new BigDecimal("251000")));
+        queries.put("LoanApplicationRepository.findByCreatedAtBetween",
+                () -> applications.findByCreatedAtBetween(now.minusDays(1), now));
+        queries.put("LoanApplicationRepository.findPendingApplicationsByCreatedDate",
+                applications::findPendingApplicationsByCreatedDate);
+        queries.put("LoanApplicationRepository.countActiveApplicationsByCustomerId",
+                () -> applications.countActiveApplicationsByCustomerId(customerId));
+        queries.put("LoanApplicationRepository.findApprovedApplicationsSince",
+                () -> applications.findApprovedApplicationsSince(now.minusDays(7)));
+        queries.put("LoanApplicationRepository.findAllVins", applications::findAllVins);
+        queries.put("LoanApplicationRepository.countPledgedByVin", () -> applications.countPledgedByVin(vin));
+        queries.put("LoanApplicationRepository.findCollateralConflicts", applications::findCollateralConflicts);
+        queries.put("LoanApplicationRepository.findUpdatedAtById", () -> applications.findUpdatedAtById(applicationId));
+        queries.put("LoanApplicationRepository.getTotalLoanValue", applications::getTotalLoanValue);
+        queries.put("LoanApplicationRepository.getTotalLoanValueByStatus",
+                () -> applications.getTotalLoanValueByStatus(ApplicationStatus.APPROVED));
+        return queries;
+    }
+
+    private List<CapturedQuery> run(Supplier<Publisher<?>> query) {
+        capture.statements.clear();
+        capture.recording = true;
+        try {
+            block(query);
+        } finally {
+            capture.recording = false;
+        }
+        return List.copyOf(capture.statements);
+    }
+
+    private static void block(Supplier<Publisher<?>> query) {
+        Flux.from(query.get()).then().block(Duration.ofMinutes(5));
+    }
+
+    private String explain(CapturedQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("EXPLAIN " + query.sql());
+        for (int i = 0; i < query.bindings().size(); i++) {
+            BoundValue value = query.bindings().get(i);
+            spec = value.isNull() ? spec.bindNull(i, value.getNullType()) : spec.bind(i, value.getValue());
+        }
+        return spec.map(row -> row.get(0, String.class))
+                .all()
+                .collect(Collectors.joining("\n"))
+                .block();
+    }
+
+    private static void store(Properties properties, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, "Median latency in ms per repository query, see QueryPlanRegressionTest");
+        }
+    }
+
+    private record CapturedQuery(String sql, List<BoundValue> bindings) {
+    }
+
+    /**
+     * Records the statements the repositories send while a query runs, with their bind values in index order.
+     */
+    private static final class QueryCapture implements ConnectionFactoryDecorator {
+
+        private final Queue<CapturedQuery> statements = new ConcurrentLinkedQueue<>();
+        private volatile boolean recording;
+
+        @Override
+        public ConnectionFactory decorate(ConnectionFactory connectionFactory) {
+            return ProxyConnectionFactory.builder(connectionFactory)
+                    .listener(new ProxyExecutionListener() {
+                        @Override
+                        public void beforeQuery(QueryExecutionInfo execution) {
+                            if (recording) {
+                                execution.getQueries().forEach(query -> statements.add(captured(query)));
+                            }
+                        }
+                    })
+                    .build();
+        }
+
+        private static CapturedQuery captured(QueryInfo query) {
+            List<BoundValue> values = new ArrayList<>();
+            if (!query.getBindingsList().isEmpty()) {
+                Bindings bindings = query.getBindingsList().get(0);
+                // Spring Data binds H2's $n markers by index, but by name when a query is built as "$n"
+                bindings.getIndexBindings().stream().map(Binding::getBoundValue).forEach(values::add);
+                bindings.getNamedBindings().stream()
+                        .sorted((a, b) -> Integer.compare(markerIndex(a), markerIndex(b)))
+                        .map(Binding::getBoundValue)
+                        .forEach(values::add);
+            }
+            return new CapturedQuery(query.getQuery(), values);
+        }
+
+        private static int markerIndex(Binding binding) {
+            return Integer.parseInt(binding.getKey().toString().replace("$", ""));
+        }
+    }
+}
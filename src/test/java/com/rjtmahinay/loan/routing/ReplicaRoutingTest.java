@@ -0,0 +1,191 @@
+package com.rjtmahinay.loan.routing;
+
+import com.rjtmahinay.loan.LoanServiceApplication;
+import com.rjtmahinay.loan.model.Customer;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Boots the application with two in-memory databases standing in for a primary and its replica. Each holds
+ * different rows, so a response shows which one served it.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    private ConfigurableApplicationContext context;
+    private DatabaseClient primary;
+    private DatabaseClient replica;
+    private ReplicaLagMonitor lagMonitor;
+    private WebClient client;
+
+    @BeforeAll
+    void start() {
+        context = new SpringApplicationBuilder(LoanServiceApplication.class)
+                // As arguments, so they take precedence over application.yaml
+                .run(
+                        "--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///routing_primary?options=DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+                        "--loan.replica.enabled=true",
+                        "--loan.replica.url=r2dbc:h2:mem:///routing_replica?options=DB_CLOSE_DELAY=-1",
+                        "--loan.replica.max-lag=1m",
+                        "--loan.replica.heartbeat-interval=100ms",
+                        "--loan.sla-sweeper.enabled=false",
+                        "--loan.accrual.enabled=false",
+                        "--loan.warmup.enabled=false",
+                        "--management.tracing.enabled=false",
+                        "--logging.level.root=WARN");
+        ConnectionFactory replicaConnectionFactory = context.getBean("replicaConnectionFactory", ConnectionFactory.class);
+        // Schema initialization only runs against the primary
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(replicaConnectionFactory).block();
+        primary = DatabaseClient.create(context.getBean("primaryConnectionFactory", ConnectionFactory.class));
+        replica = DatabaseClient.create(replicaConnectionFactory);
+        lagMonitor = context.getBean(ReplicaLagMonitor.class);
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1")
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+
+        seed(primary, "Primary", "1000.00");
+        seed(replica, "Replica", "2000.00");
+    }
+
+    @BeforeEach
+    void replicaCaughtUp() {
+        replicate(LocalDateTime.now());
+        awaitReplicaFresh(true);
+    }
+
+    @AfterAll
+    void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void servesListsAndAggregatesFromTheReplica() {
+        assertEquals(List.of("Replica customer"), customerNames(null));
+        assertEquals(new BigDecimal("2000.00"), totalLoanValue());
+    }
+
+    @Test
+    void keepsAClientThatJustWroteOnThePrimary() {
+        Customer created = new Customer("Written customer", "written@example.com", "+15550000003", "3 Main St");
+        ResponseCookie sticky = client.post().uri("/customers")
+                .bodyValue(created)
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.cookies().getFirst(ReadYourWritesFilter.COOKIE)))
+                .block();
+        assertNotNull(sticky, "A write sets the read-your-writes cookie");
+
+        // The write reached only the primary, and the client sees it
+        assertEquals(List.of("Primary customer", "Written customer"), customerNames(sticky));
+        // Clients that have not written still read from the replica
+        assertEquals(List.of("Replica customer"), customerNames(null));
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhileTheReplicaLags() {
+        replicate(LocalDateTime.now().minusHours(1));
+        awaitReplicaFresh(false);
+
+        assertTrue(customerNames(null).contains("Primary customer"));
+        assertEquals(new BigDecimal("1000.00"), totalLoanValue());
+    }
+
+    private List<String> customerNames(ResponseCookie sticky) {
+        return client.get().uri("/customers")
+                .cookies(cookies -> {
+                    if (sticky != null) {
+                        cookies.add(sticky.getName(), sticky.getValue());
+                    }
+                })
+                .retrieve()
+                .bodyToFlux(Customer.class)
+                .map(Customer::getName)
+                .sort()
+                .collectList()
+                .block();
+    }
+
+    private BigDecimal totalLoanValue() {
+        return client.get().uri("/loan-applications/total-value")
+                .retrieve()
+                .bodyToMono(TotalLoanValue.class)
+                .map(TotalLoanValue::totalValue)
+                .block();
+    }
+
+    /**
+     * Sets the heartbeat the replica serves, as replication of the primary's heartbeat would.
+     */
+    private void replicate(LocalDateTime beatAt) {
+        replica.sql("MERGE INTO replica_heartbeat KEY (id) VALUES (1, :beatAt)")
+                .bind("beatAt", beatAt)
+                .then()
+                .block();
+    }
+
+    private void awaitReplicaFresh(boolean fresh) {
+        long deadline = System.nanoTime() + AWAIT.toNanos();
+        while (lagMonitor.isReplicaFresh() != fresh) {
+            if (System.nanoTime() > deadline) {
+                fail("Replica did not become " + (fresh ? "fresh" : "stale") + " within " + AWAIT);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private static void seed(DatabaseClient database, String label, String loanAmount) {
+        Long customerId = database.sql("""
+                        INSERT INTO customers (name, email, address, created_at, updated_at)
+                        VALUES (:name, :email, '1 Main St', LOCALTIMESTAMP, LOCALTIMESTAMP)""")
+                .bind("name", label + " customer")
+                .bind("email", label.toLowerCase() + "@example.com")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+        database.sql("""
+                        INSERT INTO loan_applications (customer_id, loan_amount, loan_type, loan_term_months, status)
+                        VALUES (:customerId, :loanAmount, 'PERSONAL', 12, 'SUBMITTED')""")
+                .bind("customerId", customerId)
+                .bind("loanAmount", new BigDecimal(loanAmount))
+                .then()
+                .block();
+    }
+
+    private record TotalLoanValue(BigDecimal totalValue) {
+    }
+}
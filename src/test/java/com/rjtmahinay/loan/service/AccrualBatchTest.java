@@ -0,0 +1,169 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.AccrualProperties;
+import com.rjtmahinay.loan.model.AccrualRun;
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.model.LoanAccount.DelinquencyBucket;
+import com.rjtmahinay.loan.repository.AccrualRunRepository;
+import com.rjtmahinay.loan.repository.LoanLedgerRepository;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import com.rjtmahinay.loan.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccrualBatchTest {
+
+    private static final LocalDate OPENED_ON = LocalDate.of(2026, 1, 1);
+    private static final LocalDate BUSINESS_DATE = OPENED_ON.plusDays(30);
+
+    private LoanLedgerRepository ledgerRepository;
+    private AccrualRunRepository runRepository;
+    private AccrualBatch batch;
+    // lastApplicationId, accountsProcessed and completed at each save of the run
+    private final List<String> checkpoints = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ledgerRepository = mock(LoanLedgerRepository.class);
+        runRepository = mock(AccrualRunRepository.class);
+        AccrualProperties properties = new AccrualProperties();
+        properties.setChunkSize(2);
+        properties.setParallelism(2);
+        batch = new AccrualBatch(ledgerRepository, runRepository, properties,
+                new ShardRouter(new ShardingProperties()), new SimpleMeterRegistry());
+
+        when(ledgerRepository.accrue(anyList())).thenReturn(Flux.empty());
+        when(runRepository.save(any(AccrualRun.class))).thenAnswer(invocation -> {
+            AccrualRun run = invocation.getArgument(0);
+            return Mono.fromRunnable(() -> checkpoints.add(run.getLastApplicationId() + "/"
+                    + run.getAccountsProcessed() + (run.getCompleted() ? " completed" : "")));
+        });
+    }
+
+    @Test
+    void accruesInterestFromInterestThroughToTheBusinessDate() {
+        LoanAccount account = account(1L, "10000.00");
+
+        List<LoanAccount> changed = AccrualBatch.accrue(List.of(account), BUSINESS_DATE);
+
+        // 30 days at 7.2% on 10,000.00, actual/360
+        assertEquals(List.of(account), changed);
+        assertEquals(new BigDecimal("60.00"), account.getAccruedInterest());
+        assertEquals(BUSINESS_DATE, account.getInterestThrough());
+        assertEquals(DelinquencyBucket.CURRENT, account.getDelinquencyBucket());
+    }
+
+    @Test
+    void reprocessingTheSameDateChangesNothing() {
+        LoanAccount account = account(1L, "10000.00");
+        AccrualBatch.accrue(List.of(account), BUSINESS_DATE);
+
+        List<LoanAccount> changed = AccrualBatch.accrue(List.of(account), BUSINESS_DATE);
+
+        assertTrue(changed.isEmpty());
+        assertEquals(new BigDecimal("60.00"), account.getAccruedInterest());
+        assertEquals(BUSINESS_DATE, account.getInterestThrough());
+    }
+
+    @Test
+    void agesAccountsWhoseInterestIsAlreadyCurrent() {
+        LoanAccount account = account(1L, "10000.00");
+        account.setInterestThrough(BUSINESS_DATE.plusDays(45));
+        LocalDate businessDate = BUSINESS_DATE.plusDays(45);
+
+        List<LoanAccount> changed = AccrualBatch.accrue(List.of(account), businessDate);
+
+        // Due February 1, 44 days before March 17
+        assertEquals(List.of(account), changed);
+        assertEquals(new BigDecimal("0.00"), account.getAccruedInterest());
+        assertEquals(44, account.getDaysPastDue());
+        assertEquals(DelinquencyBucket.DPD_30_59, account.getDelinquencyBucket());
+    }
+
+    @Test
+    void leavesPaidOffAccountsAlone() {
+        LoanAccount account = account(1L, "0.00");
+
+        assertTrue(AccrualBatch.accrue(List.of(account), BUSINESS_DATE.plusDays(90)).isEmpty());
+        assertEquals(new BigDecimal("0.00"), account.getAccruedInterest());
+        assertEquals(DelinquencyBucket.CURRENT, account.getDelinquencyBucket());
+    }
+
+    @Test
+    void resumesAfterTheLastCheckpoint() {
+        LocalDateTime startedAt = BUSINESS_DATE.plusDays(1).atStartOfDay();
+        when(runRepository.findByBusinessDate(BUSINESS_DATE))
+                .thenReturn(Mono.just(new AccrualRun(BUSINESS_DATE, 2L, 2L, false, startedAt, startedAt)));
+        when(ledgerRepository.findDisbursedAccounts(2L, 2))
+                .thenReturn(Flux.just(account(3L, "10000.00"), account(4L, "5000.00")));
+        when(ledgerRepository.findDisbursedAccounts(4L, 2)).thenReturn(Flux.just(account(5L, "2500.00")));
+
+        List<AccrualRun> runs = batch.run(BUSINESS_DATE).block();
+
+        verify(ledgerRepository, never()).findDisbursedAccounts(eq(0L), anyInt());
+        assertEquals(List.of("4/4", "5/5", "5/5 completed"), checkpoints);
+        assertEquals(1, runs.size());
+        assertEquals(5L, runs.get(0).getLastApplicationId());
+        assertEquals(5L, runs.get(0).getAccountsProcessed());
+        assertTrue(runs.get(0).getCompleted());
+    }
+
+    @Test
+    void doesNotRunACompletedDateAgain() {
+        LocalDateTime startedAt = BUSINESS_DATE.plusDays(1).atStartOfDay();
+        AccrualRun completed = new AccrualRun(BUSINESS_DATE, 5L, 5L, true, startedAt, startedAt);
+        when(runRepository.findByBusinessDate(BUSINESS_DATE)).thenReturn(Mono.just(completed));
+
+        List<AccrualRun> runs = batch.run(BUSINESS_DATE).block();
+
+        assertSame(completed, runs.get(0));
+        verify(ledgerRepository, never()).findDisbursedAccounts(anyLong(), anyInt());
+        assertTrue(checkpoints.isEmpty());
+    }
+
+    @Test
+    void refusesToStartWhileAnotherRunIsInProgress() {
+        when(runRepository.findByBusinessDate(BUSINESS_DATE)).thenReturn(Mono.never(), Mono.empty());
+        when(ledgerRepository.findDisbursedAccounts(0L, 2)).thenReturn(Flux.empty());
+
+        Disposable first = batch.run(BUSINESS_DATE).subscribe();
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> batch.run(BUSINESS_DATE).block());
+        assertEquals("An accrual run is already in progress", error.getMessage());
+
+        // The guard is released however the run ends, here by cancellation
+        first.dispose();
+        assertEquals(1, batch.run(BUSINESS_DATE).block().size());
+    }
+
+    private static LoanAccount account(Long applicationId, String balance) {
+        LocalDateTime openedAt = OPENED_ON.atStartOfDay();
+        return new LoanAccount(applicationId, 7L, new BigDecimal("10000.00"), new BigDecimal("0.0720"),
+                new BigDecimal("200.00"), 60, new BigDecimal(balance), BigDecimal.ZERO.setScale(2), OPENED_ON,
+                BigDecimal.ZERO.setScale(2), OPENED_ON.plusMonths(1), 0, DelinquencyBucket.CURRENT, null,
+                openedAt, openedAt, 0L);
+    }
+}
@@ -0,0 +1,244 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.WriteCoalescerProperties;
+import com.rjtmahinay.loan.config.WriteCoalescerProperties.Durability;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.ApplicationStatus;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.repository.LoanApplicationBatchWriter;
+import com.rjtmahinay.loan.repository.LoanApplicationUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoanApplicationWriteCoalescerTest {
+
+    private static final long ID = 42L;
+    private static final LocalDateTime APPROVED_AT = LocalDateTime.of(2026, 1, 5, 10, 0);
+    private static final LocalDateTime DISBURSED_AT = LocalDateTime.of(2026, 1, 6, 9, 30);
+
+    private LoanApplicationBatchWriter batchWriter;
+    private WriteCoalescerProperties properties;
+    private LoanApplicationWriteCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        batchWriter = mock(LoanApplicationBatchWriter.class);
+        properties = new WriteCoalescerProperties();
+        // Long enough that batches are only written by the explicit flushes in each test
+        properties.setWindow(Duration.ofHours(1));
+        properties.setDurability(Durability.WRITE_BEHIND);
+        coalescer = new LoanApplicationWriteCoalescer(batchWriter, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void mergesUpdatesOfOneApplicationIntoOneRowWrite() {
+        when(batchWriter.write(anyList())).thenReturn(Mono.just(Set.of(ID)));
+
+        // The disbursement expects APPROVED, which the queued approval sets
+        assertTrue(coalescer.write(approve(stored())).block());
+        assertTrue(coalescer.write(disburse(stored())).block());
+        coalescer.flush();
+
+        List<LoanApplicationUpdate> written = capturedBatches(1).get(0);
+        assertEquals(1, written.size());
+        LoanApplication row = written.get(0).applyTo(stored());
+        assertEquals(ApplicationStatus.DISBURSED, row.getStatus());
+        assertEquals(new BigDecimal("20000.00"), row.getLoanAmount());
+        assertEquals(new BigDecimal("7.50"), row.getInterestRate());
+        assertEquals(DISBURSED_AT, row.getUpdatedAt());
+        assertFalse(coalescer.hasPending(ID));
+    }
+
+    @Test
+    void keepsTheExpectedStatusOfATransitionMergedIntoAnUnconditionalUpdate() {
+        when(batchWriter.write(anyList())).thenReturn(Mono.just(Set.of(ID)));
+
+        LoanApplication repriced = stored();
+        repriced.setInterestRate(new BigDecimal("7.75"));
+        assertTrue(coalescer.write(LoanApplicationUpdate.of(repriced).interestRate()).block());
+        assertTrue(coalescer.write(approve(stored())).block());
+        coalescer.flush();
+
+        LoanApplicationUpdate written = capturedBatches(1).get(0).get(0);
+        assertEquals(ApplicationStatus.UNDER_REVIEW, written.getExpectedStatus());
+        assertEquals(ApplicationStatus.APPROVED, written.getNewStatus());
+    }
+
+    @Test
+    void applyPendingOverlaysInFlightThenQueuedUpdates() {
+        Sinks.One<Set<Long>> commit = Sinks.one();
+        when(batchWriter.write(anyList())).thenReturn(commit.asMono());
+
+        coalescer.write(approve(stored())).block();
+        coalescer.flush();
+        coalescer.write(disburse(stored())).block();
+
+        LoanApplication read = coalescer.applyPending(stored());
+        assertEquals(ApplicationStatus.DISBURSED, read.getStatus());
+        assertEquals(new BigDecimal("20000.00"), read.getLoanAmount());
+        assertEquals(new BigDecimal("7.50"), read.getInterestRate());
+        assertEquals(APPROVED_AT, read.getApprovalDate());
+        assertEquals(DISBURSED_AT, read.getUpdatedAt());
+        assertTrue(coalescer.hasPending(ID));
+    }
+
+    @Test
+    void writeThroughCompletesOnlyOnceTheBatchCommits() {
+        properties.setDurability(Durability.WRITE_THROUGH);
+        Sinks.One<Set<Long>> commit = Sinks.one();
+        when(batchWriter.write(anyList())).thenReturn(commit.asMono());
+
+        CompletableFuture<Boolean> written = coalescer.write(approve(stored())).toFuture();
+        coalescer.flush();
+        assertFalse(written.isDone());
+
+        commit.tryEmitValue(Set.of(ID));
+        assertTrue(written.join());
+        assertFalse(coalescer.hasPending(ID));
+    }
+
+    @Test
+    void writeThroughFailsWhenTheBatchFails() {
+        properties.setDurability(Durability.WRITE_THROUGH);
+        when(batchWriter.write(anyList())).thenReturn(Mono.error(new IllegalStateException("connection lost")));
+
+        CompletableFuture<Boolean> written = coalescer.write(approve(stored())).toFuture();
+        coalescer.flush();
+
+        assertTrue(written.isCompletedExceptionally());
+        assertFalse(coalescer.hasPending(ID));
+    }
+
+    @Test
+    void writeThroughReportsARowThatNoLongerHasTheExpectedStatus() {
+        properties.setDurability(Durability.WRITE_THROUGH);
+        // Another node moved the row on first, so the conditional UPDATE matches nothing
+        when(batchWriter.write(anyList())).thenReturn(Mono.just(Set.of()));
+
+        CompletableFuture<Boolean> written = coalescer.write(approve(stored())).toFuture();
+        coalescer.flush();
+
+        assertFalse(written.join());
+    }
+
+    @Test
+    void refusesATransitionFromAStatusAQueuedUpdateHasLeft() {
+        when(batchWriter.write(anyList())).thenReturn(Mono.just(Set.of(ID)));
+
+        assertTrue(coalescer.write(reject(stored())).block());
+        // A concurrent cancellation also loaded the application as UNDER_REVIEW
+        assertFalse(coalescer.write(cancel(stored())).block());
+        coalescer.flush();
+
+        List<LoanApplicationUpdate> written = capturedBatches(1).get(0);
+        assertEquals(ApplicationStatus.REJECTED, written.get(0).applyTo(stored()).getStatus());
+    }
+
+    @Test
+    void refusesATransitionFromAStatusAnInFlightUpdateHasLeft() {
+        Sinks.One<Set<Long>> commit = Sinks.one();
+        when(batchWriter.write(anyList())).thenReturn(commit.asMono());
+
+        coalescer.write(reject(stored())).block();
+        coalescer.flush();
+
+        assertFalse(coalescer.write(cancel(stored())).block());
+    }
+
+    @Test
+    void writesOneBatchAtATimeInTheOrderQueued() {
+        Sinks.One<Set<Long>> firstCommit = Sinks.one();
+        Sinks.One<Set<Long>> secondCommit = Sinks.one();
+        when(batchWriter.write(anyList())).thenReturn(firstCommit.asMono(), secondCommit.asMono());
+
+        coalescer.write(approve(stored())).block();
+        coalescer.flush();
+        coalescer.write(disburse(stored())).block();
+        coalescer.flush();
+        // The second flush finds the first batch still being written and leaves its update queued
+        verify(batchWriter, times(1)).write(anyList());
+
+        firstCommit.tryEmitValue(Set.of(ID));
+        List<List<LoanApplicationUpdate>> batches = capturedBatches(2);
+        assertEquals(ApplicationStatus.APPROVED, batches.get(0).get(0).applyTo(stored()).getStatus());
+        assertEquals(ApplicationStatus.DISBURSED, batches.get(1).get(0).applyTo(stored()).getStatus());
+
+        secondCommit.tryEmitValue(Set.of(ID));
+        assertFalse(coalescer.hasPending(ID));
+    }
+
+    @Test
+    void shutdownWritesQueuedUpdates() {
+        when(batchWriter.write(anyList())).thenReturn(Mono.just(Set.of(ID)));
+
+        coalescer.write(approve(stored())).block();
+        coalescer.shutdown();
+
+        assertEquals(1, capturedBatches(1).size());
+        assertFalse(coalescer.hasPending(ID));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<LoanApplicationUpdate>> capturedBatches(int expected) {
+        ArgumentCaptor<List<LoanApplicationUpdate>> batches = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, times(expected)).write(batches.capture());
+        return batches.getAllValues();
+    }
+
+    private static LoanApplication stored() {
+        LoanApplication application = new LoanApplication(7L, new BigDecimal("25000.00"), LoanType.AUTO, 60, "Car");
+        application.setId(ID);
+        application.setStatus(ApplicationStatus.UNDER_REVIEW);
+        application.setInterestRate(new BigDecimal("8.25"));
+        application.setUpdatedAt(LocalDateTime.of(2026, 1, 2, 8, 0));
+        return application;
+    }
+
+    private static LoanApplicationUpdate approve(LoanApplication application) {
+        application.setStatus(ApplicationStatus.APPROVED);
+        application.setLoanAmount(new BigDecimal("20000.00"));
+        application.setInterestRate(new BigDecimal("7.50"));
+        application.setApprovalDate(APPROVED_AT);
+        application.setUpdatedAt(APPROVED_AT);
+        return LoanApplicationUpdate.of(application).expecting(ApplicationStatus.UNDER_REVIEW)
+                .status().loanAmount().interestRate().approvalDate().updatedAt();
+    }
+
+    private static LoanApplicationUpdate disburse(LoanApplication application) {
+        application.setStatus(ApplicationStatus.DISBURSED);
+        application.setUpdatedAt(DISBURSED_AT);
+        return LoanApplicationUpdate.of(application).expecting(ApplicationStatus.APPROVED).status().updatedAt();
+    }
+
+    private static LoanApplicationUpdate reject(LoanApplication application) {
+        application.setStatus(ApplicationStatus.REJECTED);
+        application.setRejectionReason("Insufficient income");
+        return LoanApplicationUpdate.of(application).expecting(ApplicationStatus.UNDER_REVIEW)
+                .status().rejectionReason().updatedAt();
+    }
+
+    private static LoanApplicationUpdate cancel(LoanApplication application) {
+        application.setStatus(ApplicationStatus.CANCELLED);
+        return LoanApplicationUpdate.of(application).expecting(ApplicationStatus.UNDER_REVIEW).status().updatedAt();
+    }
+}
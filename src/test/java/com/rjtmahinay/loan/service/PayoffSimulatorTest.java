@@ -0,0 +1,172 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.service.PayoffSimulator.LumpSum;
+import com.rjtmahinay.loan.service.PayoffSimulator.Outcome;
+import com.rjtmahinay.loan.service.PayoffSimulator.Projection;
+import com.rjtmahinay.loan.service.PayoffSimulator.Scenario;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayoffSimulatorTest {
+
+    private static final LocalDate FIRST_PAYMENT_ON = LocalDate.of(2026, 2, 1);
+    private static final Scenario BASELINE = new Scenario("baseline", null, List.of(), null, null);
+
+    @Test
+    void baselineFollowsTheAmortizationSchedule() {
+        assertMatchesSchedule("10000.00", "0.0600", 12);
+        assertMatchesSchedule("25000.00", "0.0650", 60);
+        assertMatchesSchedule("5000.00", "0.2999", 24);
+        assertMatchesSchedule("350000.00", "0.0725", 360);
+        assertMatchesSchedule("1234.56", "0.0100", 7);
+    }
+
+    @Test
+    void monthlyInterestRoundsLikeTheLedger() {
+        // Half a cent rounds up: 1.00 at 6% is 0.005 a month
+        assertEquals(1, PayoffSimulator.monthlyInterest(100, 600));
+        assertEquals(0, PayoffSimulator.monthlyInterest(99, 600));
+        for (long balance : new long[]{1, 99_999, 120_000, 2_500_000, 35_000_000, 987_654_321}) {
+            for (long rateUnits : new long[]{100, 650, 725, 2999, 3000}) {
+                BigDecimal rate = BigDecimal.valueOf(rateUnits, 4);
+                BigDecimal expected = Amortization.interest(BigDecimal.valueOf(balance, 2), rate, 30);
+                assertEquals(expected, BigDecimal.valueOf(PayoffSimulator.monthlyInterest(balance, rateUnits), 2),
+                        balance + " cents at " + rate);
+            }
+        }
+    }
+
+    @Test
+    void paysOffOnlyWhenThePaymentCoversEverythingOwed() {
+        // 1,000.00 at 6%: 5.00 of interest in the first month
+        Outcome exact = new Projection(100_000, 0, new BigDecimal("0.0600"), 100_500, FIRST_PAYMENT_ON).run(BASELINE, null);
+        assertTrue(exact.paysOff());
+        assertEquals(1, exact.payments());
+        assertEquals(new BigDecimal("1005.00"), exact.totalPaid());
+
+        // A cent short leaves a cent owing, settled by a one-cent payment the next month
+        Outcome short1 = new Projection(100_000, 0, new BigDecimal("0.0600"), 100_499, FIRST_PAYMENT_ON).run(BASELINE, null);
+        assertTrue(short1.paysOff());
+        assertEquals(2, short1.payments());
+        assertEquals(FIRST_PAYMENT_ON.plusMonths(1), short1.payoffDate());
+        assertEquals(new BigDecimal("5.00"), short1.totalInterest());
+        assertEquals(new BigDecimal("1005.00"), short1.totalPaid());
+    }
+
+    @Test
+    void countsTheSmallerFinalPaymentInTotalPaid() {
+        // 100.00 at 12% paid 60.00 a month: 1.00 interest, then 41.00 + 0.41 still owed
+        Outcome outcome = new Projection(10_000, 0, new BigDecimal("0.1200"), 6_000, FIRST_PAYMENT_ON).run(BASELINE, null);
+
+        assertEquals(2, outcome.payments());
+        assertEquals(new BigDecimal("1.41"), outcome.totalInterest());
+        assertEquals(new BigDecimal("101.41"), outcome.totalPaid());
+    }
+
+    @Test
+    void paysCarriedInterestWithTheFirstPayment() {
+        Outcome outcome = new Projection(10_000, 250, new BigDecimal("0.1200"), 20_000, FIRST_PAYMENT_ON).run(BASELINE, null);
+
+        assertEquals(1, outcome.payments());
+        assertEquals(new BigDecimal("3.50"), outcome.totalInterest());
+        assertEquals(new BigDecimal("103.50"), outcome.totalPaid());
+    }
+
+    @Test
+    void lumpSumsAndExtraPaymentsShortenTheSchedule() {
+        BigDecimal rate = new BigDecimal("0.0650");
+        long payment = cents(Amortization.monthlyPayment(new BigDecimal("25000.00"), rate, 60));
+        Projection projection = new Projection(2_500_000, 0, rate, payment, FIRST_PAYMENT_ON);
+        Outcome baseline = projection.run(BASELINE, null);
+
+        Outcome extra = projection.run(new Scenario("extra", new BigDecimal("200.00"), List.of(), null, null), baseline);
+        Outcome lump = projection.run(new Scenario("lump", null, List.of(new LumpSum(12, new BigDecimal("5000.00"))),
+                null, null), baseline);
+
+        for (Outcome outcome : List.of(extra, lump)) {
+            assertTrue(outcome.paysOff());
+            assertTrue(outcome.paymentsSaved() > 0);
+            assertTrue(outcome.interestSaved().signum() > 0);
+            assertEquals(baseline.totalInterest().subtract(outcome.totalInterest()), outcome.interestSaved());
+            // Whatever the payments, principal is repaid once and the rest is interest
+            assertEquals(new BigDecimal("25000.00").add(outcome.totalInterest()), outcome.totalPaid());
+        }
+    }
+
+    @Test
+    void reportsNoPayoffWhenPaymentsNeverCoverTheInterest() {
+        // 1,000.00 at 12% accrues 10.00 a month
+        Outcome outcome = new Projection(100_000, 0, new BigDecimal("0.1200"), 1_000, FIRST_PAYMENT_ON).run(BASELINE, null);
+
+        assertFalse(outcome.paysOff());
+        assertNull(outcome.payoffDate());
+        assertNull(outcome.totalPaid());
+    }
+
+    @Test
+    void comparesOnlySchedulesThatPayOff() {
+        // 9.00 a month against 10.00 of interest
+        Projection projection = new Projection(100_000, 0, new BigDecimal("0.1200"), 900, FIRST_PAYMENT_ON);
+        Outcome baseline = projection.run(BASELINE, null);
+
+        // A lump sum that still leaves the payment short of the interest
+        Outcome lump = projection.run(new Scenario("lump", null, List.of(new LumpSum(6, new BigDecimal("50.00"))),
+                null, null), baseline);
+        assertFalse(lump.paysOff());
+        assertNull(lump.interestSaved());
+        assertNull(lump.paymentsSaved());
+
+        Outcome extra = projection.run(new Scenario("extra", new BigDecimal("100.00"), List.of(), null, null), baseline);
+        assertTrue(extra.paysOff());
+        assertNull(extra.interestSaved());
+        assertNull(extra.paymentsSaved());
+    }
+
+    /**
+     * Projects a new loan paid with {@link Amortization#monthlyPayment} and checks it month by month against the
+     * same schedule worked in BigDecimal with {@link Amortization#interest}.
+     */
+    private static void assertMatchesSchedule(String principal, String annualRate, int termMonths) {
+        BigDecimal rate = new BigDecimal(annualRate);
+        BigDecimal balance = new BigDecimal(principal);
+        BigDecimal installment = Amortization.monthlyPayment(balance, rate, termMonths);
+
+        BigDecimal totalInterest = BigDecimal.ZERO.setScale(2);
+        BigDecimal totalPaid = BigDecimal.ZERO.setScale(2);
+        int payments = 0;
+        while (balance.signum() > 0) {
+            BigDecimal interest = Amortization.interest(balance, rate, 30);
+            BigDecimal due = balance.add(interest);
+            BigDecimal paid = installment.min(due);
+            totalInterest = totalInterest.add(interest);
+            totalPaid = totalPaid.add(paid);
+            balance = due.subtract(paid);
+            payments++;
+        }
+        String loan = principal + " at " + annualRate + " over " + termMonths;
+        // Rounding the installment to the cent leaves at most a small final payment beyond the term
+        assertTrue(payments == termMonths || payments == termMonths + 1, loan + " took " + payments + " payments");
+
+        Outcome outcome = new Projection(cents(new BigDecimal(principal)), 0, rate, cents(installment), FIRST_PAYMENT_ON)
+                .run(BASELINE, null);
+
+        assertTrue(outcome.paysOff(), loan);
+        assertEquals(payments, outcome.payments(), loan);
+        assertEquals(installment, outcome.monthlyPayment(), loan);
+        assertEquals(totalInterest, outcome.totalInterest(), loan);
+        assertEquals(totalPaid, outcome.totalPaid(), loan);
+        assertEquals(FIRST_PAYMENT_ON.plusMonths(payments - 1), outcome.payoffDate(), loan);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+}
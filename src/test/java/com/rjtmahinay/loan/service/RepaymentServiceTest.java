@@ -0,0 +1,369 @@
+package com.rjtmahinay.loan.service;
+
+import com.rjtmahinay.loan.config.PaymentProperties;
+import com.rjtmahinay.loan.model.LoanAccount;
+import com.rjtmahinay.loan.model.LoanAccount.DelinquencyBucket;
+import com.rjtmahinay.loan.model.LoanApplication;
+import com.rjtmahinay.loan.model.LoanApplication.LoanType;
+import com.rjtmahinay.loan.model.LoanPayment;
+import com.rjtmahinay.loan.repository.LoanApplicationRepository;
+import com.rjtmahinay.loan.repository.LoanLedgerRepository;
+import com.rjtmahinay.loan.service.RepaymentService.BatchPostingResult;
+import com.rjtmahinay.loan.service.RepaymentService.IncomingPayment;
+import com.rjtmahinay.loan.service.RepaymentService.Rejection;
+import com.rjtmahinay.loan.sharding.ShardRouter;
+import com.rjtmahinay.loan.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RepaymentServiceTest {
+
+    private static final long ID = 1L;
+    private static final LocalDate OPENED_ON = LocalDate.of(2026, 1, 1);
+    private static final BigDecimal RATE = new BigDecimal("0.0720");
+
+    // The ledger as the mocked repository holds it: accounts by application id and posted payments
+    private final Map<Long, LoanAccount> accounts = new HashMap<>();
+    private final List<LoanPayment> ledger = new ArrayList<>();
+
+    private LoanLedgerRepository ledgerRepository;
+    private LoanApplicationRepository loanApplicationRepository;
+    private ExposureRollup exposureRollup;
+    private PaymentProperties properties;
+    private RepaymentService service;
+
+    @BeforeEach
+    void setUp() {
+        ledgerRepository = mock(LoanLedgerRepository.class);
+        loanApplicationRepository = mock(LoanApplicationRepository.class);
+        exposureRollup = mock(ExposureRollup.class);
+        properties = new PaymentProperties();
+        service = new RepaymentService(ledgerRepository, loanApplicationRepository, exposureRollup, properties,
+                new ShardRouter(new ShardingProperties()), new SimpleMeterRegistry());
+
+        when(ledgerRepository.findAccounts(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids).filter(accounts::containsKey).map(id -> copy(accounts.get(id)));
+        });
+        when(ledgerRepository.findPostedReferences(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> references = invocation.getArgument(0);
+            return Flux.fromIterable(ledger).map(LoanPayment::getReference).filter(references::contains);
+        });
+        when(ledgerRepository.post(anyList(), anyCollection())).thenAnswer(invocation ->
+                store(invocation.getArgument(0), invocation.getArgument(1)));
+        when(loanApplicationRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids).map(RepaymentServiceTest::application);
+        });
+
+        open(new BigDecimal("10000.00"), RATE, new BigDecimal("200.00"), 60);
+    }
+
+    @Test
+    void paysAccruedInterestBeforePrincipal() {
+        // 30 days at 7.2% on 10,000.00: 10000 * 0.072 * 30 / 360
+        LoanPayment payment = service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(30))).block();
+
+        assertEquals(new BigDecimal("60.00"), payment.getInterest());
+        assertEquals(new BigDecimal("440.00"), payment.getPrincipal());
+        assertEquals(new BigDecimal("9560.00"), payment.getBalanceAfter());
+        assertEquals(new BigDecimal("9560.00"), accounts.get(ID).getBalance());
+        assertEquals(new BigDecimal("0.00"), accounts.get(ID).getAccruedInterest());
+        assertEquals(OPENED_ON.plusDays(30), accounts.get(ID).getInterestThrough());
+    }
+
+    @Test
+    void accruesActualDaysOverA360DayYear() {
+        // January has 31 days, so a payment on February 1 owes 31/360 of a year's interest
+        LoanPayment payment = service.postPayment(payment("P-1", "100.00", LocalDate.of(2026, 2, 1))).block();
+
+        assertEquals(new BigDecimal("62.00"), payment.getInterest());
+        assertEquals(new BigDecimal("38.00"), payment.getPrincipal());
+    }
+
+    @Test
+    void leavesInterestNotCoveredByThePaymentAccrued() {
+        LoanPayment payment = service.postPayment(payment("P-1", "25.00", OPENED_ON.plusDays(30))).block();
+
+        assertEquals(new BigDecimal("25.00"), payment.getInterest());
+        assertEquals(new BigDecimal("0.00"), payment.getPrincipal());
+        assertEquals(new BigDecimal("35.00"), accounts.get(ID).getAccruedInterest());
+        assertEquals(new BigDecimal("10000.00"), accounts.get(ID).getBalance());
+    }
+
+    @Test
+    void advancesTheDueDateByWholeInstallmentsOnly() {
+        service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(20))).block();
+
+        // 500.00 covers two 200.00 installments; the 100.00 left over is credit toward the third
+        LoanAccount account = accounts.get(ID);
+        assertEquals(OPENED_ON.plusMonths(3), account.getNextDueDate());
+        assertEquals(new BigDecimal("100.00"), account.getInstallmentCredit());
+
+        service.postPayment(payment("P-2", "100.00", OPENED_ON.plusDays(25))).block();
+
+        account = accounts.get(ID);
+        assertEquals(OPENED_ON.plusMonths(4), account.getNextDueDate());
+        assertEquals(new BigDecimal("0.00"), account.getInstallmentCredit());
+    }
+
+    @Test
+    void rejectsAPaymentAbovePayoffAndAcceptsPayoffExactly() {
+        LocalDate paidOn = OPENED_ON.plusDays(30);
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.postPayment(payment("P-1", "10060.01", paidOn)).block());
+        assertEquals("Payment exceeds payoff amount 10060.00", error.getMessage());
+        assertTrue(ledger.isEmpty());
+
+        LoanPayment payoff = service.postPayment(payment("P-2", "10060.00", paidOn)).block();
+
+        assertEquals(new BigDecimal("0.00"), payoff.getBalanceAfter());
+        LoanAccount account = accounts.get(ID);
+        assertEquals(0, account.getBalance().signum());
+        assertEquals(new BigDecimal("0.00"), account.getInstallmentCredit());
+        assertEquals(DelinquencyBucket.CURRENT, account.getDelinquencyBucket());
+        verify(exposureRollup).remove(any(LoanApplication.class));
+
+        error = assertThrows(RuntimeException.class,
+                () -> service.postPayment(payment("P-3", "1.00", paidOn.plusDays(1))).block());
+        assertEquals("Loan 1 is paid off", error.getMessage());
+    }
+
+    @Test
+    void keepsAPartlyRepaidLoanInTheExposureRollup() {
+        service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(30))).block();
+
+        verify(exposureRollup, never()).remove(any(LoanApplication.class));
+    }
+
+    @Test
+    void rejectsAmountsFinerThanCents() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.postPayment(payment("P-1", "100.005", OPENED_ON.plusDays(30))).block());
+        assertEquals("Payment amount must be in whole cents", error.getMessage());
+
+        // Trailing zeros are still whole cents, and are stored at the ledger's scale
+        LoanPayment payment = service.postPayment(payment("P-2", "100.000", OPENED_ON.plusDays(30))).block();
+        assertEquals(new BigDecimal("100.00"), payment.getAmount());
+    }
+
+    @Test
+    void refusesAReferenceAlreadyPosted() {
+        service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(30))).block();
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(30))).block());
+        assertEquals("Payment P-1 was already posted", error.getMessage());
+        assertEquals(1, ledger.size());
+        assertEquals(new BigDecimal("9560.00"), accounts.get(ID).getBalance());
+    }
+
+    @Test
+    void reappliesAChunkThatLostAnOptimisticLockRace() {
+        when(ledgerRepository.post(anyList(), anyCollection()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Loan account changed by a concurrent posting")))
+                .thenAnswer(invocation -> store(invocation.getArgument(0), invocation.getArgument(1)));
+
+        LoanPayment payment = service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(30))).block();
+
+        // Applied once, to the account as re-read, not on top of the first attempt
+        assertEquals(new BigDecimal("9560.00"), payment.getBalanceAfter());
+        assertEquals(new BigDecimal("9560.00"), accounts.get(ID).getBalance());
+        verify(ledgerRepository, times(2)).findAccounts(anyCollection());
+    }
+
+    @Test
+    void givesUpAfterRepeatedOptimisticLockFailures() {
+        when(ledgerRepository.post(anyList(), anyCollection()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Loan account changed by a concurrent posting")));
+
+        assertThrows(RuntimeException.class,
+                () -> service.postPayment(payment("P-1", "500.00", OPENED_ON.plusDays(30))).block());
+        // The first attempt and three retries
+        verify(ledgerRepository, times(4)).post(anyList(), anyCollection());
+    }
+
+    @Test
+    void retiresALoanOverItsTermWithTheLevelPayment() {
+        accounts.clear();
+        BigDecimal principal = new BigDecimal("10000.00");
+        BigDecimal rate = new BigDecimal("0.0600");
+        BigDecimal installment = Amortization.monthlyPayment(principal, rate, 12);
+        assertEquals(new BigDecimal("860.66"), installment);
+        open(principal, rate, installment, 12);
+
+        // Expected schedule: every 30 days one month of interest, 0.5% of the balance, then principal
+        List<BigDecimal> interest = new ArrayList<>();
+        List<BigDecimal> balances = new ArrayList<>();
+        BigDecimal balance = principal;
+        BigDecimal finalPayment = null;
+        for (int month = 1; month <= 12; month++) {
+            BigDecimal monthInterest = balance.multiply(new BigDecimal("0.005")).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal paid = month < 12 ? installment : balance.add(monthInterest);
+            balance = balance.subtract(paid.subtract(monthInterest));
+            interest.add(monthInterest);
+            balances.add(balance);
+            finalPayment = paid;
+        }
+        assertEquals(0, balance.signum());
+        // Rounding the installment to cents leaves the last payment within a few cents of it
+        assertTrue(finalPayment.subtract(installment).abs().compareTo(new BigDecimal("0.05")) <= 0);
+
+        List<String> lines = new ArrayList<>();
+        lines.add("reference,application_id,amount,paid_on");
+        for (int month = 1; month <= 12; month++) {
+            BigDecimal amount = month < 12 ? installment : finalPayment;
+            lines.add("S-" + month + "," + ID + "," + amount + "," + OPENED_ON.plusDays(30L * month));
+        }
+        BatchPostingResult result = service.postBankFile(Flux.fromIterable(lines)).block();
+
+        assertEquals(12, result.getPosted());
+        assertEquals(0, result.getRejected());
+        for (int month = 1; month <= 12; month++) {
+            LoanPayment entry = ledger.get(month - 1);
+            assertEquals(interest.get(month - 1), entry.getInterest(), "interest of payment " + month);
+            assertEquals(balances.get(month - 1), entry.getBalanceAfter(), "balance after payment " + month);
+        }
+        BigDecimal principalPaid = ledger.stream().map(LoanPayment::getPrincipal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(principal, principalPaid);
+        LoanAccount account = accounts.get(ID);
+        assertEquals(0, account.getBalance().signum());
+        // Eleven level payments each covered one installment; the payoff moves nothing once the balance is gone
+        assertEquals(OPENED_ON.plusMonths(12), account.getNextDueDate());
+        assertEquals(DelinquencyBucket.CURRENT, account.getDelinquencyBucket());
+        verify(exposureRollup, times(1)).remove(any(LoanApplication.class));
+    }
+
+    @Test
+    void postsABankFileSkippingDuplicatesAndReportingRejectedLines() {
+        properties.setChunkSize(3);
+        ledger.add(new LoanPayment(1L, ID, "P-0", new BigDecimal("100.00"), new BigDecimal("100.00"),
+                BigDecimal.ZERO.setScale(2), new BigDecimal("10000.00"), OPENED_ON.plusDays(14), LocalDateTime.now()));
+
+        List<String> lines = List.of(
+                "reference,application_id,amount,paid_on",
+                "P-1,1,500.00,2026-01-31",
+                "",
+                "P-1,1,500.00,2026-01-31",
+                "P-0,1,100.00,2026-01-15",
+                "P-2,1,abc,2026-02-28",
+                "P-3,999,100.00,2026-02-28",
+                "P-4,1,100.005,2026-02-28",
+                "P-5,1",
+                "P-6,1,-5.00,2026-02-28");
+        BatchPostingResult result = service.postBankFile(Flux.fromIterable(lines)).block();
+
+        assertEquals(1, result.getPosted());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(5, result.getRejected());
+        Map<String, String> reasons = result.getRejections().stream()
+                .collect(Collectors.toMap(Rejection::reference, Rejection::reason));
+        assertEquals(Set.of("P-2", "P-3", "P-4", "line 9", "P-6"), reasons.keySet());
+        assertTrue(reasons.get("P-2").startsWith("Line 6 is not valid"));
+        assertEquals("No disbursed loan 999", reasons.get("P-3"));
+        assertEquals("Payment amount must be in whole cents", reasons.get("P-4"));
+        assertEquals("Expected reference,application_id,amount,paid_on", reasons.get("line 9"));
+        assertEquals("Payment amount must be positive", reasons.get("P-6"));
+
+        assertEquals(2, ledger.size());
+        assertEquals(new BigDecimal("9560.00"), accounts.get(ID).getBalance());
+
+        // Posting the same file again adds nothing
+        BatchPostingResult again = service.postBankFile(Flux.fromIterable(lines)).block();
+        assertEquals(0, again.getPosted());
+        assertEquals(3, again.getDuplicates());
+        assertEquals(2, ledger.size());
+    }
+
+    @Test
+    void agesIntoBucketsAtThirtySixtyAndNinetyDays() {
+        LoanAccount account = accounts.get(ID);
+        LocalDate due = account.getNextDueDate();
+
+        assertAged(account, due, 0, DelinquencyBucket.CURRENT);
+        assertAged(account, due.plusDays(1), 1, DelinquencyBucket.DPD_1_29);
+        assertAged(account, due.plusDays(29), 29, DelinquencyBucket.DPD_1_29);
+        assertAged(account, due.plusDays(30), 30, DelinquencyBucket.DPD_30_59);
+        assertAged(account, due.plusDays(59), 59, DelinquencyBucket.DPD_30_59);
+        assertAged(account, due.plusDays(60), 60, DelinquencyBucket.DPD_60_89);
+        assertAged(account, due.plusDays(89), 89, DelinquencyBucket.DPD_60_89);
+        assertAged(account, due.plusDays(90), 90, DelinquencyBucket.DPD_90_PLUS);
+        assertAged(account, due.plusDays(400), 400, DelinquencyBucket.DPD_90_PLUS);
+    }
+
+    @Test
+    void neverAgesAPaidOffLoan() {
+        LoanAccount account = accounts.get(ID);
+        account.setBalance(new BigDecimal("0.00"));
+
+        assertAged(account, account.getNextDueDate().plusDays(120), 0, DelinquencyBucket.CURRENT);
+    }
+
+    private static void assertAged(LoanAccount account, LocalDate asOf, int daysPastDue, DelinquencyBucket bucket) {
+        RepaymentService.age(account, asOf);
+        assertEquals(daysPastDue, account.getDaysPastDue(), "days past due as of " + asOf);
+        assertEquals(bucket, account.getDelinquencyBucket(), "bucket as of " + asOf);
+    }
+
+    private Mono<Void> store(List<LoanPayment> payments, Collection<LoanAccount> changed) {
+        return Mono.fromRunnable(() -> {
+            ledger.addAll(payments);
+            changed.forEach(account -> accounts.put(account.getApplicationId(), copy(account)));
+        });
+    }
+
+    private void open(BigDecimal principal, BigDecimal rate, BigDecimal monthlyPayment, int termMonths) {
+        LocalDateTime openedAt = OPENED_ON.atStartOfDay();
+        accounts.put(ID, new LoanAccount(ID, 7L, principal, rate, monthlyPayment, termMonths, principal,
+                BigDecimal.ZERO.setScale(2), OPENED_ON, BigDecimal.ZERO.setScale(2), OPENED_ON.plusMonths(1), 0,
+                DelinquencyBucket.CURRENT, null, openedAt, openedAt, 0L));
+    }
+
+    private static IncomingPayment payment(String reference, String amount, LocalDate paidOn) {
+        return new IncomingPayment(ID, reference, new BigDecimal(amount), paidOn);
+    }
+
+    private static LoanApplication application(Long id) {
+        LoanApplication application = new LoanApplication(7L, new BigDecimal("10000.00"), LoanType.PERSONAL, 60, "Test");
+        application.setId(id);
+        return application;
+    }
+
+    private static LoanAccount copy(LoanAccount account) {
+        return new LoanAccount(account.getApplicationId(), account.getCustomerId(), account.getPrincipal(),
+                account.getInterestRate(), account.getMonthlyPayment(), account.getTermMonths(), account.getBalance(),
+                account.getAccruedInterest(), account.getInterestThrough(), account.getInstallmentCredit(),
+                account.getNextDueDate(), account.getDaysPastDue(), account.getDelinquencyBucket(),
+                account.getLastPaymentDate(), account.getOpenedAt(), account.getUpdatedAt(), account.getVersion());
+    }
+}